@@ -7,7 +7,7 @@ import java.util.List;
 
 public abstract class AbstractCsvReader implements AutoCloseable {
 
-	protected int bufferSize = 1024 * 1024;
+	protected int bufferSize = DEFAULT_BUFFER_SIZE;
 	protected boolean hasNext = true;
 	protected CSVParser parser;
 	protected int skipLines;
@@ -17,12 +17,18 @@ public abstract class AbstractCsvReader implements AutoCloseable {
 	protected long totalCharactersRead = 0;
 	protected int charactersRead;
 	protected char[] nextLine;
+	private CsvRowBatch batch;
 	
 	/**
 	 * The default line to start reading.
 	 */
 	public static final int DEFAULT_SKIP_LINES = 0;
 
+	/**
+	 * The default size of the read buffer, in bytes.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
 	public static final int[] getNextLineBoundaries(int start, int end,
 			CharBuffer characters) {
 		int[] returnValue = new int[] { -1, -1 };
@@ -95,29 +101,100 @@ public abstract class AbstractCsvReader implements AutoCloseable {
 			if (!hasNext) {
 				return result; // should throw if still pending?
 			}
-			String[] r = parser.parseLineMulti(nextLine);
-			if (r.length > 0) {
-				if (result == null) {
-					result = r;
-				} else {
-					String[] t = new String[result.length + r.length];
-					System.arraycopy(result, 0, t, 0, result.length);
-					System.arraycopy(r, 0, t, result.length, r.length);
-					result = t;
-				}
-			}
+			result = appendTokens(result, parser.parseLineMulti(nextLine));
 		} while (parser.isPending());
 		return result;
 	}
 
 	/**
-	 * Reads the next line from the file.
+	 * Reads up to max records into a batch. The fields are copied into one
+	 * character array shared by the whole batch instead of being turned into a
+	 * String[] per record.
+	 *
+	 * @param max
+	 *            the largest number of records to read
+	 * @return the batch, or null if there are no more records. The same batch
+	 *         is reused by the next call.
+	 *
+	 * @throws IOException
+	 *             if bad things happen during the read
+	 */
+	public final CsvRowBatch readBatch(int max) throws IOException {
+		if (batch == null) {
+			batch = new CsvRowBatch();
+		}
+		return readBatch(batch, max);
+	}
+
+	/**
+	 * Reads up to max records into a batch supplied by the caller, replacing
+	 * whatever it held. Handing out batches from a pool lets the rows be used
+	 * on other threads while the next batch is being read.
+	 *
+	 * @param into
+	 *            the batch to fill
+	 * @param max
+	 *            the largest number of records to read
+	 * @return the batch passed in, or null if there are no more records
+	 *
+	 * @throws IOException
+	 *             if bad things happen during the read
+	 */
+	public final CsvRowBatch readBatch(CsvRowBatch into, int max)
+			throws IOException {
+		if (max < 1) {
+			throw new IllegalArgumentException(
+					"At least one record must be read into a batch");
+		}
+		into.clear();
+		while (into.size() < max) {
+			do {
+				nextLine = getNextLine();
+				if (!hasNext) {
+					if (into.hasOpenRow()) {
+						into.endRow();
+					}
+					return into.size() > 0 ? into : null;
+				}
+				parser.parseLineMulti(nextLine, into);
+			} while (parser.isPending());
+			into.endRow();
+		}
+		return into;
+	}
+
+	/**
+	 * Joins the tokens parsed from one line of a multi line record onto the
+	 * tokens already read for that record.
+	 * 
+	 * @param result
+	 *            the tokens read so far, or null if none
+	 * @param r
+	 *            the tokens parsed from the latest line
+	 * @return the combined tokens, or null if there are still none
+	 */
+	static String[] appendTokens(String[] result, String[] r) {
+		if (r.length == 0) {
+			return result;
+		}
+		if (result == null) {
+			return r;
+		}
+		String[] t = new String[result.length + r.length];
+		System.arraycopy(result, 0, t, 0, result.length);
+		System.arraycopy(r, 0, t, result.length, r.length);
+		return t;
+	}
+
+	/**
+	 * Reads the next line from the file, skipping the leading lines first if
+	 * that has not been done yet.
 	 * 
 	 * @return the next line from the file without trailing newline
 	 * @throws IOException
 	 *             if bad things happen during the read
 	 */
-	private final char[] getNextLine() throws IOException {
+	final char[] getNextLine() throws IOException {
 		if (!this.linesSkiped) {
 			for (int i = 0; i < skipLines; i++) {
 				readLine();
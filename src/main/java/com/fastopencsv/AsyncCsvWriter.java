@@ -0,0 +1,326 @@
+package com.fastopencsv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accepts rows from any number of threads and writes them to a
+ * {@link CSVWriter} on a background thread, so the callers never wait on the
+ * disk. The rows wait in a bounded queue. The background thread takes them
+ * off in large batches and flushes the writer when it has emptied the queue,
+ * so a burst of rows shares one flush, or earlier once enough rows have been
+ * written or enough time has passed while rows keep arriving.
+ * <p>
+ * When the queue is full a row either waits for room or is dropped, depending
+ * on the {@link OverflowPolicy}. A row array must not be changed after it has
+ * been handed over.
+ * <p>
+ * The writer must be closed, once the calling threads have stopped writing,
+ * to write the last rows and stop the thread. A failure to write, including
+ * a RuntimeException from the CSVWriter, is reported by the flush futures and
+ * by close.
+ */
+public class AsyncCsvWriter implements Closeable {
+
+	/** The default number of rows that can wait in the queue. */
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	/** The default number of rows written between flushes. */
+	public static final int DEFAULT_FLUSH_ROWS = 4096;
+
+	/** The default longest time a written row waits for a flush. */
+	public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+
+	private static final int MAX_BATCH = 1024;
+
+	/**
+	 * What happens to a row when the queue is full.
+	 */
+	public enum OverflowPolicy {
+		/** The caller waits until there is room. */
+		BLOCK,
+
+		/** The row is dropped and counted. */
+		DROP
+	}
+
+	private static final Object CLOSE = new Object();
+
+	private final CSVWriter writer;
+	private final OverflowPolicy overflowPolicy;
+	private final BlockingQueue<Object> queue;
+	private final Thread thread;
+	private final AtomicLong droppedRows = new AtomicLong();
+	private volatile int flushRows = DEFAULT_FLUSH_ROWS;
+	private volatile long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+	private volatile boolean closed;
+	private volatile IOException failure;
+	private volatile long writtenRows;
+
+	/**
+	 * Constructs an asynchronous writer with the default capacity that blocks
+	 * callers when the queue is full.
+	 *
+	 * @param writer
+	 *            the writer to write the rows with
+	 */
+	public AsyncCsvWriter(CSVWriter writer) {
+		this(writer, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * @param writer
+	 *            the writer to write the rows with
+	 * @param capacity
+	 *            the number of rows that can wait in the queue
+	 * @param overflowPolicy
+	 *            what to do with a row when the queue is full
+	 */
+	public AsyncCsvWriter(CSVWriter writer, int capacity,
+			OverflowPolicy overflowPolicy) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(
+					"The queue must hold at least one row");
+		}
+		this.writer = writer;
+		this.overflowPolicy = overflowPolicy;
+		this.queue = new ArrayBlockingQueue<Object>(capacity);
+		this.thread = new Thread(new Runnable() {
+			public void run() {
+				writeRows();
+			}
+		}, "csv-async-writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Hands a row to the background thread.
+	 *
+	 * @param nextLine
+	 *            a string array with each comma-separated element as a separate
+	 *            entry.
+	 * @return true if the row was queued, false if it was dropped because the
+	 *         queue was full
+	 * @throws InterruptedIOException
+	 *             if the caller is interrupted while waiting for room
+	 */
+	public boolean writeNext(String[] nextLine) throws InterruptedIOException {
+		checkOpen();
+		if (nextLine == null) {
+			return true;
+		}
+		if (overflowPolicy == OverflowPolicy.DROP) {
+			if (queue.offer(nextLine)) {
+				return true;
+			}
+			droppedRows.incrementAndGet();
+			return false;
+		}
+		put(nextLine);
+		return true;
+	}
+
+	/**
+	 * Asks the background thread to flush once every row queued before this
+	 * call has been written. The request waits for room in the queue whatever
+	 * the overflow policy.
+	 *
+	 * @return a future that is done when the rows have been flushed, and that
+	 *         fails with an IOException if they could not be written
+	 * @throws InterruptedIOException
+	 *             if the caller is interrupted while waiting for room
+	 */
+	public Future<Void> flush() throws InterruptedIOException {
+		checkOpen();
+		FutureTask<Void> request = new FutureTask<Void>(new Callable<Void>() {
+			public Void call() throws IOException {
+				flushWriter();
+				return null;
+			}
+		});
+		put(request);
+		return request;
+	}
+
+	/**
+	 * Writes every queued row, flushes and closes the underlying writer, and
+	 * stops the background thread.
+	 *
+	 * @throws IOException
+	 *             if any row could not be written
+	 */
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		put(CLOSE);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(
+					"Interrupted while waiting for the rows to be written");
+		}
+		try {
+			writer.close();
+		} catch (IOException e) {
+			if (failure == null) {
+				failure = e;
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("The writer has been closed");
+		}
+	}
+
+	private void put(Object item) throws InterruptedIOException {
+		try {
+			queue.put(item);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(
+					"Interrupted while waiting for room in the queue");
+		}
+	}
+
+	/**
+	 * Runs on the background thread until the close marker is reached. After
+	 * a failure it keeps taking rows, without writing them, so callers are
+	 * never left waiting on a full queue.
+	 */
+	private void writeRows() {
+		List<Object> batch = new ArrayList<Object>(MAX_BATCH);
+		int rowsSinceFlush = 0;
+		long lastFlush = System.nanoTime();
+		while (true) {
+			Object first;
+			try {
+				if (rowsSinceFlush == 0) {
+					first = queue.take();
+				} else {
+					long wait = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis)
+							- (System.nanoTime() - lastFlush);
+					first = queue.poll(Math.max(wait, 0), TimeUnit.NANOSECONDS);
+				}
+			} catch (InterruptedException e) {
+				// only close stops the thread
+				continue;
+			}
+
+			if (first != null) {
+				batch.add(first);
+				queue.drainTo(batch, MAX_BATCH - 1);
+			}
+			for (Object item : batch) {
+				if (item instanceof String[]) {
+					if (failure == null) {
+						try {
+							writer.writeNext((String[]) item);
+							writtenRows++;
+						} catch (RuntimeException e) {
+							failure = new IOException("Unable to write a row", e);
+						}
+					}
+					rowsSinceFlush++;
+				} else if (item instanceof FutureTask) {
+					((FutureTask<?>) item).run();
+					rowsSinceFlush = 0;
+					lastFlush = System.nanoTime();
+				} else if (item == CLOSE) {
+					return;
+				}
+			}
+			batch.clear();
+
+			if (rowsSinceFlush > 0
+					&& (rowsSinceFlush >= flushRows || queue.isEmpty() || System
+							.nanoTime() - lastFlush >= TimeUnit.MILLISECONDS
+							.toNanos(flushIntervalMillis))) {
+				try {
+					flushWriter();
+				} catch (IOException e) {
+					// kept in failure for the flush futures and close
+				}
+				rowsSinceFlush = 0;
+				lastFlush = System.nanoTime();
+			}
+		}
+	}
+
+	private void flushWriter() throws IOException {
+		if (failure == null) {
+			writer.flush();
+			if (writer.checkError()) {
+				failure = new IOException("Unable to write the rows");
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * @return the number of rows dropped because the queue was full
+	 */
+	public long getDroppedRows() {
+		return droppedRows.get();
+	}
+
+	/**
+	 * @return the number of rows the background thread has written so far
+	 */
+	public long getWrittenRows() {
+		return writtenRows;
+	}
+
+	public int getFlushRows() {
+		return flushRows;
+	}
+
+	/**
+	 * @param flushRows
+	 *            the number of rows written before the writer is flushed
+	 */
+	public void setFlushRows(int flushRows) {
+		if (flushRows < 1) {
+			throw new IllegalArgumentException(
+					"At least one row must be written between flushes");
+		}
+		this.flushRows = flushRows;
+	}
+
+	public long getFlushIntervalMillis() {
+		return flushIntervalMillis;
+	}
+
+	/**
+	 * @param flushIntervalMillis
+	 *            the longest time a written row waits before the writer is
+	 *            flushed
+	 */
+	public void setFlushIntervalMillis(long flushIntervalMillis) {
+		if (flushIntervalMillis < 1) {
+			throw new IllegalArgumentException(
+					"The flush interval must be at least a millisecond");
+		}
+		this.flushIntervalMillis = flushIntervalMillis;
+	}
+}
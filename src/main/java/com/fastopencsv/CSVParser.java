@@ -175,6 +175,19 @@ public class CSVParser {
 		this.ignoreLeadingWhiteSpace = ignoreLeadingWhiteSpace;
 	}
 
+	/**
+	 * Constructs a CSVParser with the same separator, quote, escape and
+	 * whitespace settings as another parser, but with its own pending state.
+	 * Used to give each worker thread its own parser.
+	 *
+	 * @param template
+	 *            the parser to copy the settings from
+	 */
+	CSVParser(CSVParser template) {
+		this(template.separator, template.quotechar, template.escape,
+				template.strictQuotes, template.ignoreLeadingWhiteSpace);
+	}
+
 	private boolean anyCharactersAreTheSame(char separator, char quotechar,
 			char escape) {
 		return isSameCharacter(separator, quotechar)
@@ -194,11 +207,26 @@ public class CSVParser {
 	}
 
 	public String[] parseLineMulti(char[] nextLine) throws IOException {
-		return parseLine(nextLine, true);
+		return parseLine(nextLine, true, null);
 	}
 
 	public String[] parseLine(char[] nextLine) throws IOException {
-		return parseLine(nextLine, false);
+		return parseLine(nextLine, false, null);
+	}
+
+	/**
+	 * Parses a line the same way as parseLineMulti, but copies the fields into
+	 * the character arena of a batch instead of creating a String for each.
+	 * 
+	 * @param nextLine
+	 *            the line to parse
+	 * @param batch
+	 *            the batch to add the fields to
+	 * @throws IOException
+	 *             if bad things happen during the read
+	 */
+	void parseLineMulti(char[] nextLine, CsvRowBatch batch) throws IOException {
+		parseLine(nextLine, true, batch);
 	}
 
 	/**
@@ -207,12 +235,15 @@ public class CSVParser {
 	 * @param nextLine
 	 *            the string to parse
 	 * @param multi
+	 * @param batch
+	 *            if not null the fields are added to this batch and null is
+	 *            returned
 	 * @return the comma-tokenized list of elements, or null if nextLine is null
 	 * @throws IOException
 	 *             if bad things happen during the read
 	 */
-	private String[] parseLine(char[] nextLine, boolean multi)
-			throws IOException {
+	private String[] parseLine(char[] nextLine, boolean multi,
+			CsvRowBatch batch) throws IOException {
 
 		if (pending != null && !multi) {
 			pending = null;
@@ -228,7 +259,8 @@ public class CSVParser {
 			}
 		}
 
-		List<String> tokensOnThisLine = new ArrayList<String>();
+		List<String> tokensOnThisLine = batch == null ? new ArrayList<String>()
+				: null;
 		StringBuilder sb = new StringBuilder(INITIAL_READ_SIZE);
 		boolean inQuotes = false;
 		if (pending != null) {
@@ -286,7 +318,7 @@ public class CSVParser {
 				}
 				inField = !inField;
 			} else if (c == separator && !inQuotes) {
-				tokensOnThisLine.add(sb.toString());
+				addToken(tokensOnThisLine, batch, sb);
 				sb.setLength(0); // start work on next token
 				inField = false;
 			} else {
@@ -310,10 +342,57 @@ public class CSVParser {
 			}
 		}
 		if (sb != null) {
+			addToken(tokensOnThisLine, batch, sb);
+		}
+		return batch == null ? tokensOnThisLine
+				.toArray(new String[tokensOnThisLine.size()]) : null;
+
+	}
+
+	private void addToken(List<String> tokensOnThisLine, CsvRowBatch batch,
+			StringBuilder sb) {
+		if (batch == null) {
 			tokensOnThisLine.add(sb.toString());
+		} else {
+			batch.addField(sb);
+		}
+	}
+
+	/**
+	 * Walks a line with the same quote and escape rules as parseLine, without
+	 * building any fields, to find out if a record carries on to the next
+	 * line. This does not touch the pending state so it can be called from
+	 * any thread.
+	 *
+	 * @param nextLine
+	 *            the line to scan
+	 * @param inQuotes
+	 *            true if the line continues a quoted field from the previous
+	 *            line
+	 * @return true if the line ends inside a quoted field
+	 */
+	boolean endsInQuotes(char[] nextLine, boolean inQuotes) {
+		boolean inField = inQuotes;
+		for (int i = 0; i < nextLine.length; i++) {
+			char c = nextLine[i];
+			if (c == this.escape) {
+				if (isNextCharacterEscapable(nextLine, inQuotes || inField, i)) {
+					i++;
+				}
+			} else if (c == quotechar) {
+				if (isNextCharacterEscapedQuote(nextLine, inQuotes || inField, i)) {
+					i++;
+				} else {
+					inQuotes = !inQuotes;
+				}
+				inField = !inField;
+			} else if (c == separator && !inQuotes) {
+				inField = false;
+			} else if (!strictQuotes || inQuotes) {
+				inField = true;
+			}
 		}
-		return tokensOnThisLine.toArray(new String[tokensOnThisLine.size()]);
-		
+		return inQuotes;
 	}
 
 	/**
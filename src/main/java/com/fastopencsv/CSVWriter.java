@@ -19,6 +19,7 @@ package com.fastopencsv;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.io.Writer;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -69,6 +70,21 @@ public class CSVWriter implements Closeable {
 
 	private ResultSetHelper resultService = new ResultSetHelperService();
 
+	private final StringBuilder row = new StringBuilder(INITIAL_STRING_SIZE);
+
+	private char[] rowChars = new char[INITIAL_STRING_SIZE];
+
+	private int fieldsInRow;
+
+	private char[] streamChars;
+
+	private QuotePolicy quotePolicy = QuotePolicy.ALWAYS;
+
+	// the characters that can appear in a number written by append
+	private static final String NUMBER_CHARACTERS = "0123456789-.EInfinityNaN";
+
+	private final boolean numbersNeedScan;
+
 	/**
 	 * Constructs CSVWriter using a comma for the separator.
 	 * 
@@ -162,6 +178,9 @@ public class CSVWriter implements Closeable {
 		this.quotechar = quotechar;
 		this.escapechar = escapechar;
 		this.lineEnd = lineEnd;
+		this.numbersNeedScan = NUMBER_CHARACTERS.indexOf(separator) != -1
+				|| NUMBER_CHARACTERS.indexOf(quotechar) != -1
+				|| NUMBER_CHARACTERS.indexOf(escapechar) != -1;
 	}
 
 	/**
@@ -201,6 +220,15 @@ public class CSVWriter implements Closeable {
 	public void writeAll(java.sql.ResultSet rs, boolean includeColumnNames)
 			throws SQLException, IOException {
 
+		if (getClass() == CSVWriter.class
+				&& resultService.getClass() == ResultSetHelperService.class) {
+			// the default service can be planned once for the whole result set,
+			// unless a subclass may have changed how rows are written
+			new ResultSetExporter(this, (ResultSetHelperService) resultService)
+					.export(rs, includeColumnNames);
+			return;
+		}
+
 		if (includeColumnNames) {
 			writeColumnNames(rs);
 		}
@@ -222,35 +250,256 @@ public class CSVWriter implements Closeable {
 		if (nextLine == null)
 			return;
 
-		StringBuilder sb = new StringBuilder(INITIAL_STRING_SIZE);
 		for (int i = 0; i < nextLine.length; i++) {
+			writeField(nextLine[i]);
+		}
+		endRow();
+
+	}
+
+	/**
+	 * Adds one field to the row being built. A null field is left empty.
+	 * 
+	 * @param nextElement
+	 *            the value of the field
+	 */
+	void writeField(String nextElement) {
+		writeField((CharSequence) nextElement);
+	}
+
+	/**
+	 * Adds one field to the row being built, copying the characters straight
+	 * from the sequence. A null field is left empty.
+	 * 
+	 * @param nextElement
+	 *            the value of the field
+	 */
+	void writeField(CharSequence nextElement) {
+		if (fieldsInRow++ != 0) {
+			row.append(separator);
+		}
+
+		if (nextElement == null)
+			return;
+
+		boolean escape;
+		boolean quote;
+		if (quotePolicy == QuotePolicy.ALWAYS) {
+			escape = sequenceContainsSpecialCharacters(nextElement);
+			quote = quotechar != NO_QUOTE_CHARACTER;
+		} else {
+			// one pass finds everything the policy needs to know
+			int flags = QuotePolicy.scan(nextElement, separator, quotechar,
+					escapechar);
+			escape = (flags & QuotePolicy.ESCAPE) != 0;
+			quote = quotechar != NO_QUOTE_CHARACTER
+					&& quotePolicy.quotes(flags);
+		}
+
+		if (quote)
+			row.append(quotechar);
 
-			if (i != 0) {
-				sb.append(separator);
+		if (escape) {
+			row.append(processLine(nextElement.toString()));
+		} else {
+			row.append(nextElement);
+		}
+
+		if (quote)
+			row.append(quotechar);
+	}
+
+	/**
+	 * Adds one field to the row being built by streaming it from a reader.
+	 * The part of the row built so far is written out first, then the field is
+	 * quoted and escaped chunk by chunk straight into the underlying writer,
+	 * so a large value is never held in memory as a whole. Fields streamed
+	 * this way do not go through {@link #processLine(String)}, and they are
+	 * quoted under every quote policy apart from NEVER. A null reader
+	 * leaves the field empty. The reader is not closed.
+	 * 
+	 * @param reader
+	 *            the characters of the field
+	 * @throws IOException
+	 *             if reading the field fails
+	 */
+	void writeField(Reader reader) throws IOException {
+		if (fieldsInRow++ != 0) {
+			row.append(separator);
+		}
+
+		if (reader == null)
+			return;
+		boolean quote = quotechar != NO_QUOTE_CHARACTER
+				&& quotePolicy != QuotePolicy.NEVER;
+		if (quote)
+			row.append(quotechar);
+		writeRowSoFar();
+
+		if (streamChars == null) {
+			streamChars = new char[ResultSetHelperService.CLOBBUFFERSIZE];
+		}
+		char[] chunk = streamChars;
+		int n;
+		while ((n = reader.read(chunk, 0, chunk.length)) != -1) {
+			int start = 0;
+			for (int i = 0; i < n; i++) {
+				char c = chunk[i];
+				if (escapechar != NO_ESCAPE_CHARACTER
+						&& (c == quotechar || c == escapechar)) {
+					pw.write(chunk, start, i - start);
+					pw.write(escapechar);
+					start = i;
+				}
 			}
+			pw.write(chunk, start, n - start);
+		}
+
+		if (quote)
+			row.append(quotechar);
+	}
+
+	/**
+	 * @return true if fields can be streamed with writeField(Reader) and still
+	 *         be written the way writeNext would write them
+	 */
+	boolean canStreamFields() {
+		// a subclass may have changed processLine
+		return getClass() == CSVWriter.class;
+	}
+
+	private void writeRowSoFar() {
+		int length = row.length();
+		if (length > rowChars.length) {
+			rowChars = new char[Math.max(length, rowChars.length * 2)];
+		}
+		row.getChars(0, length, rowChars, 0);
+		pw.write(rowChars, 0, length);
+		row.setLength(0);
+	}
 
-			String nextElement = nextLine[i];
-			if (nextElement == null)
-				continue;
-			if (quotechar != NO_QUOTE_CHARACTER)
-				sb.append(quotechar);
+	/**
+	 * Adds an int field to the row being built. The digits are written
+	 * straight into the row buffer. End the row with {@link #endRow()}.
+	 * 
+	 * @param value
+	 *            the value of the field
+	 * @return this writer
+	 */
+	public CSVWriter append(int value) {
+		return append((long) value);
+	}
 
-			sb.append(stringContainsSpecialCharacters(nextElement) ? processLine(nextElement)
-					: nextElement);
+	/**
+	 * Adds a long field to the row being built. The digits are written
+	 * straight into the row buffer. End the row with {@link #endRow()}.
+	 * 
+	 * @param value
+	 *            the value of the field
+	 * @return this writer
+	 */
+	public CSVWriter append(long value) {
+		if (numbersNeedScan) {
+			writeField(Long.toString(value));
+			return this;
+		}
+		boolean quote = startNumber(QuotePolicy.NUMBER);
+		row.append(value);
+		if (quote)
+			row.append(quotechar);
+		return this;
+	}
+
+	/**
+	 * Adds a double field to the row being built, written as
+	 * Double.toString would write it but straight into the row buffer. End the
+	 * row with {@link #endRow()}.
+	 * 
+	 * @param value
+	 *            the value of the field
+	 * @return this writer
+	 */
+	public CSVWriter append(double value) {
+		if (numbersNeedScan) {
+			writeField(Double.toString(value));
+			return this;
+		}
+		// NaN and Infinity are written as words, not numbers
+		boolean quote = startNumber(Double.isNaN(value)
+				|| Double.isInfinite(value) ? 0 : QuotePolicy.NUMBER);
+		row.append(value);
+		if (quote)
+			row.append(quotechar);
+		return this;
+	}
+
+	/**
+	 * Adds a field to the row being built. A null field is left empty. End the
+	 * row with {@link #endRow()}.
+	 * 
+	 * @param value
+	 *            the value of the field
+	 * @return this writer
+	 */
+	public CSVWriter append(CharSequence value) {
+		writeField(value);
+		return this;
+	}
 
-			if (quotechar != NO_QUOTE_CHARACTER)
-				sb.append(quotechar);
+	/**
+	 * Starts a field whose characters can never need escaping or force
+	 * quotes.
+	 * 
+	 * @return true if the field is quoted and needs a closing quote
+	 */
+	private boolean startNumber(int flags) {
+		if (fieldsInRow++ != 0) {
+			row.append(separator);
 		}
+		boolean quote = quotechar != NO_QUOTE_CHARACTER
+				&& quotePolicy.quotes(flags);
+		if (quote)
+			row.append(quotechar);
+		return quote;
+	}
 
-		sb.append(lineEnd);
-		pw.write(sb.toString());
+	/**
+	 * Ends the row being built with the append methods and hands it to the
+	 * underlying writer. The row buffer is kept for the next row.
+	 */
+	public void endRow() {
+		row.append(lineEnd);
+		writeRowSoFar();
+		fieldsInRow = 0;
+	}
 
+	/**
+	 * Drops the fields added since the last row was ended, for when a row
+	 * cannot be finished. A field already streamed from a reader has been
+	 * written out and cannot be taken back.
+	 */
+	public void discardRow() {
+		row.setLength(0);
+		fieldsInRow = 0;
 	}
 
 	private boolean stringContainsSpecialCharacters(String line) {
 		return line.indexOf(quotechar) != -1 || line.indexOf(escapechar) != -1;
 	}
 
+	private boolean sequenceContainsSpecialCharacters(CharSequence line) {
+		if (line instanceof String) {
+			return stringContainsSpecialCharacters((String) line);
+		}
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == quotechar || c == escapechar) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	protected StringBuilder processLine(String nextElement) {
 		StringBuilder sb = new StringBuilder(INITIAL_STRING_SIZE);
 		for (int j = 0; j < nextElement.length(); j++) {
@@ -304,4 +553,20 @@ public class CSVWriter implements Closeable {
 		this.resultService = resultService;
 	}
 
+	public QuotePolicy getQuotePolicy() {
+		return quotePolicy;
+	}
+
+	/**
+	 * @param quotePolicy
+	 *            which fields are put in quotes. With NO_QUOTE_CHARACTER no
+	 *            field is quoted whatever the policy.
+	 */
+	public void setQuotePolicy(QuotePolicy quotePolicy) {
+		if (quotePolicy == null) {
+			throw new IllegalArgumentException("A quote policy is needed");
+		}
+		this.quotePolicy = quotePolicy;
+	}
+
 }
@@ -0,0 +1,297 @@
+package com.fastopencsv;
+
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * A date pattern compiled once and shared by every thread. The pattern uses
+ * the letters of {@link SimpleDateFormat}. The common fields (y, M, d, H, m, s
+ * and S) are written digit by digit from a calendar kept per thread, so
+ * formatting a value creates no objects. A pattern using any other letter, or
+ * a locale whose calendar is not Gregorian or whose digits are not 0 to 9, is
+ * handed to a SimpleDateFormat kept per thread, so the text is the same as a
+ * SimpleDateFormat for the same locale and time zone would give.
+ * <p>
+ * The time zone is fixed when the format is made. A format made without one
+ * keeps using the default time zone of that moment, even if the default is
+ * changed later.
+ */
+final class ColumnDateFormat {
+
+	private static final int LITERAL = 0;
+	private static final int YEAR = 1;
+	private static final int SHORT_YEAR = 2;
+	private static final int MONTH = 3;
+	private static final int MONTH_NAME = 4;
+	private static final int DAY = 5;
+	private static final int HOUR = 6;
+	private static final int MINUTE = 7;
+	private static final int SECOND = 8;
+	private static final int MILLISECOND = 9;
+
+	private final String pattern;
+	private final Locale locale;
+	private final TimeZone timeZone;
+
+	// field i is written as kinds[i], padded to widths[i] digits, or as
+	// literals[i] when it is LITERAL
+	private final int[] kinds;
+	private final int[] widths;
+	private final String[] literals;
+	private final String[] monthNames;
+	private final String[] shortMonthNames;
+
+	private final ThreadLocal<Calendar> calendars;
+	private final ThreadLocal<SimpleDateFormat> fallback;
+	private final ThreadLocal<StringBuilder> scratch = new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(32);
+		}
+	};
+
+	/**
+	 * @param pattern
+	 *            the pattern, as SimpleDateFormat would take it
+	 * @throws IllegalArgumentException
+	 *             if the pattern is not valid
+	 */
+	ColumnDateFormat(String pattern) {
+		this(pattern, Locale.getDefault(Locale.Category.FORMAT), TimeZone
+				.getDefault());
+	}
+
+	ColumnDateFormat(String pattern, Locale locale, TimeZone timeZone) {
+		// checks the pattern the same way the old per cell formatters did
+		new SimpleDateFormat(pattern, locale);
+
+		this.pattern = pattern;
+		this.locale = locale;
+		this.timeZone = timeZone;
+
+		DateFormatSymbols symbols = DateFormatSymbols.getInstance(locale);
+		this.monthNames = symbols.getMonths();
+		this.shortMonthNames = symbols.getShortMonths();
+
+		List<Object[]> fields = writesDigits(locale, timeZone) ? compile(pattern)
+				: null;
+		if (fields == null) {
+			kinds = null;
+			widths = null;
+			literals = null;
+			calendars = null;
+			fallback = new ThreadLocal<SimpleDateFormat>() {
+				@Override
+				protected SimpleDateFormat initialValue() {
+					SimpleDateFormat format = new SimpleDateFormat(
+							ColumnDateFormat.this.pattern,
+							ColumnDateFormat.this.locale);
+					format.setTimeZone(ColumnDateFormat.this.timeZone);
+					return format;
+				}
+			};
+		} else {
+			kinds = new int[fields.size()];
+			widths = new int[fields.size()];
+			literals = new String[fields.size()];
+			for (int i = 0; i < kinds.length; i++) {
+				Object[] field = fields.get(i);
+				kinds[i] = (Integer) field[0];
+				widths[i] = (Integer) field[1];
+				literals[i] = (String) field[2];
+			}
+			fallback = null;
+			calendars = new ThreadLocal<Calendar>() {
+				@Override
+				protected Calendar initialValue() {
+					return new GregorianCalendar(ColumnDateFormat.this.timeZone,
+							ColumnDateFormat.this.locale);
+				}
+			};
+		}
+	}
+
+	/**
+	 * Whether the fields can be written from a GregorianCalendar with the
+	 * digits 0 to 9, as SimpleDateFormat writes them for the locale. Locales
+	 * such as th_TH and ja_JP_JP have calendars of their own, and th_TH_TH
+	 * its own digits.
+	 */
+	private static boolean writesDigits(Locale locale, TimeZone timeZone) {
+		Calendar calendar = Calendar.getInstance(timeZone, locale);
+		return calendar.getClass() == GregorianCalendar.class
+				&& DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0';
+	}
+
+	/**
+	 * Splits the pattern into fields.
+	 *
+	 * @return the fields as {kind, width, literal}, or null if the pattern uses
+	 *         a letter that is not written here
+	 */
+	private static List<Object[]> compile(String pattern) {
+		List<Object[]> fields = new ArrayList<Object[]>();
+		int i = 0;
+		while (i < pattern.length()) {
+			char c = pattern.charAt(i);
+			if (c == '\'') {
+				// quoted text, where '' stands for a single quote
+				StringBuilder text = new StringBuilder();
+				int j = i + 1;
+				if (j < pattern.length() && pattern.charAt(j) == '\'') {
+					text.append('\'');
+					j++;
+				} else {
+					while (j < pattern.length()) {
+						char q = pattern.charAt(j);
+						if (q == '\'') {
+							if (j + 1 < pattern.length()
+									&& pattern.charAt(j + 1) == '\'') {
+								text.append('\'');
+								j += 2;
+								continue;
+							}
+							j++;
+							break;
+						}
+						text.append(q);
+						j++;
+					}
+				}
+				fields.add(new Object[] { LITERAL, 0, text.toString() });
+				i = j;
+			} else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+				int count = 1;
+				while (i + count < pattern.length()
+						&& pattern.charAt(i + count) == c) {
+					count++;
+				}
+				int kind;
+				switch (c) {
+				case 'y':
+					kind = count == 2 ? SHORT_YEAR : YEAR;
+					break;
+				case 'M':
+					kind = count >= 3 ? MONTH_NAME : MONTH;
+					break;
+				case 'd':
+					kind = DAY;
+					break;
+				case 'H':
+					kind = HOUR;
+					break;
+				case 'm':
+					kind = MINUTE;
+					break;
+				case 's':
+					kind = SECOND;
+					break;
+				case 'S':
+					kind = MILLISECOND;
+					break;
+				default:
+					return null;
+				}
+				fields.add(new Object[] { kind, count, null });
+				i += count;
+			} else {
+				fields.add(new Object[] { LITERAL, 0, String.valueOf(c) });
+				i++;
+			}
+		}
+		return fields;
+	}
+
+	/**
+	 * @return the pattern the format was compiled from
+	 */
+	String getPattern() {
+		return pattern;
+	}
+
+	/**
+	 * @param date
+	 *            the value to format
+	 * @return the formatted value
+	 */
+	String format(Date date) {
+		StringBuilder sb = scratch.get();
+		sb.setLength(0);
+		format(date, sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Appends the formatted value to a buffer.
+	 *
+	 * @param date
+	 *            the value to format
+	 * @param sb
+	 *            the buffer to append to
+	 */
+	void format(Date date, StringBuilder sb) {
+		if (kinds == null) {
+			sb.append(fallback.get().format(date));
+			return;
+		}
+
+		Calendar calendar = calendars.get();
+		calendar.setTimeInMillis(date.getTime());
+		for (int i = 0; i < kinds.length; i++) {
+			int width = widths[i];
+			switch (kinds[i]) {
+			case LITERAL:
+				sb.append(literals[i]);
+				break;
+			case YEAR:
+				appendNumber(sb, calendar.get(Calendar.YEAR), width);
+				break;
+			case SHORT_YEAR:
+				appendNumber(sb, calendar.get(Calendar.YEAR) % 100, 2);
+				break;
+			case MONTH:
+				appendNumber(sb, calendar.get(Calendar.MONTH) + 1, width);
+				break;
+			case MONTH_NAME:
+				int month = calendar.get(Calendar.MONTH);
+				sb.append(width >= 4 ? monthNames[month]
+						: shortMonthNames[month]);
+				break;
+			case DAY:
+				appendNumber(sb, calendar.get(Calendar.DAY_OF_MONTH), width);
+				break;
+			case HOUR:
+				appendNumber(sb, calendar.get(Calendar.HOUR_OF_DAY), width);
+				break;
+			case MINUTE:
+				appendNumber(sb, calendar.get(Calendar.MINUTE), width);
+				break;
+			case SECOND:
+				appendNumber(sb, calendar.get(Calendar.SECOND), width);
+				break;
+			case MILLISECOND:
+				appendNumber(sb, calendar.get(Calendar.MILLISECOND), width);
+				break;
+			}
+		}
+	}
+
+	private static void appendNumber(StringBuilder sb, int value, int width) {
+		int digits = 1;
+		for (int v = value; v >= 10; v /= 10) {
+			digits++;
+		}
+		for (int i = digits; i < width; i++) {
+			sb.append('0');
+		}
+		sb.append(value);
+	}
+}
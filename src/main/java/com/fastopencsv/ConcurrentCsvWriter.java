@@ -0,0 +1,231 @@
+package com.fastopencsv;
+
+import java.io.CharArrayWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A CSV writer that can be shared by many threads without serializing the
+ * formatting. Each thread formats its rows with its own CSVWriter into its own
+ * buffer, and only copying a full buffer to the shared output takes a lock.
+ * <p>
+ * Rows written with {@link #writeNext(String[])} reach the output in no
+ * particular order between threads, but the rows of one thread keep their
+ * order. Blocks written with {@link #writeBlock(long, List)} reach the output
+ * in the order of their sequence numbers, which must run 0, 1, 2 and so on
+ * without gaps. Use one way or the other on a writer, not both.
+ */
+public class ConcurrentCsvWriter implements Closeable {
+
+	/** The default number of characters a thread buffers before copying. */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private final Writer out;
+	private final int bufferSize;
+	private final Object outLock = new Object();
+	private final List<LocalBuffer> buffers = new ArrayList<LocalBuffer>();
+	private final Lock orderLock = new ReentrantLock();
+	private final Condition turn = orderLock.newCondition();
+	private long nextSequence;
+	private IOException failure;
+
+	private final ThreadLocal<LocalBuffer> rowBuffers = new ThreadLocal<LocalBuffer>() {
+		@Override
+		protected LocalBuffer initialValue() {
+			LocalBuffer buffer = new LocalBuffer();
+			synchronized (buffers) {
+				buffers.add(buffer);
+			}
+			return buffer;
+		}
+	};
+
+	private final ThreadLocal<LocalBuffer> blockBuffers = new ThreadLocal<LocalBuffer>() {
+		@Override
+		protected LocalBuffer initialValue() {
+			return new LocalBuffer();
+		}
+	};
+
+	/**
+	 * The characters one thread has formatted and not yet copied.
+	 */
+	private class LocalBuffer {
+		final CharArrayWriter chars = new CharArrayWriter(bufferSize);
+		final CSVWriter writer = createWriter(chars);
+	}
+
+	/**
+	 * Constructs a writer with the default buffer size.
+	 *
+	 * @param out
+	 *            the shared output
+	 */
+	public ConcurrentCsvWriter(Writer out) {
+		this(out, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param out
+	 *            the shared output
+	 * @param bufferSize
+	 *            the number of characters a thread buffers before copying them
+	 *            to the output
+	 */
+	public ConcurrentCsvWriter(Writer out, int bufferSize) {
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException(
+					"The buffer must hold at least one character");
+		}
+		this.out = out;
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Creates the writer each thread formats its rows with. Override this to
+	 * change the separator, quoting or line ending.
+	 *
+	 * @param chars
+	 *            the buffer of the thread
+	 * @return the writer
+	 */
+	protected CSVWriter createWriter(Writer chars) {
+		return new CSVWriter(chars);
+	}
+
+	/**
+	 * Formats a row into the buffer of the calling thread, copying the buffer
+	 * to the output once it is full.
+	 *
+	 * @param nextLine
+	 *            a string array with each comma-separated element as a separate
+	 *            entry.
+	 * @throws IOException
+	 *             if the output cannot be written
+	 */
+	public void writeNext(String[] nextLine) throws IOException {
+		LocalBuffer buffer = rowBuffers.get();
+		synchronized (buffer) {
+			buffer.writer.writeNext(nextLine);
+			if (buffer.chars.size() >= bufferSize) {
+				copy(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Formats a block of rows on the calling thread, then waits until every
+	 * block with a lower sequence number has been written before writing it.
+	 * A thread that has nothing to write for its sequence number must still
+	 * write an empty block, or the later blocks wait for ever. If a block
+	 * cannot be written, because its thread is interrupted or the output
+	 * fails, the writer gives up on the sequence: the waiting threads and every
+	 * later block fail with an IOException instead.
+	 *
+	 * @param sequence
+	 *            the position of the block, counting from 0
+	 * @param rows
+	 *            the rows of the block
+	 * @throws IOException
+	 *             if the output cannot be written
+	 */
+	public void writeBlock(long sequence, List<String[]> rows)
+			throws IOException {
+		LocalBuffer buffer = blockBuffers.get();
+		buffer.writer.writeAll(rows);
+
+		orderLock.lock();
+		try {
+			while (sequence != nextSequence) {
+				checkFailure();
+				if (sequence < nextSequence) {
+					throw new IllegalArgumentException("Block " + sequence
+							+ " has already been written");
+				}
+				turn.await();
+			}
+			checkFailure();
+			copy(buffer);
+			nextSequence++;
+			turn.signalAll();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw fail(new InterruptedIOException(
+					"Interrupted while waiting for block " + nextSequence));
+		} catch (IOException e) {
+			throw fail(e);
+		} finally {
+			buffer.chars.reset();
+			orderLock.unlock();
+		}
+	}
+
+	/*
+	 * The blocks after one that was lost would wait for it for ever, so the
+	 * waiting threads are woken to fail. Called with the order lock held.
+	 */
+	private IOException fail(IOException e) {
+		if (failure == null) {
+			failure = e;
+		}
+		turn.signalAll();
+		return e;
+	}
+
+	private void checkFailure() throws IOException {
+		if (failure != null) {
+			throw new IOException("Block " + nextSequence
+					+ " could not be written", failure);
+		}
+	}
+
+	private void copy(LocalBuffer buffer) throws IOException {
+		synchronized (outLock) {
+			buffer.chars.writeTo(out);
+		}
+		buffer.chars.reset();
+	}
+
+	/**
+	 * Copies the rows buffered by every thread to the output and flushes it.
+	 * Rows being formatted at the same time may or may not be included.
+	 *
+	 * @throws IOException
+	 *             if the output cannot be written
+	 */
+	public void flush() throws IOException {
+		List<LocalBuffer> snapshot;
+		synchronized (buffers) {
+			snapshot = new ArrayList<LocalBuffer>(buffers);
+		}
+		for (LocalBuffer buffer : snapshot) {
+			synchronized (buffer) {
+				copy(buffer);
+			}
+		}
+		synchronized (outLock) {
+			out.flush();
+		}
+	}
+
+	/**
+	 * Copies the rows buffered by every thread to the output and closes it.
+	 * Call this once the writing threads have finished.
+	 *
+	 * @throws IOException
+	 *             if the output cannot be written or closed
+	 */
+	public void close() throws IOException {
+		flush();
+		synchronized (outLock) {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,339 @@
+package com.fastopencsv;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Processes many CSV files at the same time, each on its own task. On Java 21
+ * or later every file gets a virtual thread; on older runtimes the files share
+ * a fixed pool of platform threads.
+ * <p>
+ * Two limits apply across all of the files: the number of files open at once,
+ * and an estimate of the memory they hold, which is taken from the file sizes
+ * and the buffers of their readers. A file waits before it is opened until
+ * both allow it, and files are let in in the order they started waiting, so a
+ * large file is not held back by a stream of small ones.
+ */
+public class CsvBatchIngest {
+
+	/** The default number of files that may be open at once. */
+	public static final int DEFAULT_MAX_OPEN_FILES = 64;
+
+	/** The default memory budget for files being processed, in bytes. */
+	public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 256L * 1024 * 1024;
+
+	/** The default number of platform threads used before Java 21. */
+	public static final int DEFAULT_PLATFORM_THREADS = Runtime.getRuntime()
+			.availableProcessors();
+
+	/** The default character encoding of the files. */
+	public static final String DEFAULT_CHAR_ENCODING = "UTF-8";
+
+	private static final int KILOBYTE = 1024;
+
+	private int maxOpenFiles = DEFAULT_MAX_OPEN_FILES;
+	private long maxInFlightBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
+	private int platformThreads = DEFAULT_PLATFORM_THREADS;
+	private String charEncoding = DEFAULT_CHAR_ENCODING;
+	private char separator = CSVParser.DEFAULT_SEPARATOR;
+	private char quotechar = CSVParser.DEFAULT_QUOTE_CHARACTER;
+	private char escape = CSVParser.DEFAULT_ESCAPE_CHARACTER;
+	private int skipLines = AbstractCsvReader.DEFAULT_SKIP_LINES;
+
+	/**
+	 * Does the work for a single file.
+	 */
+	public interface FileHandler<R> {
+		/**
+		 * @param file
+		 *            the file being processed
+		 * @param reader
+		 *            an open reader for the file. It is closed once this
+		 *            returns.
+		 * @return the result for the file
+		 * @throws Exception
+		 *             if the file cannot be processed. The exception is kept in
+		 *             the result for the file and the other files carry on.
+		 */
+		R process(File file, AbstractCsvReader reader) throws Exception;
+	}
+
+	/**
+	 * The outcome of processing one file.
+	 */
+	public static class FileResult<R> {
+		private final File file;
+		private final R value;
+		private final Throwable error;
+
+		FileResult(File file, R value, Throwable error) {
+			this.file = file;
+			this.value = value;
+			this.error = error;
+		}
+
+		public File getFile() {
+			return file;
+		}
+
+		/**
+		 * @return what the handler returned, or null if it failed
+		 */
+		public R getValue() {
+			return value;
+		}
+
+		/**
+		 * @return what the handler threw, or null if it succeeded
+		 */
+		public Throwable getError() {
+			return error;
+		}
+
+		public boolean isSuccessful() {
+			return error == null;
+		}
+	}
+
+	/**
+	 * Processes every file in a directory, in name order. Sub directories are
+	 * not searched.
+	 *
+	 * @param directory
+	 *            the directory holding the files
+	 * @param handler
+	 *            does the work for each file
+	 * @return one result per file, in the order the files were listed
+	 * @throws IOException
+	 *             if the directory cannot be listed or the wait is interrupted
+	 */
+	public <R> List<FileResult<R>> process(File directory,
+			FileHandler<R> handler) throws IOException {
+		File[] files = directory.listFiles(new FileFilter() {
+			public boolean accept(File f) {
+				return f.isFile();
+			}
+		});
+		if (files == null) {
+			throw new IOException("Unable to list the files in " + directory);
+		}
+		Arrays.sort(files);
+		return process(Arrays.asList(files), handler);
+	}
+
+	/**
+	 * Processes a list of files.
+	 *
+	 * @param files
+	 *            the files to process
+	 * @param handler
+	 *            does the work for each file
+	 * @return one result per file, in the same order as the files
+	 * @throws IOException
+	 *             if the wait is interrupted
+	 */
+	public <R> List<FileResult<R>> process(List<File> files,
+			FileHandler<R> handler) throws IOException {
+		Semaphore openFiles = new Semaphore(maxOpenFiles, true);
+		int budget = toKilobytes(maxInFlightBytes);
+		Semaphore inFlight = new Semaphore(budget, true);
+		ExecutorService executor = newExecutor();
+		try {
+			List<Future<FileResult<R>>> futures = new ArrayList<Future<FileResult<R>>>(
+					files.size());
+			for (File file : files) {
+				futures.add(executor.submit(new FileTask<R>(file, handler,
+						openFiles, inFlight, budget)));
+			}
+			List<FileResult<R>> results = new ArrayList<FileResult<R>>(
+					files.size());
+			for (Future<FileResult<R>> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(
+					"Interrupted while waiting for the files to be processed");
+		} catch (ExecutionException e) {
+			// the tasks catch everything, so this is a bug or an Error
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/*
+	 * Uses Executors.newVirtualThreadPerTaskExecutor() when the runtime has it.
+	 * It is looked up by reflection so the library still builds and runs on
+	 * older versions of Java.
+	 */
+	private ExecutorService newExecutor() {
+		try {
+			Method virtual = Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) virtual.invoke(null);
+		} catch (Exception e) {
+			return Executors.newFixedThreadPool(platformThreads);
+		}
+	}
+
+	private static int toKilobytes(long bytes) {
+		long kb = (bytes + KILOBYTE - 1) / KILOBYTE;
+		return (int) Math.max(1, Math.min(Integer.MAX_VALUE, kb));
+	}
+
+	/*
+	 * A CsvNioReader allocates its whole byte buffer however small the file
+	 * is, and decodes up to a buffer of it into chars at a time, on top of the
+	 * rows the handler keeps.
+	 */
+	private static long footprint(long length) {
+		long decoded = Math.min(length, AbstractCsvReader.DEFAULT_BUFFER_SIZE);
+		return length + AbstractCsvReader.DEFAULT_BUFFER_SIZE + 2 * decoded;
+	}
+
+	private AbstractCsvReader openReader(File file) throws IOException {
+		return new CsvNioReader(file, charEncoding, separator, quotechar,
+				escape, skipLines);
+	}
+
+	private class FileTask<R> implements Callable<FileResult<R>> {
+		private final File file;
+		private final FileHandler<R> handler;
+		private final Semaphore openFiles;
+		private final Semaphore inFlight;
+		private final int budget;
+
+		FileTask(File file, FileHandler<R> handler, Semaphore openFiles,
+				Semaphore inFlight, int budget) {
+			this.file = file;
+			this.handler = handler;
+			this.openFiles = openFiles;
+			this.inFlight = inFlight;
+			this.budget = budget;
+		}
+
+		public FileResult<R> call() {
+			// a file larger than the whole budget waits until it has the
+			// budget to itself
+			int reserved = Math.min(budget,
+					toKilobytes(footprint(file.length())));
+			try {
+				inFlight.acquire(reserved);
+			} catch (InterruptedException e) {
+				return new FileResult<R>(file, null, e);
+			}
+			try {
+				openFiles.acquire();
+			} catch (InterruptedException e) {
+				inFlight.release(reserved);
+				return new FileResult<R>(file, null, e);
+			}
+			try {
+				AbstractCsvReader reader = openReader(file);
+				try {
+					return new FileResult<R>(file, handler.process(file, reader),
+							null);
+				} finally {
+					reader.close();
+				}
+			} catch (Exception e) {
+				return new FileResult<R>(file, null, e);
+			} finally {
+				openFiles.release();
+				inFlight.release(reserved);
+			}
+		}
+	}
+
+	public int getMaxOpenFiles() {
+		return maxOpenFiles;
+	}
+
+	public void setMaxOpenFiles(int maxOpenFiles) {
+		if (maxOpenFiles < 1) {
+			throw new IllegalArgumentException("At least one open file is needed");
+		}
+		this.maxOpenFiles = maxOpenFiles;
+	}
+
+	public long getMaxInFlightBytes() {
+		return maxInFlightBytes;
+	}
+
+	public void setMaxInFlightBytes(long maxInFlightBytes) {
+		if (maxInFlightBytes < 1) {
+			throw new IllegalArgumentException("The memory budget must be positive");
+		}
+		this.maxInFlightBytes = maxInFlightBytes;
+	}
+
+	public int getPlatformThreads() {
+		return platformThreads;
+	}
+
+	/**
+	 * @param platformThreads
+	 *            the number of threads to use when virtual threads are not
+	 *            available
+	 */
+	public void setPlatformThreads(int platformThreads) {
+		if (platformThreads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed");
+		}
+		this.platformThreads = platformThreads;
+	}
+
+	public String getCharEncoding() {
+		return charEncoding;
+	}
+
+	public void setCharEncoding(String charEncoding) {
+		this.charEncoding = charEncoding;
+	}
+
+	public char getSeparator() {
+		return separator;
+	}
+
+	public void setSeparator(char separator) {
+		this.separator = separator;
+	}
+
+	public char getQuotechar() {
+		return quotechar;
+	}
+
+	public void setQuotechar(char quotechar) {
+		this.quotechar = quotechar;
+	}
+
+	public char getEscape() {
+		return escape;
+	}
+
+	public void setEscape(char escape) {
+		this.escape = escape;
+	}
+
+	public int getSkipLines() {
+		return skipLines;
+	}
+
+	public void setSkipLines(int skipLines) {
+		this.skipLines = skipLines;
+	}
+}
@@ -0,0 +1,306 @@
+package com.fastopencsv;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * A CSV writer that writes UTF-8 bytes straight to a channel. It produces the
+ * same text as {@link CSVWriter}, but instead of building each row as a String
+ * and handing it to a Writer it encodes the fields directly into a reusable
+ * direct ByteBuffer. Characters below 0x80 are stored as single bytes without
+ * going through a CharsetEncoder. The buffer is written to the channel only
+ * when it is full, or on flush and close.
+ * <p>
+ * Like CSVWriter it is not thread safe.
+ */
+public class CsvChannelWriter implements Closeable {
+
+	/** The default size of the byte buffer. */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	// a char takes at most 3 bytes in UTF-8, as a surrogate pair takes 4 for
+	// 2 chars, so an escaped char takes at most 6
+	private static final int MAX_BYTES_PER_CHAR = 3;
+	private static final int MAX_BYTES_PER_FIELD_CHAR = 2 * MAX_BYTES_PER_CHAR;
+
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer;
+	private final char separator;
+	private final char quotechar;
+	private final char escapechar;
+	private final String lineEnd;
+	private final ResultSetHelperService resultService = new ResultSetHelperService();
+	private QuotePolicy quotePolicy = QuotePolicy.ALWAYS;
+
+	/**
+	 * Constructs a writer using a comma for the separator.
+	 *
+	 * @param channel
+	 *            the channel to write to
+	 */
+	public CsvChannelWriter(WritableByteChannel channel) {
+		this(channel, CSVWriter.DEFAULT_SEPARATOR,
+				CSVWriter.DEFAULT_QUOTE_CHARACTER,
+				CSVWriter.DEFAULT_ESCAPE_CHARACTER, CSVWriter.DEFAULT_LINE_END,
+				DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Constructs a writer with supplied separator, quote char, escape char and
+	 * line ending.
+	 *
+	 * @param channel
+	 *            the channel to write to
+	 * @param separator
+	 *            the delimiter to use for separating entries
+	 * @param quotechar
+	 *            the character to use for quoted elements
+	 * @param escapechar
+	 *            the character to use for escaping quotechars or escapechars
+	 * @param lineEnd
+	 *            the line feed terminator to use
+	 * @param bufferSize
+	 *            the size of the byte buffer
+	 */
+	public CsvChannelWriter(WritableByteChannel channel, char separator,
+			char quotechar, char escapechar, String lineEnd, int bufferSize) {
+		if (bufferSize < 16) {
+			throw new IllegalArgumentException(
+					"The buffer must hold at least 16 bytes");
+		}
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(bufferSize);
+		this.separator = separator;
+		this.quotechar = quotechar;
+		this.escapechar = escapechar;
+		this.lineEnd = lineEnd;
+	}
+
+	/**
+	 * Creates or truncates a file and writes to it with a comma for the
+	 * separator.
+	 *
+	 * @param file
+	 *            the file to write
+	 * @return the writer, which closes the file when it is closed
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	public static CsvChannelWriter open(File file) throws IOException {
+		return new CsvChannelWriter(FileChannel.open(file.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING));
+	}
+
+	/**
+	 * Writes the entire list to the channel.
+	 *
+	 * @param allLines
+	 *            a List of String[], with each String[] representing a line of
+	 *            the file.
+	 * @throws IOException
+	 *             if the channel cannot be written
+	 */
+	public void writeAll(List<String[]> allLines) throws IOException {
+		for (String[] line : allLines) {
+			writeNext(line);
+		}
+	}
+
+	/**
+	 * Writes the entire ResultSet with the column handling of
+	 * {@link ResultSetHelperService}. The column types are looked up once.
+	 * The caller is responsible for closing the ResultSet.
+	 *
+	 * @param rs
+	 *            the recordset to write
+	 * @param includeColumnNames
+	 *            true if you want column names in the output, false otherwise
+	 * @throws SQLException
+	 *             if reading a value fails
+	 * @throws IOException
+	 *             if a value cannot be read or the channel cannot be written
+	 */
+	public void writeAll(ResultSet rs, boolean includeColumnNames)
+			throws SQLException, IOException {
+		ResultSetMetaData metadata = rs.getMetaData();
+		int[] columnTypes = new int[metadata.getColumnCount()];
+		for (int i = 0; i < columnTypes.length; i++) {
+			columnTypes[i] = metadata.getColumnType(i + 1);
+		}
+
+		if (includeColumnNames) {
+			writeNext(resultService.getColumnNames(rs));
+		}
+
+		while (rs.next()) {
+			for (int i = 0; i < columnTypes.length; i++) {
+				if (i != 0) {
+					putChar(separator);
+				}
+				writeField(resultService.getColumnValue(rs, columnTypes[i],
+						i + 1));
+			}
+			putString(lineEnd);
+		}
+	}
+
+	/**
+	 * Writes the next line to the channel.
+	 *
+	 * @param nextLine
+	 *            a string array with each comma-separated element as a separate
+	 *            entry.
+	 * @throws IOException
+	 *             if the channel cannot be written
+	 */
+	public void writeNext(String[] nextLine) throws IOException {
+		if (nextLine == null)
+			return;
+
+		for (int i = 0; i < nextLine.length; i++) {
+			if (i != 0) {
+				putChar(separator);
+			}
+			writeField(nextLine[i]);
+		}
+		putString(lineEnd);
+	}
+
+	private void writeField(String nextElement) throws IOException {
+		if (nextElement == null)
+			return;
+
+		int length = nextElement.length();
+		// room for the quotes plus every char escaped at the widest encoding,
+		// so short fields are encoded without checking the space per char
+		int worstCase = (length + 2) * MAX_BYTES_PER_FIELD_CHAR;
+		if (buffer.remaining() < worstCase && worstCase <= buffer.capacity()) {
+			drain();
+		}
+		boolean checkRoom = buffer.remaining() < worstCase;
+
+		boolean quote = quotechar != CSVWriter.NO_QUOTE_CHARACTER
+				&& (quotePolicy == QuotePolicy.ALWAYS || quotePolicy
+						.quotes(QuotePolicy.scan(nextElement, separator,
+								quotechar, escapechar)));
+		if (quote) {
+			putChar(quotechar);
+		}
+		for (int i = 0; i < length; i++) {
+			char c = nextElement.charAt(i);
+			if (checkRoom && buffer.remaining() < MAX_BYTES_PER_FIELD_CHAR) {
+				drain();
+			}
+			if (escapechar != CSVWriter.NO_ESCAPE_CHARACTER
+					&& (c == quotechar || c == escapechar)) {
+				encode(escapechar);
+			}
+			if (c < 0x80) {
+				buffer.put((byte) c);
+			} else if (Character.isHighSurrogate(c) && i + 1 < length
+					&& Character.isLowSurrogate(nextElement.charAt(i + 1))) {
+				encode(Character.toCodePoint(c, nextElement.charAt(++i)));
+			} else {
+				encode(c);
+			}
+		}
+		if (quote) {
+			putChar(quotechar);
+		}
+	}
+
+	private void putChar(char c) throws IOException {
+		if (buffer.remaining() < MAX_BYTES_PER_CHAR) {
+			drain();
+		}
+		encode(c);
+	}
+
+	private void putString(String s) throws IOException {
+		for (int i = 0; i < s.length(); i++) {
+			putChar(s.charAt(i));
+		}
+	}
+
+	/**
+	 * Encodes one code point, writing a lone surrogate as '?' the way
+	 * String.getBytes does. The caller makes sure there is room.
+	 */
+	private void encode(int c) {
+		if (c < 0x80) {
+			buffer.put((byte) c);
+		} else if (c < 0x800) {
+			buffer.put((byte) (0xc0 | (c >> 6)));
+			buffer.put((byte) (0x80 | (c & 0x3f)));
+		} else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+			buffer.put((byte) '?');
+		} else if (c < 0x10000) {
+			buffer.put((byte) (0xe0 | (c >> 12)));
+			buffer.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+			buffer.put((byte) (0x80 | (c & 0x3f)));
+		} else {
+			buffer.put((byte) (0xf0 | (c >> 18)));
+			buffer.put((byte) (0x80 | ((c >> 12) & 0x3f)));
+			buffer.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+			buffer.put((byte) (0x80 | (c & 0x3f)));
+		}
+	}
+
+	private void drain() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Writes any buffered bytes to the channel.
+	 *
+	 * @throws IOException
+	 *             if the channel cannot be written
+	 */
+	public void flush() throws IOException {
+		drain();
+	}
+
+	/**
+	 * Writes any buffered bytes and closes the channel.
+	 *
+	 * @throws IOException
+	 *             if the channel cannot be written or closed
+	 */
+	public void close() throws IOException {
+		try {
+			drain();
+		} finally {
+			channel.close();
+		}
+	}
+
+	public QuotePolicy getQuotePolicy() {
+		return quotePolicy;
+	}
+
+	/**
+	 * @param quotePolicy
+	 *            which fields are put in quotes. With NO_QUOTE_CHARACTER no
+	 *            field is quoted whatever the policy.
+	 */
+	public void setQuotePolicy(QuotePolicy quotePolicy) {
+		if (quotePolicy == null) {
+			throw new IllegalArgumentException("A quote policy is needed");
+		}
+		this.quotePolicy = quotePolicy;
+	}
+}
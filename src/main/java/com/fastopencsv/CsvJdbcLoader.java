@@ -0,0 +1,467 @@
+package com.fastopencsv;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+/**
+ * Loads the rows of a CSV source into a database table with batched INSERT
+ * statements. This is the reverse of
+ * {@link CSVWriter#writeAll(java.sql.ResultSet, boolean)}.
+ * <p>
+ * Rows are read in blocks with
+ * {@link AbstractCsvReader#readBatch(CsvRowBatch, int)} and handed to one or
+ * more writer threads. Each writer has its own connection from the data
+ * source. It binds the values straight from the batch's characters using the
+ * column types it was given, then runs one executeBatch and commit per block.
+ * <p>
+ * Rows are committed block by block, so a failure part way through leaves
+ * the blocks before it in the table. The caller is responsible for closing
+ * the reader.
+ */
+public class CsvJdbcLoader {
+
+	/** The default number of rows in each JDBC batch. */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/** The default number of connections writing at the same time. */
+	public static final int DEFAULT_WRITER_THREADS = 1;
+
+	private static final CsvRowBatch END_OF_BATCHES = new CsvRowBatch();
+
+	private final DataSource dataSource;
+	private final String table;
+	private final String[] columns;
+	private int[] columnTypes;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private int writerThreads = DEFAULT_WRITER_THREADS;
+
+	/**
+	 * Constructs a loader where every column is bound as a VARCHAR.
+	 *
+	 * @param dataSource
+	 *            supplies a connection to each writer thread
+	 * @param table
+	 *            the table to insert into
+	 * @param columns
+	 *            the table columns, in the order of the CSV fields
+	 */
+	public CsvJdbcLoader(DataSource dataSource, String table, String[] columns) {
+		this.dataSource = dataSource;
+		this.table = table;
+		this.columns = columns.clone();
+		this.columnTypes = new int[columns.length];
+		Arrays.fill(columnTypes, Types.VARCHAR);
+	}
+
+	/**
+	 * @return the parameterized INSERT used for each row
+	 */
+	public String getInsertSql() {
+		StringBuilder sb = new StringBuilder("INSERT INTO ").append(table)
+				.append(" (");
+		for (int i = 0; i < columns.length; i++) {
+			if (i != 0) {
+				sb.append(", ");
+			}
+			sb.append(columns[i]);
+		}
+		sb.append(") VALUES (");
+		for (int i = 0; i < columns.length; i++) {
+			sb.append(i == 0 ? "?" : ", ?");
+		}
+		return sb.append(')').toString();
+	}
+
+	/**
+	 * Inserts every remaining row of the reader.
+	 *
+	 * @param reader
+	 *            the rows to insert, positioned after any header line
+	 * @return the number of rows inserted
+	 * @throws IOException
+	 *             if the rows cannot be read
+	 * @throws SQLException
+	 *             if a row cannot be inserted or a value cannot be converted
+	 *             to its column type
+	 */
+	public long load(AbstractCsvReader reader) throws IOException,
+			SQLException {
+		BlockingQueue<CsvRowBatch> free = new ArrayBlockingQueue<CsvRowBatch>(
+				writerThreads * 2);
+		BlockingQueue<CsvRowBatch> full = new ArrayBlockingQueue<CsvRowBatch>(
+				writerThreads * 2 + writerThreads);
+		for (int i = 0; i < writerThreads * 2; i++) {
+			free.add(new CsvRowBatch());
+		}
+		AtomicReference<Exception> failure = new AtomicReference<Exception>();
+		ExecutorService pool = Executors.newFixedThreadPool(writerThreads);
+		List<Future<Long>> writers = new ArrayList<Future<Long>>(writerThreads);
+		try {
+			for (int i = 0; i < writerThreads; i++) {
+				writers.add(pool.submit(new Writer(free, full, failure)));
+			}
+			IOException readFailure = null;
+			try {
+				CsvRowBatch batch;
+				while (failure.get() == null
+						&& null != (batch = reader.readBatch(free.take(),
+								batchSize))) {
+					full.put(batch);
+				}
+			} catch (IOException e) {
+				readFailure = e;
+			} finally {
+				for (int i = 0; i < writerThreads; i++) {
+					full.put(END_OF_BATCHES);
+				}
+			}
+			long rows = 0;
+			for (Future<Long> writer : writers) {
+				rows += writer.get();
+			}
+			if (readFailure != null) {
+				throw readFailure;
+			}
+			Exception writeFailure = failure.get();
+			if (writeFailure instanceof SQLException) {
+				throw (SQLException) writeFailure;
+			}
+			if (writeFailure instanceof RuntimeException) {
+				throw (RuntimeException) writeFailure;
+			}
+			if (writeFailure != null) {
+				throw new SQLException(writeFailure);
+			}
+			return rows;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(
+					"Interrupted while loading the rows");
+		} catch (ExecutionException e) {
+			throw new SQLException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Takes filled batches until told to stop. After a failure anywhere it
+	 * keeps taking batches, without writing them, so the reading thread never
+	 * waits on a full queue.
+	 */
+	private class Writer implements Callable<Long> {
+		private final BlockingQueue<CsvRowBatch> free;
+		private final BlockingQueue<CsvRowBatch> full;
+		private final AtomicReference<Exception> failure;
+
+		Writer(BlockingQueue<CsvRowBatch> free, BlockingQueue<CsvRowBatch> full,
+				AtomicReference<Exception> failure) {
+			this.free = free;
+			this.full = full;
+			this.failure = failure;
+		}
+
+		public Long call() throws InterruptedException {
+			long rows = 0;
+			Connection connection = null;
+			PreparedStatement statement = null;
+			boolean autoCommit = true;
+			try {
+				connection = dataSource.getConnection();
+				autoCommit = connection.getAutoCommit();
+				connection.setAutoCommit(false);
+				statement = connection.prepareStatement(getInsertSql());
+			} catch (SQLException e) {
+				failure.compareAndSet(null, e);
+			}
+			CsvRowBatch batch;
+			while ((batch = full.take()) != END_OF_BATCHES) {
+				if (failure.get() == null) {
+					try {
+						rows += write(connection, statement, batch);
+					} catch (Exception e) {
+						failure.compareAndSet(null, e);
+						rollback(connection);
+					}
+				}
+				free.put(batch);
+			}
+			close(connection, statement, autoCommit);
+			return rows;
+		}
+	}
+
+	private int write(Connection connection, PreparedStatement statement,
+			CsvRowBatch batch) throws SQLException {
+		for (int row = 0; row < batch.size(); row++) {
+			bind(statement, batch, row);
+			statement.addBatch();
+		}
+		statement.executeBatch();
+		connection.commit();
+		return batch.size();
+	}
+
+	private void bind(PreparedStatement statement, CsvRowBatch batch, int row)
+			throws SQLException {
+		char[] chars = batch.getChars();
+		int fields = batch.getFieldCount(row);
+		for (int col = 0; col < columns.length; col++) {
+			int index = col + 1;
+			int type = columnTypes[col];
+			if (col >= fields) {
+				statement.setNull(index, type);
+				continue;
+			}
+			int start = batch.getFieldStart(row, col);
+			int length = batch.getFieldLength(row, col);
+			if (length == 0 && !isCharacterType(type)) {
+				statement.setNull(index, type);
+				continue;
+			}
+			try {
+				bindValue(statement, index, type, chars, start, length);
+			} catch (IllegalArgumentException e) {
+				throw new SQLException("Unable to convert '"
+						+ new String(chars, start, length) + "' for column "
+						+ columns[col], e);
+			}
+		}
+	}
+
+	private static void bindValue(PreparedStatement statement, int index,
+			int type, char[] chars, int start, int length) throws SQLException {
+		switch (type) {
+		case Types.BIGINT:
+			statement.setLong(index, parseLong(chars, start, length));
+			break;
+		case Types.INTEGER:
+		case Types.SMALLINT:
+		case Types.TINYINT:
+			long value = parseLong(chars, start, length);
+			if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+				throw new NumberFormatException("Out of range for an integer");
+			}
+			statement.setInt(index, (int) value);
+			break;
+		case Types.DECIMAL:
+		case Types.NUMERIC:
+			statement.setBigDecimal(index, new BigDecimal(chars, start, length));
+			break;
+		case Types.DOUBLE:
+		case Types.FLOAT:
+			statement.setDouble(index,
+					Double.parseDouble(new String(chars, start, length)));
+			break;
+		case Types.REAL:
+			statement.setFloat(index,
+					Float.parseFloat(new String(chars, start, length)));
+			break;
+		case Types.BOOLEAN:
+		case Types.BIT:
+			statement.setBoolean(index, parseBoolean(chars, start, length));
+			break;
+		case Types.DATE:
+			statement.setDate(index, Date.valueOf(new String(chars, start,
+					length).trim()));
+			break;
+		case Types.TIME:
+			statement.setTime(index, Time.valueOf(new String(chars, start,
+					length).trim()));
+			break;
+		case Types.TIMESTAMP:
+			statement.setTimestamp(index, Timestamp.valueOf(new String(chars,
+					start, length).trim()));
+			break;
+		default:
+			statement.setString(index, new String(chars, start, length));
+		}
+	}
+
+	private static boolean isCharacterType(int type) {
+		switch (type) {
+		case Types.CHAR:
+		case Types.VARCHAR:
+		case Types.LONGVARCHAR:
+		case Types.NCHAR:
+		case Types.NVARCHAR:
+		case Types.LONGNVARCHAR:
+		case Types.CLOB:
+		case Types.NCLOB:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/*
+	 * Reads a whole number straight from the characters, ignoring surrounding
+	 * white space, so no String is made for numeric columns.
+	 */
+	static long parseLong(char[] chars, int start, int length) {
+		int i = start;
+		int end = start + length;
+		while (i < end && Character.isWhitespace(chars[i])) {
+			i++;
+		}
+		while (end > i && Character.isWhitespace(chars[end - 1])) {
+			end--;
+		}
+		boolean negative = false;
+		if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+			negative = chars[i] == '-';
+			i++;
+		}
+		if (i == end) {
+			throw new NumberFormatException("No digits in '"
+					+ new String(chars, start, length) + "'");
+		}
+		// accumulate negatively so Long.MIN_VALUE fits
+		long result = 0;
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		for (; i < end; i++) {
+			int digit = chars[i] - '0';
+			if (digit < 0 || digit > 9 || result < (limit + digit) / 10) {
+				throw new NumberFormatException("Not a long: '"
+						+ new String(chars, start, length) + "'");
+			}
+			result = result * 10 - digit;
+		}
+		return negative ? result : -result;
+	}
+
+	/*
+	 * Accepts 1, t, y and true, or 0, f, n and false, in any case and
+	 * ignoring surrounding white space. Anything else is an error, as it is
+	 * for the numbers, rather than quietly stored as false.
+	 */
+	static boolean parseBoolean(char[] chars, int start, int length) {
+		int i = start;
+		int end = start + length;
+		while (i < end && Character.isWhitespace(chars[i])) {
+			i++;
+		}
+		while (end > i && Character.isWhitespace(chars[end - 1])) {
+			end--;
+		}
+		if (end - i == 1) {
+			switch (Character.toLowerCase(chars[i])) {
+			case '1':
+			case 't':
+			case 'y':
+				return true;
+			case '0':
+			case 'f':
+			case 'n':
+				return false;
+			}
+		} else if (matches(chars, i, end, "true")) {
+			return true;
+		} else if (matches(chars, i, end, "false")) {
+			return false;
+		}
+		throw new IllegalArgumentException("Not a boolean: '"
+				+ new String(chars, start, length) + "'");
+	}
+
+	private static boolean matches(char[] chars, int start, int end,
+			String word) {
+		if (end - start != word.length()) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if (Character.toLowerCase(chars[i]) != word.charAt(i - start)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void rollback(Connection connection) {
+		try {
+			connection.rollback();
+		} catch (SQLException e) {
+			// the original failure is the one worth reporting
+		}
+	}
+
+	private static void close(Connection connection,
+			PreparedStatement statement, boolean autoCommit) {
+		try {
+			if (statement != null) {
+				statement.close();
+			}
+			if (connection != null) {
+				connection.setAutoCommit(autoCommit);
+				connection.close();
+			}
+		} catch (SQLException e) {
+			// nothing useful can be done while closing
+		}
+	}
+
+	public int[] getColumnTypes() {
+		return columnTypes.clone();
+	}
+
+	/**
+	 * @param columnTypes
+	 *            the java.sql.Types of each column, used to choose how its
+	 *            values are bound. Empty fields are bound as NULL for every
+	 *            type apart from the character types.
+	 */
+	public void setColumnTypes(int[] columnTypes) {
+		if (columnTypes.length != columns.length) {
+			throw new IllegalArgumentException("Expected " + columns.length
+					+ " column types but got " + columnTypes.length);
+		}
+		this.columnTypes = columnTypes.clone();
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least 1");
+		}
+		this.batchSize = batchSize;
+	}
+
+	public int getWriterThreads() {
+		return writerThreads;
+	}
+
+	/**
+	 * @param writerThreads
+	 *            the number of connections inserting at the same time
+	 */
+	public void setWriterThreads(int writerThreads) {
+		if (writerThreads < 1) {
+			throw new IllegalArgumentException("At least one writer is needed");
+		}
+		this.writerThreads = writerThreads;
+	}
+}
@@ -0,0 +1,336 @@
+package com.fastopencsv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads a CSV source on several threads. One thread does the raw I/O and
+ * splits the input into lines, a second thread groups those lines into blocks
+ * that end on record boundaries, and a pool of parser threads turns each block
+ * into rows. Blocks come out of {@link #nextBlock()} in the order they were
+ * read no matter how many parser threads are used.
+ * <p>
+ * The stages are connected by bounded queues that carry whole blocks, so the
+ * cost of handing work between threads is paid once per block rather than
+ * once per row, and a slow consumer holds the reader back instead of filling
+ * the heap.
+ * <p>
+ * The caller is responsible for closing the reader.
+ */
+public class CsvPipeline implements Closeable {
+
+	/** The default number of lines handed to a parser thread at a time. */
+	public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+	/** The default number of blocks that may wait between two stages. */
+	public static final int DEFAULT_QUEUE_CAPACITY = 8;
+
+	/** The default number of threads parsing blocks. */
+	public static final int DEFAULT_PARSER_THREADS = 1;
+
+	private static final List<char[]> END_OF_LINES = new ArrayList<char[]>(0);
+
+	private static final Future<List<String[]>> END_OF_ROWS = new FutureTask<List<String[]>>(
+			new Callable<List<String[]>>() {
+				public List<String[]> call() {
+					return null;
+				}
+			});
+
+	private final AbstractCsvReader reader;
+	private int blockSize = DEFAULT_BLOCK_SIZE;
+	private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+	private int parserThreads = DEFAULT_PARSER_THREADS;
+
+	private BlockingQueue<List<char[]>> lineBlocks;
+	private BlockingQueue<Future<List<String[]>>> rowBlocks;
+	private ExecutorService parserPool;
+	private Thread readThread;
+	private Thread splitThread;
+	private volatile Throwable failure;
+	private boolean finished;
+
+	/**
+	 * Constructs a pipeline reading from the current position of a reader. Any
+	 * header line should be read from the reader before the pipeline is
+	 * started.
+	 *
+	 * @param reader
+	 *            the reader to take lines from
+	 */
+	public CsvPipeline(AbstractCsvReader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Starts the reading, splitting and parsing threads. This is done by the
+	 * first call to {@link #nextBlock()} if it has not been done already.
+	 */
+	public void start() {
+		if (readThread != null) {
+			throw new IllegalStateException("The pipeline has already been started");
+		}
+		lineBlocks = new ArrayBlockingQueue<List<char[]>>(queueCapacity);
+		rowBlocks = new ArrayBlockingQueue<Future<List<String[]>>>(queueCapacity);
+		parserPool = Executors.newFixedThreadPool(parserThreads,
+				new StageThreadFactory("csv-parse"));
+		readThread = new StageThreadFactory("csv-read").newThread(new Runnable() {
+			public void run() {
+				readLines();
+			}
+		});
+		splitThread = new StageThreadFactory("csv-split").newThread(new Runnable() {
+			public void run() {
+				splitRecords();
+			}
+		});
+		readThread.start();
+		splitThread.start();
+	}
+
+	/**
+	 * Returns the next block of parsed rows, waiting for it if needed.
+	 *
+	 * @return the rows of the next block in file order, or null when the
+	 *         input is exhausted
+	 * @throws IOException
+	 *             if reading or parsing any block failed
+	 */
+	public List<String[]> nextBlock() throws IOException {
+		if (readThread == null) {
+			start();
+		}
+		if (finished) {
+			return null;
+		}
+		try {
+			Future<List<String[]>> next = rowBlocks.take();
+			if (next == END_OF_ROWS) {
+				finished = true;
+				// every parse task has been taken, let the threads go
+				parserPool.shutdown();
+				if (failure != null) {
+					throw asIOException(failure);
+				}
+				return null;
+			}
+			return next.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(
+					"Interrupted while waiting for the next block");
+		} catch (ExecutionException e) {
+			close();
+			throw asIOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Reads the rest of the input into a List with each element being a
+	 * String[] of tokens.
+	 *
+	 * @return a List of String[], with each String[] representing a record
+	 * @throws IOException
+	 *             if reading or parsing any block failed
+	 */
+	public List<String[]> readAll() throws IOException {
+		List<String[]> allElements = new ArrayList<String[]>();
+		List<String[]> block;
+		while ((block = nextBlock()) != null) {
+			allElements.addAll(block);
+		}
+		return allElements;
+	}
+
+	/**
+	 * Stops all of the pipeline threads. The reader is left open.
+	 */
+	public void close() {
+		if (readThread != null) {
+			readThread.interrupt();
+			splitThread.interrupt();
+			parserPool.shutdownNow();
+		}
+		finished = true;
+	}
+
+	private void readLines() {
+		try {
+			List<char[]> block = new ArrayList<char[]>(blockSize);
+			char[] line;
+			while ((line = reader.getNextLine()) != null) {
+				block.add(line);
+				if (block.size() == blockSize) {
+					lineBlocks.put(block);
+					block = new ArrayList<char[]>(blockSize);
+				}
+			}
+			if (!block.isEmpty()) {
+				lineBlocks.put(block);
+			}
+			lineBlocks.put(END_OF_LINES);
+		} catch (InterruptedException e) {
+			// closed before the end of the input, nobody is waiting
+		} catch (Exception e) {
+			failure = e;
+			putQuietly(lineBlocks, END_OF_LINES);
+		}
+	}
+
+	private void splitRecords() {
+		try {
+			List<char[]> block = new ArrayList<char[]>(blockSize);
+			boolean inQuotes = false;
+			List<char[]> lines;
+			while ((lines = lineBlocks.take()) != END_OF_LINES) {
+				for (char[] line : lines) {
+					block.add(line);
+					inQuotes = reader.parser.endsInQuotes(line, inQuotes);
+					// only cut between records so no block starts in the
+					// middle of a quoted field
+					if (!inQuotes && block.size() >= blockSize) {
+						rowBlocks.put(parserPool.submit(new ParseTask(block)));
+						block = new ArrayList<char[]>(blockSize);
+					}
+				}
+			}
+			if (!block.isEmpty()) {
+				rowBlocks.put(parserPool.submit(new ParseTask(block)));
+			}
+			rowBlocks.put(END_OF_ROWS);
+		} catch (InterruptedException e) {
+			// closed before the end of the input, nobody is waiting
+		} catch (Exception e) {
+			failure = e;
+			putQuietly(rowBlocks, END_OF_ROWS);
+		}
+	}
+
+	private static <E> void putQuietly(BlockingQueue<E> queue, E element) {
+		try {
+			queue.put(element);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static IOException asIOException(Throwable t) {
+		if (t instanceof IOException) {
+			return (IOException) t;
+		}
+		if (t instanceof RuntimeException) {
+			throw (RuntimeException) t;
+		}
+		if (t instanceof Error) {
+			throw (Error) t;
+		}
+		return new IOException(t);
+	}
+
+	/**
+	 * Parses one block of lines the same way readNext does, with a parser of
+	 * its own so blocks can be parsed at the same time.
+	 */
+	private class ParseTask implements Callable<List<String[]>> {
+		private final List<char[]> lines;
+
+		ParseTask(List<char[]> lines) {
+			this.lines = lines;
+		}
+
+		public List<String[]> call() throws IOException {
+			CSVParser blockParser = new CSVParser(reader.parser);
+			List<String[]> rows = new ArrayList<String[]>(lines.size());
+			String[] result = null;
+			for (char[] line : lines) {
+				result = AbstractCsvReader.appendTokens(result,
+						blockParser.parseLineMulti(line));
+				if (!blockParser.isPending() && result != null) {
+					rows.add(result);
+					result = null;
+				}
+			}
+			if (result != null) {
+				// the block ended inside a quoted field, which only happens at
+				// the end of the input
+				rows.add(result);
+			}
+			return rows;
+		}
+	}
+
+	private static class StageThreadFactory implements ThreadFactory {
+		private final String name;
+		private final AtomicInteger count = new AtomicInteger();
+
+		StageThreadFactory(String name) {
+			this.name = name;
+		}
+
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		}
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * @param blockSize
+	 *            the number of lines handed to a parser thread at a time.
+	 *            Blocks are only cut between records so a block may hold a
+	 *            few more lines than this.
+	 */
+	public void setBlockSize(int blockSize) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("The block size must be at least 1");
+		}
+		this.blockSize = blockSize;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * @param queueCapacity
+	 *            the number of blocks that may wait between two stages
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		if (queueCapacity < 1) {
+			throw new IllegalArgumentException("The queue capacity must be at least 1");
+		}
+		this.queueCapacity = queueCapacity;
+	}
+
+	public int getParserThreads() {
+		return parserThreads;
+	}
+
+	/**
+	 * @param parserThreads
+	 *            the number of threads parsing blocks
+	 */
+	public void setParserThreads(int parserThreads) {
+		if (parserThreads < 1) {
+			throw new IllegalArgumentException("At least one parser thread is needed");
+		}
+		this.parserThreads = parserThreads;
+	}
+}
@@ -0,0 +1,244 @@
+package com.fastopencsv;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the rows of a reader to a single subscriber in batches, reading
+ * only as many batches as the subscriber has asked for. Reading is done on an
+ * executor so a subscriber on an event loop thread is never blocked by I/O.
+ * <p>
+ * The Subscriber and Subscription interfaces follow the
+ * java.util.concurrent.Flow contract method for method, so on Java 9 or later
+ * the caller can wrap a Flow.Subscriber in one; no such adapter is included.
+ * <p>
+ * The subscriber is completed together with the batch that reaches the end of
+ * the reader, without waiting for more demand. When the rows fill the last
+ * batch exactly the end is only found, and the subscriber completed, at the
+ * next request, as no row is read before it is asked for.
+ * <p>
+ * The caller is responsible for closing the reader once the subscriber has
+ * been completed or has cancelled.
+ */
+public class CsvPublisher {
+
+	/** The default number of rows in each published batch. */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	private static ExecutorService defaultExecutor;
+
+	private final AbstractCsvReader reader;
+	private final int batchSize;
+	private final Executor executor;
+	private final AtomicBoolean subscribed = new AtomicBoolean();
+
+	/**
+	 * Receives batches of rows from a {@link CsvPublisher}.
+	 */
+	public interface Subscriber<T> {
+		void onSubscribe(Subscription subscription);
+
+		void onNext(T item);
+
+		void onError(Throwable throwable);
+
+		void onComplete();
+	}
+
+	/**
+	 * Links a subscriber to its publisher.
+	 */
+	public interface Subscription {
+		/**
+		 * Asks for up to n more batches.
+		 *
+		 * @param n
+		 *            the number of batches, must be positive
+		 */
+		void request(long n);
+
+		/**
+		 * Stops the publisher from reading and sending any more batches.
+		 */
+		void cancel();
+	}
+
+	/**
+	 * Constructs a publisher using the default batch size and a shared pool of
+	 * daemon threads for reading.
+	 *
+	 * @param reader
+	 *            the reader to publish the rows of
+	 */
+	public CsvPublisher(AbstractCsvReader reader) {
+		this(reader, DEFAULT_BATCH_SIZE, getDefaultExecutor());
+	}
+
+	/**
+	 * Constructs a publisher.
+	 *
+	 * @param reader
+	 *            the reader to publish the rows of
+	 * @param batchSize
+	 *            the largest number of rows in one batch
+	 * @param executor
+	 *            runs the reading and the subscriber callbacks
+	 */
+	public CsvPublisher(AbstractCsvReader reader, int batchSize,
+			Executor executor) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least 1");
+		}
+		this.reader = reader;
+		this.batchSize = batchSize;
+		this.executor = executor;
+	}
+
+	/**
+	 * Subscribes to the rows of the reader. A reader can only be read once, so
+	 * any subscriber after the first is sent an error.
+	 *
+	 * @param subscriber
+	 *            the subscriber to send the batches to
+	 */
+	public void subscribe(Subscriber<? super List<String[]>> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("subscriber");
+		}
+		if (!subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new Subscription() {
+				public void request(long n) {
+				}
+
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException(
+					"This publisher only supports one subscriber"));
+			return;
+		}
+		RowSubscription subscription = new RowSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+
+	private static synchronized Executor getDefaultExecutor() {
+		if (defaultExecutor == null) {
+			defaultExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "csv-publisher-"
+							+ count.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return defaultExecutor;
+	}
+
+	/**
+	 * Tracks the outstanding demand and makes sure only one thread at a time
+	 * reads and signals the subscriber.
+	 */
+	private class RowSubscription implements Subscription, Runnable {
+		private final Subscriber<? super List<String[]>> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger pendingDrains = new AtomicInteger();
+		private volatile boolean cancelled;
+		private volatile Throwable badRequest;
+
+		RowSubscription(Subscriber<? super List<String[]>> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		public void request(long n) {
+			if (n <= 0) {
+				badRequest = new IllegalArgumentException(
+						"The number of batches requested must be positive");
+			} else {
+				long current;
+				long next;
+				do {
+					current = demand.get();
+					next = current + n;
+					if (next < 0) {
+						next = Long.MAX_VALUE;
+					}
+				} while (!demand.compareAndSet(current, next));
+			}
+			schedule();
+		}
+
+		public void cancel() {
+			cancelled = true;
+		}
+
+		private void schedule() {
+			if (pendingDrains.getAndIncrement() == 0) {
+				executor.execute(this);
+			}
+		}
+
+		public void run() {
+			int missed = 1;
+			do {
+				while (!cancelled) {
+					if (badRequest != null) {
+						cancelled = true;
+						subscriber.onError(badRequest);
+						return;
+					}
+					if (demand.get() == 0) {
+						break;
+					}
+					List<String[]> batch;
+					try {
+						batch = readBatch();
+					} catch (IOException e) {
+						cancelled = true;
+						subscriber.onError(e);
+						return;
+					} catch (RuntimeException e) {
+						cancelled = true;
+						subscriber.onError(e);
+						return;
+					}
+					if (batch.isEmpty()) {
+						cancelled = true;
+						subscriber.onComplete();
+						return;
+					}
+					demand.decrementAndGet();
+					subscriber.onNext(batch);
+					if (batch.size() < batchSize) {
+						// the reader ran out, and completing needs no demand
+						if (!cancelled) {
+							cancelled = true;
+							subscriber.onComplete();
+						}
+						return;
+					}
+				}
+				missed = pendingDrains.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private List<String[]> readBatch() throws IOException {
+			List<String[]> batch = new ArrayList<String[]>(batchSize);
+			String[] line;
+			while (batch.size() < batchSize && null != (line = reader.readNext())) {
+				batch.add(line);
+			}
+			return batch;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.fastopencsv;
+
+import java.util.Arrays;
+
+/**
+ * A block of rows read by {@link AbstractCsvReader#readBatch(int)}. The
+ * characters of every field are stored one after another in a single shared
+ * array, and two offset arrays record where each field and each row starts, so
+ * reading a block does not create a String or String[] per row.
+ * <p>
+ * A batch is refilled by every read into it, so its contents are only valid
+ * until then. Use {@link #getField(int, int)} or {@link #getRow(int)} to copy
+ * out anything that has to be kept, or read into batches of your own with
+ * {@link AbstractCsvReader#readBatch(CsvRowBatch, int)}.
+ */
+public class CsvRowBatch {
+
+	private static final int INITIAL_CHARS = 8192;
+	private static final int INITIAL_FIELDS = 256;
+	private static final int INITIAL_ROWS = 32;
+
+	private char[] chars = new char[INITIAL_CHARS];
+	private int charCount;
+
+	// field f is chars[fieldOffsets[f]] up to chars[fieldOffsets[f + 1]]
+	private int[] fieldOffsets = new int[INITIAL_FIELDS + 1];
+	private int fieldCount;
+
+	// row r is fields rowOffsets[r] up to rowOffsets[r + 1]
+	private int[] rowOffsets = new int[INITIAL_ROWS + 1];
+	private int rowCount;
+
+	/**
+	 * @return the number of rows in the batch
+	 */
+	public int size() {
+		return rowCount;
+	}
+
+	/**
+	 * @param row
+	 *            the row in the batch, starting at 0
+	 * @return the number of fields in the row
+	 */
+	public int getFieldCount(int row) {
+		checkRow(row);
+		return rowOffsets[row + 1] - rowOffsets[row];
+	}
+
+	/**
+	 * Gives access to the shared character arena. Use getFieldStart and
+	 * getFieldLength to find a field in it. The array is replaced when it has
+	 * to grow, so do not keep it past the next call to readBatch.
+	 *
+	 * @return the characters of all of the fields in the batch
+	 */
+	public char[] getChars() {
+		return chars;
+	}
+
+	/**
+	 * @return the number of characters used in the arena
+	 */
+	public int getCharCount() {
+		return charCount;
+	}
+
+	/**
+	 * @param row
+	 *            the row in the batch, starting at 0
+	 * @param col
+	 *            the column in the row, starting at 0
+	 * @return the position of the first character of the field in the arena
+	 */
+	public int getFieldStart(int row, int col) {
+		return fieldOffsets[fieldIndex(row, col)];
+	}
+
+	/**
+	 * @param row
+	 *            the row in the batch, starting at 0
+	 * @param col
+	 *            the column in the row, starting at 0
+	 * @return the number of characters in the field
+	 */
+	public int getFieldLength(int row, int col) {
+		int field = fieldIndex(row, col);
+		return fieldOffsets[field + 1] - fieldOffsets[field];
+	}
+
+	/**
+	 * @param row
+	 *            the row in the batch, starting at 0
+	 * @param col
+	 *            the column in the row, starting at 0
+	 * @return a copy of the field as a String
+	 */
+	public String getField(int row, int col) {
+		int field = fieldIndex(row, col);
+		return new String(chars, fieldOffsets[field], fieldOffsets[field + 1]
+				- fieldOffsets[field]);
+	}
+
+	/**
+	 * @param row
+	 *            the row in the batch, starting at 0
+	 * @return a copy of the row in the form readNext returns it
+	 */
+	public String[] getRow(int row) {
+		String[] values = new String[getFieldCount(row)];
+		for (int col = 0; col < values.length; col++) {
+			values[col] = getField(row, col);
+		}
+		return values;
+	}
+
+	private int fieldIndex(int row, int col) {
+		checkRow(row);
+		int field = rowOffsets[row] + col;
+		if (col < 0 || field >= rowOffsets[row + 1]) {
+			throw new IndexOutOfBoundsException("Column " + col
+					+ " is not in row " + row);
+		}
+		return field;
+	}
+
+	private void checkRow(int row) {
+		if (row < 0 || row >= rowCount) {
+			throw new IndexOutOfBoundsException("Row " + row
+					+ " is not in the batch of " + rowCount);
+		}
+	}
+
+	void clear() {
+		charCount = 0;
+		fieldCount = 0;
+		rowCount = 0;
+	}
+
+	void addField(StringBuilder sb) {
+		int length = sb.length();
+		if (charCount + length > chars.length) {
+			chars = Arrays.copyOf(chars,
+					Math.max(chars.length * 2, charCount + length));
+		}
+		sb.getChars(0, length, chars, charCount);
+		charCount += length;
+		fieldCount++;
+		if (fieldCount == fieldOffsets.length) {
+			fieldOffsets = Arrays.copyOf(fieldOffsets, fieldOffsets.length * 2);
+		}
+		fieldOffsets[fieldCount] = charCount;
+	}
+
+	/**
+	 * @return true if fields have been added since the last row was ended
+	 */
+	boolean hasOpenRow() {
+		return fieldCount > rowOffsets[rowCount];
+	}
+
+	void endRow() {
+		rowCount++;
+		if (rowCount == rowOffsets.length) {
+			rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length * 2);
+		}
+		rowOffsets[rowCount] = fieldCount;
+	}
+}
@@ -0,0 +1,441 @@
+package com.fastopencsv;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+/**
+ * Exports a query in partitions that run at the same time, each on its own
+ * connection and through its own CSVWriter. The query is a template whose
+ * parameters select one partition, for example
+ *
+ * <pre>
+ * SELECT * FROM orders WHERE id &gt;= ? AND id &lt; ? ORDER BY id
+ * </pre>
+ *
+ * with the partitions from {@link #keyRanges(long...)}, or
+ *
+ * <pre>
+ * SELECT * FROM orders WHERE MOD(id, ?) = ?
+ * </pre>
+ *
+ * with the partitions from {@link #modulo(int)}. Any other way of splitting
+ * the rows can be given as the parameters to bind for each partition.
+ * <p>
+ * The partitions are written either to one part file each, or merged into a
+ * single output in partition order. With key ranges and an ORDER BY in the
+ * template the merged output is in key order. For a merge the first partition
+ * is written straight to the output and the others are spooled to temporary
+ * files until it is their turn.
+ */
+public class PartitionedExporter {
+
+	/** The default number of partitions exported at the same time. */
+	public static final int DEFAULT_THREADS = 4;
+
+	private static final int COPY_BUFFER_SIZE = 8192;
+
+	private final DataSource dataSource;
+	private final String sqlTemplate;
+	private final List<Object[]> partitions;
+	private int threads = DEFAULT_THREADS;
+	private int fetchSize = ResultSetExporter.DEFAULT_FETCH_SIZE;
+	private Charset charset = StandardCharsets.UTF_8;
+	private ResultSetHelperService resultService = new ResultSetHelperService();
+
+	/**
+	 * @param dataSource
+	 *            supplies a connection to each partition
+	 * @param sqlTemplate
+	 *            the query, with parameters that select one partition
+	 * @param partitions
+	 *            the parameters to bind for each partition, in output order
+	 */
+	public PartitionedExporter(DataSource dataSource, String sqlTemplate,
+			List<Object[]> partitions) {
+		if (partitions.isEmpty()) {
+			throw new IllegalArgumentException(
+					"At least one partition is needed");
+		}
+		this.dataSource = dataSource;
+		this.sqlTemplate = sqlTemplate;
+		this.partitions = new ArrayList<Object[]>(partitions);
+	}
+
+	/**
+	 * Splits a key space into ranges. Partition i is bound as (bounds[i],
+	 * bounds[i + 1]), for a template of the form key &gt;= ? AND key &lt; ?.
+	 *
+	 * @param bounds
+	 *            the boundaries between the ranges, in increasing order
+	 * @return the parameters of each range
+	 */
+	public static List<Object[]> keyRanges(long... bounds) {
+		if (bounds.length < 2) {
+			throw new IllegalArgumentException(
+					"At least two bounds are needed for a range");
+		}
+		List<Object[]> ranges = new ArrayList<Object[]>(bounds.length - 1);
+		for (int i = 0; i + 1 < bounds.length; i++) {
+			if (bounds[i] >= bounds[i + 1]) {
+				throw new IllegalArgumentException("The bounds must increase: "
+						+ bounds[i] + " then " + bounds[i + 1]);
+			}
+			ranges.add(new Object[] { bounds[i], bounds[i + 1] });
+		}
+		return ranges;
+	}
+
+	/**
+	 * Splits the rows by remainder. Partition i is bound as (count, i), for a
+	 * template of the form MOD(key, ?) = ? or ROW_NUMBER() ... % ? = ?.
+	 *
+	 * @param count
+	 *            the number of partitions
+	 * @return the parameters of each partition
+	 */
+	public static List<Object[]> modulo(int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException(
+					"At least one partition is needed");
+		}
+		List<Object[]> parts = new ArrayList<Object[]>(count);
+		for (int i = 0; i < count; i++) {
+			parts.add(new Object[] { count, i });
+		}
+		return parts;
+	}
+
+	/**
+	 * Writes each partition to its own file, named prefix-00000.csv,
+	 * prefix-00001.csv and so on. If any partition fails the files already
+	 * written are deleted.
+	 *
+	 * @param directory
+	 *            the directory to write the files to
+	 * @param prefix
+	 *            the start of each file name
+	 * @param includeColumnNames
+	 *            true if you want column names at the top of every file
+	 * @return the files, in partition order
+	 * @throws SQLException
+	 *             if a query fails
+	 * @throws IOException
+	 *             if a file cannot be written
+	 */
+	public List<File> exportToParts(File directory, String prefix,
+			boolean includeColumnNames) throws SQLException, IOException {
+		List<File> files = new ArrayList<File>(partitions.size());
+		List<Callable<Long>> tasks = new ArrayList<Callable<Long>>(
+				partitions.size());
+		for (int i = 0; i < partitions.size(); i++) {
+			File file = new File(directory, String.format("%s-%05d.csv",
+					prefix, i));
+			files.add(file);
+			tasks.add(new FilePartition(partitions.get(i), file,
+					includeColumnNames));
+		}
+
+		boolean done = false;
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads,
+				partitions.size()));
+		try {
+			List<Future<Long>> results = submitAll(pool, tasks);
+			for (Future<Long> result : results) {
+				await(result);
+			}
+			done = true;
+			return files;
+		} finally {
+			pool.shutdownNow();
+			if (!done) {
+				awaitTermination(pool);
+				delete(files);
+			}
+		}
+	}
+
+	/**
+	 * Writes every partition to one output, in partition order. The caller is
+	 * responsible for closing the output.
+	 *
+	 * @param out
+	 *            the output
+	 * @param includeColumnNames
+	 *            true if you want column names once at the top of the output
+	 * @return the number of rows written, not counting the column names
+	 * @throws SQLException
+	 *             if a query fails
+	 * @throws IOException
+	 *             if the output or a temporary file cannot be written
+	 */
+	public long exportMerged(Writer out, boolean includeColumnNames)
+			throws SQLException, IOException {
+		List<File> spools = new ArrayList<File>(partitions.size() - 1);
+		List<Callable<Long>> tasks = new ArrayList<Callable<Long>>(
+				partitions.size());
+		ExecutorService pool = null;
+		try {
+			tasks.add(new WriterPartition(partitions.get(0), out,
+					includeColumnNames));
+			for (int i = 1; i < partitions.size(); i++) {
+				File spool = File.createTempFile("partition-" + i, ".csv");
+				spools.add(spool);
+				tasks.add(new FilePartition(partitions.get(i), spool, false));
+			}
+
+			pool = Executors.newFixedThreadPool(Math.min(threads,
+					partitions.size()));
+			List<Future<Long>> results = submitAll(pool, tasks);
+			long rows = await(results.get(0));
+			for (int i = 1; i < results.size(); i++) {
+				rows += await(results.get(i));
+				File spool = spools.get(i - 1);
+				copy(spool, out);
+				spool.delete();
+			}
+			out.flush();
+			return rows;
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+				awaitTermination(pool);
+			}
+			delete(spools);
+		}
+	}
+
+	/**
+	 * Creates the writer for one partition. Override this to change the
+	 * separator, quoting or line ending.
+	 *
+	 * @param out
+	 *            where the partition is written
+	 * @return the writer
+	 */
+	protected CSVWriter createWriter(Writer out) {
+		return new CSVWriter(out);
+	}
+
+	private static List<Future<Long>> submitAll(ExecutorService pool,
+			List<Callable<Long>> tasks) {
+		List<Future<Long>> results = new ArrayList<Future<Long>>(tasks.size());
+		for (Callable<Long> task : tasks) {
+			results.add(pool.submit(task));
+		}
+		return results;
+	}
+
+	private static long await(Future<Long> result) throws SQLException,
+			IOException {
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(
+					"Interrupted while exporting the partitions");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof SQLException) {
+				throw (SQLException) cause;
+			}
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new SQLException(cause);
+		}
+	}
+
+	private static void awaitTermination(ExecutorService pool) {
+		try {
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void delete(List<File> files) {
+		for (File file : files) {
+			file.delete();
+		}
+	}
+
+	private void copy(File file, Writer out) throws IOException {
+		Reader in = new InputStreamReader(new FileInputStream(file), charset);
+		try {
+			char[] buffer = new char[COPY_BUFFER_SIZE];
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				out.write(buffer, 0, n);
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Runs the query for one partition and writes its rows.
+	 */
+	private long exportPartition(Object[] parameters, Writer out,
+			boolean includeColumnNames) throws SQLException, IOException {
+		Connection connection = dataSource.getConnection();
+		try {
+			PreparedStatement statement = connection.prepareStatement(
+					sqlTemplate, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			try {
+				if (fetchSize > 0) {
+					statement.setFetchSize(fetchSize);
+				}
+				for (int i = 0; i < parameters.length; i++) {
+					statement.setObject(i + 1, parameters[i]);
+				}
+				ResultSet rs = statement.executeQuery();
+				try {
+					CSVWriter writer = createWriter(out);
+					long rows = new ResultSetExporter(writer, resultService)
+							.export(rs, includeColumnNames);
+					writer.flush();
+					if (writer.checkError()) {
+						throw new IOException("Unable to write the partition");
+					}
+					return rows;
+				} finally {
+					rs.close();
+				}
+			} finally {
+				statement.close();
+			}
+		} finally {
+			connection.close();
+		}
+	}
+
+	private class WriterPartition implements Callable<Long> {
+		private final Object[] parameters;
+		private final Writer out;
+		private final boolean includeColumnNames;
+
+		WriterPartition(Object[] parameters, Writer out,
+				boolean includeColumnNames) {
+			this.parameters = parameters;
+			this.out = out;
+			this.includeColumnNames = includeColumnNames;
+		}
+
+		public Long call() throws SQLException, IOException {
+			return exportPartition(parameters, out, includeColumnNames);
+		}
+	}
+
+	private class FilePartition implements Callable<Long> {
+		private final Object[] parameters;
+		private final File file;
+		private final boolean includeColumnNames;
+
+		FilePartition(Object[] parameters, File file,
+				boolean includeColumnNames) {
+			this.parameters = parameters;
+			this.file = file;
+			this.includeColumnNames = includeColumnNames;
+		}
+
+		public Long call() throws SQLException, IOException {
+			Writer out = new BufferedWriter(new OutputStreamWriter(
+					new FileOutputStream(file), charset));
+			try {
+				return exportPartition(parameters, out, includeColumnNames);
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	public List<Object[]> getPartitions() {
+		return Collections.unmodifiableList(partitions);
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @param threads
+	 *            the number of partitions exported at the same time, each
+	 *            holding a connection
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed");
+		}
+		this.threads = threads;
+	}
+
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * @param fetchSize
+	 *            the number of rows the driver should fetch at a time, or 0 to
+	 *            leave the driver default
+	 */
+	public void setFetchSize(int fetchSize) {
+		if (fetchSize < 0) {
+			throw new IllegalArgumentException("The fetch size cannot be negative");
+		}
+		this.fetchSize = fetchSize;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * @param charset
+	 *            the encoding of the part and temporary files
+	 */
+	public void setCharset(Charset charset) {
+		this.charset = charset;
+	}
+
+	public ResultSetHelperService getResultService() {
+		return resultService;
+	}
+
+	/**
+	 * @param resultService
+	 *            the column handling and date formats shared by every
+	 *            partition
+	 */
+	public void setResultService(ResultSetHelperService resultService) {
+		this.resultService = resultService;
+	}
+}
@@ -0,0 +1,120 @@
+package com.fastopencsv;
+
+/**
+ * Decides which fields a writer puts in quotes. Quote and escape characters
+ * inside a field are escaped the same way whatever the policy.
+ */
+public enum QuotePolicy {
+
+	/** Quotes every field that is not null. This is the default. */
+	ALWAYS,
+
+	/**
+	 * Quotes only the fields that contain the separator, the quote character,
+	 * the escape character, a carriage return or a line feed.
+	 */
+	MINIMAL,
+
+	/**
+	 * Quotes every field apart from numbers such as 42, -1.5 or 6.02e23 that
+	 * would not need quotes under MINIMAL.
+	 */
+	NON_NUMERIC,
+
+	/** Never quotes a field. */
+	NEVER;
+
+	/** The field contains a quote or escape character that must be escaped. */
+	static final int ESCAPE = 1;
+
+	/** The field contains a character that only reads back inside quotes. */
+	static final int SPECIAL = 2;
+
+	/** The field is a number. */
+	static final int NUMBER = 4;
+
+	/**
+	 * Looks at every character of a field once and reports what the policies
+	 * need to know about it.
+	 *
+	 * @param field
+	 *            the field
+	 * @param separator
+	 *            the separator of the writer
+	 * @param quotechar
+	 *            the quote character of the writer
+	 * @param escapechar
+	 *            the escape character of the writer
+	 * @return ESCAPE, SPECIAL and NUMBER combined
+	 */
+	static int scan(CharSequence field, char separator, char quotechar,
+			char escapechar) {
+		int flags = 0;
+		int number = 0;
+		for (int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if (c == quotechar || c == escapechar) {
+				flags |= ESCAPE | SPECIAL;
+			} else if (c == separator || c == '\r' || c == '\n') {
+				flags |= SPECIAL;
+			}
+			number = nextNumberState(number, c);
+		}
+		// characters are escaped only when there is an escape character
+		if (escapechar == CSVWriter.NO_ESCAPE_CHARACTER) {
+			flags &= ~ESCAPE;
+		}
+		if (number == 2 || number == 4 || number == 7 || number == 8) {
+			flags |= NUMBER;
+		}
+		return flags;
+	}
+
+	/**
+	 * Steps through [+-]digits[.digits][(e|E)[+-]digits], where at least one
+	 * digit comes before the exponent. The states that end a number are 2
+	 * (digits), 8 (digits and a point), 4 (fraction digits) and 7 (exponent
+	 * digits). -1 means the field is not a number.
+	 */
+	private static int nextNumberState(int state, char c) {
+		boolean digit = c >= '0' && c <= '9';
+		switch (state) {
+		case 0:
+			return c == '+' || c == '-' ? 1 : digit ? 2 : c == '.' ? 3 : -1;
+		case 1:
+			return digit ? 2 : c == '.' ? 3 : -1;
+		case 2:
+			return digit ? 2 : c == '.' ? 8 : c == 'e' || c == 'E' ? 5 : -1;
+		case 3:
+			return digit ? 4 : -1;
+		case 4:
+		case 8:
+			return digit ? 4 : c == 'e' || c == 'E' ? 5 : -1;
+		case 5:
+			return c == '+' || c == '-' ? 6 : digit ? 7 : -1;
+		case 6:
+		case 7:
+			return digit ? 7 : -1;
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * @param flags
+	 *            the result of {@link #scan}
+	 * @return true if the field should be written in quotes
+	 */
+	boolean quotes(int flags) {
+		switch (this) {
+		case MINIMAL:
+			return (flags & SPECIAL) != 0;
+		case NON_NUMERIC:
+			return (flags & (SPECIAL | NUMBER)) != NUMBER;
+		case NEVER:
+			return false;
+		default:
+			return true;
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package com.fastopencsv;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Date;
+
+/**
+ * Writes a ResultSet to a CSVWriter with the column handling of
+ * {@link ResultSetHelperService}, but looks at the metadata only once. The
+ * column types are read into a plan before the first row, and each value goes
+ * straight into the writer's row buffer without building a String[] per row.
+ * Dates and timestamps are formatted into a reused buffer with the formats of
+ * the service, integers are written with {@link CSVWriter#append(long)}, and
+ * CLOB values are streamed through the writer in chunks instead of being read
+ * into a String.
+ * <p>
+ * When it runs the query itself the statement is opened forward only and read
+ * only, with a fetch size, so drivers can stream the rows instead of holding
+ * the whole result in memory.
+ */
+public class ResultSetExporter {
+
+	/** The default number of rows fetched from the database at a time. */
+	public static final int DEFAULT_FETCH_SIZE = 1000;
+
+	private final CSVWriter writer;
+	private final ResultSetHelperService service;
+	private final StringBuilder dateBuffer = new StringBuilder(32);
+	private int fetchSize = DEFAULT_FETCH_SIZE;
+
+	/**
+	 * @param writer
+	 *            the writer to send the rows to
+	 */
+	public ResultSetExporter(CSVWriter writer) {
+		this(writer, new ResultSetHelperService());
+	}
+
+	/**
+	 * @param writer
+	 *            the writer to send the rows to
+	 * @param service
+	 *            the service whose column handling and date formats are used
+	 */
+	public ResultSetExporter(CSVWriter writer, ResultSetHelperService service) {
+		this.writer = writer;
+		this.service = service;
+	}
+
+	/**
+	 * Runs a query and writes all of its rows.
+	 *
+	 * @param connection
+	 *            the connection to run the query on
+	 * @param sql
+	 *            the query
+	 * @param includeColumnNames
+	 *            true if you want column names in the output, false otherwise
+	 * @return the number of rows written, not counting the column names
+	 * @throws SQLException
+	 *             if the query or reading a value fails
+	 * @throws IOException
+	 *             if a large value cannot be read
+	 */
+	public long export(Connection connection, String sql,
+			boolean includeColumnNames) throws SQLException, IOException {
+		Statement statement = connection.createStatement(
+				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		try {
+			if (fetchSize > 0) {
+				statement.setFetchSize(fetchSize);
+			}
+			ResultSet rs = statement.executeQuery(sql);
+			try {
+				return export(rs, includeColumnNames);
+			} finally {
+				rs.close();
+			}
+		} finally {
+			statement.close();
+		}
+	}
+
+	/**
+	 * Writes the remaining rows of a ResultSet. The caller is responsible for
+	 * closing the ResultSet.
+	 *
+	 * @param rs
+	 *            the rows to write
+	 * @param includeColumnNames
+	 *            true if you want column names in the output, false otherwise
+	 * @return the number of rows written, not counting the column names
+	 * @throws SQLException
+	 *             if reading a value fails
+	 * @throws IOException
+	 *             if a large value cannot be read
+	 */
+	public long export(ResultSet rs, boolean includeColumnNames)
+			throws SQLException, IOException {
+		int[] columnTypes = planColumns(rs.getMetaData());
+		ColumnDateFormat[] dateFormats = planDateFormats(columnTypes);
+		boolean streamClobs = writer.canStreamFields();
+
+		if (includeColumnNames) {
+			writer.writeNext(service.getColumnNames(rs));
+		}
+
+		long rows = 0;
+		boolean complete = false;
+		try {
+			while (rs.next()) {
+				for (int i = 0; i < columnTypes.length; i++) {
+					if (dateFormats[i] != null) {
+						writeDate(rs, columnTypes[i], i + 1, dateFormats[i]);
+					} else if (streamClobs && isClob(columnTypes[i])) {
+						writeClob(rs.getClob(i + 1));
+					} else if (isInteger(columnTypes[i])) {
+						writeInteger(rs, i + 1);
+					} else {
+						writer.writeField(service.getColumnValue(rs,
+								columnTypes[i], i + 1));
+					}
+				}
+				writer.endRow();
+				rows++;
+			}
+			complete = true;
+		} finally {
+			if (!complete) {
+				// leave the writer clean for whoever uses it next
+				writer.discardRow();
+			}
+		}
+		return rows;
+	}
+
+	private int[] planColumns(ResultSetMetaData metadata) throws SQLException {
+		int[] columnTypes = new int[metadata.getColumnCount()];
+		for (int i = 0; i < columnTypes.length; i++) {
+			columnTypes[i] = metadata.getColumnType(i + 1);
+		}
+		return columnTypes;
+	}
+
+	private ColumnDateFormat[] planDateFormats(int[] columnTypes) {
+		ColumnDateFormat[] formats = new ColumnDateFormat[columnTypes.length];
+		for (int i = 0; i < columnTypes.length; i++) {
+			int type = columnTypes[i];
+			if (type == Types.DATE || type == Types.TIME
+					|| type == Types.TIMESTAMP) {
+				// a null TIME format is left to the service's Time.toString
+				formats[i] = service.getDateFormat(type, i + 1);
+			}
+		}
+		return formats;
+	}
+
+	private static boolean isInteger(int colType) {
+		return colType == Types.BIGINT || colType == Types.INTEGER
+				|| colType == Types.SMALLINT || colType == Types.TINYINT;
+	}
+
+	private void writeInteger(ResultSet rs, int colIndex) throws SQLException {
+		long value = rs.getLong(colIndex);
+		if (rs.wasNull()) {
+			writer.writeField("");
+		} else {
+			writer.append(value);
+		}
+	}
+
+	private static boolean isClob(int colType) {
+		return colType == Types.CLOB || colType == Types.NCLOB;
+	}
+
+	private void writeClob(Clob clob) throws SQLException, IOException {
+		if (clob == null) {
+			writer.writeField("");
+			return;
+		}
+		Reader reader = clob.getCharacterStream();
+		try {
+			writer.writeField(reader);
+		} finally {
+			reader.close();
+		}
+	}
+
+	private void writeDate(ResultSet rs, int colType, int colIndex,
+			ColumnDateFormat format) throws SQLException {
+		Date value;
+		switch (colType) {
+		case Types.DATE:
+			value = rs.getDate(colIndex);
+			break;
+		case Types.TIME:
+			value = rs.getTime(colIndex);
+			break;
+		default:
+			value = rs.getTimestamp(colIndex);
+		}
+		if (value == null) {
+			writer.writeField("");
+			return;
+		}
+		dateBuffer.setLength(0);
+		format.format(value, dateBuffer);
+		writer.writeField(dateBuffer);
+	}
+
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * @param fetchSize
+	 *            the number of rows the driver should fetch at a time when the
+	 *            exporter runs the query, or 0 to leave the driver default
+	 */
+	public void setFetchSize(int fetchSize) {
+		if (fetchSize < 0) {
+			throw new IllegalArgumentException("The fetch size cannot be negative");
+		}
+		this.fetchSize = fetchSize;
+	}
+}
@@ -25,9 +25,10 @@ import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 
@@ -46,6 +47,19 @@ public class ResultSetHelperService implements ResultSetHelper {
 	private static final int LONGNVARCHAR = -16;
 	private static final int NCLOB = 2011;
 
+	/** The default pattern used for DATE columns. */
+	public static final String DEFAULT_DATE_FORMAT = "dd-MMM-yyyy";
+
+	/** The default pattern used for TIMESTAMP columns. */
+	public static final String DEFAULT_TIMESTAMP_FORMAT = "dd-MMM-yyyy HH:mm:ss";
+
+	private ColumnDateFormat dateFormat = new ColumnDateFormat(
+			DEFAULT_DATE_FORMAT);
+	private ColumnDateFormat timestampFormat = new ColumnDateFormat(
+			DEFAULT_TIMESTAMP_FORMAT);
+	private ColumnDateFormat timeFormat;
+	private final Map<Integer, ColumnDateFormat> columnFormats = new HashMap<Integer, ColumnDateFormat>();
+
 	public String[] getColumnNames(ResultSet rs) throws SQLException {
 		List<String> names = new ArrayList<String>();
 		ResultSetMetaData metadata = rs.getMetaData();
@@ -92,28 +106,45 @@ public class ResultSetHelperService implements ResultSetHelper {
 		return rs.wasNull() ? "" : Integer.toString(i);
 	}
 
-	private String handleDate(ResultSet rs, int columnIndex)
-			throws SQLException {
-		java.sql.Date date = rs.getDate(columnIndex);
-		String value = null;
-		if (date != null) {
-			SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MMM-yyyy");
-			value = dateFormat.format(date);
+	private String handleDate(java.sql.Date date, ColumnDateFormat format) {
+		return date == null ? null : format.format(date);
+	}
+
+	private String handleTime(Time time, ColumnDateFormat format) {
+		if (time == null) {
+			return null;
 		}
-		return value;
+		return format == null ? time.toString() : format.format(time);
 	}
 
-	private String handleTime(Time time) {
-		return time == null ? null : time.toString();
+	private String handleTimestamp(Timestamp timestamp, ColumnDateFormat format) {
+		return timestamp == null ? null : format.format(timestamp);
 	}
 
-	private String handleTimestamp(Timestamp timestamp) {
-		SimpleDateFormat timeFormat = new SimpleDateFormat(
-				"dd-MMM-yyyy HH:mm:ss");
-		return timestamp == null ? null : timeFormat.format(timestamp);
+	/**
+	 * Finds the format for a date, time or timestamp column. A format set for
+	 * the column wins over the one for its type.
+	 *
+	 * @return the format, or null for a TIME column that uses Time.toString
+	 */
+	ColumnDateFormat getDateFormat(int colType, int colIndex) {
+		if (!columnFormats.isEmpty()) {
+			ColumnDateFormat format = columnFormats.get(colIndex);
+			if (format != null) {
+				return format;
+			}
+		}
+		switch (colType) {
+		case Types.DATE:
+			return dateFormat;
+		case Types.TIME:
+			return timeFormat;
+		default:
+			return timestampFormat;
+		}
 	}
 
-	private String getColumnValue(ResultSet rs, int colType, int colIndex)
+	String getColumnValue(ResultSet rs, int colType, int colIndex)
 			throws SQLException, IOException {
 
 		String value = "";
@@ -150,13 +181,16 @@ public class ResultSetHelperService implements ResultSetHelper {
 			value = handleInteger(rs, colIndex);
 			break;
 		case Types.DATE:
-			value = handleDate(rs, colIndex);
+			value = handleDate(rs.getDate(colIndex),
+					getDateFormat(colType, colIndex));
 			break;
 		case Types.TIME:
-			value = handleTime(rs.getTime(colIndex));
+			value = handleTime(rs.getTime(colIndex),
+					getDateFormat(colType, colIndex));
 			break;
 		case Types.TIMESTAMP:
-			value = handleTimestamp(rs.getTimestamp(colIndex));
+			value = handleTimestamp(rs.getTimestamp(colIndex),
+					getDateFormat(colType, colIndex));
 			break;
 		case NVARCHAR: // todo : use rs.getNString
 		case NCHAR: // todo : use rs.getNString
@@ -179,7 +213,10 @@ public class ResultSetHelperService implements ResultSetHelper {
 	}
 
 	private static String read(Clob c) throws SQLException, IOException {
-		StringBuilder sb = new StringBuilder((int) c.length());
+		// the length is only a hint, and a huge one must not be allocated
+		// before a single character has been read
+		StringBuilder sb = new StringBuilder((int) Math.min(c.length(),
+				CLOBBUFFERSIZE));
 		Reader r = c.getCharacterStream();
 		char[] cbuf = new char[CLOBBUFFERSIZE];
 		int n;
@@ -188,4 +225,68 @@ public class ResultSetHelperService implements ResultSetHelper {
 		}
 		return sb.toString();
 	}
+
+	public String getDateFormat() {
+		return dateFormat.getPattern();
+	}
+
+	/**
+	 * @param pattern
+	 *            the SimpleDateFormat pattern used for DATE columns
+	 * @throws IllegalArgumentException
+	 *             if the pattern is not valid
+	 */
+	public void setDateFormat(String pattern) {
+		this.dateFormat = new ColumnDateFormat(pattern);
+	}
+
+	public String getTimestampFormat() {
+		return timestampFormat.getPattern();
+	}
+
+	/**
+	 * @param pattern
+	 *            the SimpleDateFormat pattern used for TIMESTAMP columns
+	 * @throws IllegalArgumentException
+	 *             if the pattern is not valid
+	 */
+	public void setTimestampFormat(String pattern) {
+		this.timestampFormat = new ColumnDateFormat(pattern);
+	}
+
+	public String getTimeFormat() {
+		return timeFormat == null ? null : timeFormat.getPattern();
+	}
+
+	/**
+	 * @param pattern
+	 *            the SimpleDateFormat pattern used for TIME columns, or null to
+	 *            write them with Time.toString
+	 * @throws IllegalArgumentException
+	 *             if the pattern is not valid
+	 */
+	public void setTimeFormat(String pattern) {
+		this.timeFormat = pattern == null ? null : new ColumnDateFormat(
+				pattern);
+	}
+
+	/**
+	 * Sets the pattern for one date, time or timestamp column, overriding the
+	 * pattern for its type. It has no effect on columns of other types.
+	 *
+	 * @param columnIndex
+	 *            the column, starting at 1 as in the ResultSet
+	 * @param pattern
+	 *            the SimpleDateFormat pattern, or null to go back to the
+	 *            pattern for the type
+	 * @throws IllegalArgumentException
+	 *             if the pattern is not valid
+	 */
+	public void setColumnFormat(int columnIndex, String pattern) {
+		if (pattern == null) {
+			columnFormats.remove(columnIndex);
+		} else {
+			columnFormats.put(columnIndex, new ColumnDateFormat(pattern));
+		}
+	}
 }
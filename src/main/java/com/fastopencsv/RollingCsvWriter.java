@@ -0,0 +1,348 @@
+package com.fastopencsv;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Writes rows to a series of part files, prefix-00000.csv, prefix-00001.csv
+ * and so on, starting a new part once the current one has reached a size or
+ * a number of rows. Every part starts with the header, so each can be loaded
+ * on its own.
+ * <p>
+ * The next part is opened on a background thread while the current one is
+ * being written, and a finished part is flushed and closed in the background
+ * too, so a roll only swaps one writer for another. When the writer is closed
+ * a manifest, prefix-manifest.csv, lists every part with its rows and bytes.
+ * <p>
+ * Like CSVWriter it is not thread safe.
+ */
+public class RollingCsvWriter implements Closeable {
+
+	/** The default size at which a part is finished. */
+	public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+	private final File directory;
+	private final String prefix;
+	private final String[] header;
+	private final Charset charset;
+	private final ExecutorService background;
+	private final List<Part> parts = new ArrayList<Part>();
+	private final List<Future<?>> closing = new ArrayList<Future<?>>();
+	private long maxBytes = DEFAULT_MAX_BYTES;
+	private long maxRows;
+	private Part current;
+	private Future<OutputStream> next;
+	private boolean rollPending;
+	private boolean closed;
+
+	/**
+	 * One part file and the writer for it.
+	 */
+	private static class Part {
+		final File file;
+		final CountingOutputStream bytes;
+		CSVWriter writer;
+		long rows;
+
+		Part(File file, OutputStream out) {
+			this.file = file;
+			this.bytes = new CountingOutputStream(out);
+		}
+	}
+
+	/**
+	 * Constructs a writer with UTF-8 part files.
+	 *
+	 * @param directory
+	 *            the directory to write the parts to
+	 * @param prefix
+	 *            the start of each file name
+	 * @param header
+	 *            the header written at the top of every part, or null for
+	 *            none
+	 * @throws IOException
+	 *             if the first part cannot be opened
+	 */
+	public RollingCsvWriter(File directory, String prefix, String[] header)
+			throws IOException {
+		this(directory, prefix, header, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param directory
+	 *            the directory to write the parts to
+	 * @param prefix
+	 *            the start of each file name
+	 * @param header
+	 *            the header written at the top of every part, or null for
+	 *            none
+	 * @param charset
+	 *            the encoding of the parts
+	 * @throws IOException
+	 *             if the first part cannot be opened
+	 */
+	public RollingCsvWriter(File directory, String prefix, String[] header,
+			Charset charset) throws IOException {
+		this.directory = directory;
+		this.prefix = prefix;
+		this.header = header == null ? null : header.clone();
+		this.charset = charset;
+		this.background = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "csv-rolling-writer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		File first = partFile(0);
+		startPart(first, new FileOutputStream(first));
+	}
+
+	/**
+	 * Creates the writer for one part. Override this to change the separator,
+	 * quoting or line ending.
+	 *
+	 * @param out
+	 *            the part file
+	 * @return the writer
+	 */
+	protected CSVWriter createWriter(Writer out) {
+		return new CSVWriter(out);
+	}
+
+	/**
+	 * Writes the next row, starting a new part first if the current one is
+	 * full.
+	 *
+	 * @param nextLine
+	 *            a string array with each comma-separated element as a separate
+	 *            entry.
+	 * @throws IOException
+	 *             if a part cannot be opened or written
+	 */
+	public void writeNext(String[] nextLine) throws IOException {
+		if (closed) {
+			throw new IllegalStateException("The writer has been closed");
+		}
+		if (nextLine == null) {
+			return;
+		}
+		if (rollPending) {
+			roll();
+		}
+		current.writer.writeNext(nextLine);
+		current.rows++;
+		// the count trails the rows by what the encoder is holding
+		rollPending = (maxRows > 0 && current.rows >= maxRows)
+				|| current.bytes.count >= maxBytes;
+	}
+
+	/**
+	 * Writes every row of the list.
+	 *
+	 * @param allLines
+	 *            a List of String[], with each String[] representing a line of
+	 *            the file.
+	 * @throws IOException
+	 *             if a part cannot be opened or written
+	 */
+	public void writeAll(List<String[]> allLines) throws IOException {
+		for (String[] line : allLines) {
+			writeNext(line);
+		}
+	}
+
+	private File partFile(int index) {
+		return new File(directory, String.format("%s-%05d.csv", prefix, index));
+	}
+
+	private void startPart(File file, OutputStream out) {
+		current = new Part(file, out);
+		current.writer = createWriter(new OutputStreamWriter(current.bytes,
+				charset));
+		parts.add(current);
+		if (header != null) {
+			current.writer.writeNext(header);
+		}
+		next = preOpen(partFile(parts.size()));
+	}
+
+	private Future<OutputStream> preOpen(final File file) {
+		return background.submit(new Callable<OutputStream>() {
+			public OutputStream call() throws IOException {
+				return new FileOutputStream(file);
+			}
+		});
+	}
+
+	private void roll() throws IOException {
+		final Part finished = current;
+		closing.add(background.submit(new Callable<Void>() {
+			public Void call() throws IOException {
+				finished.writer.close();
+				if (finished.writer.checkError()) {
+					throw new IOException("Unable to write " + finished.file);
+				}
+				return null;
+			}
+		}));
+		startPart(partFile(parts.size()), await(next));
+		rollPending = false;
+	}
+
+	private static <T> T await(Future<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while rolling");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Finishes the current part, removes the part opened in advance and
+	 * writes the manifest.
+	 *
+	 * @throws IOException
+	 *             if a part or the manifest cannot be written
+	 */
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			try {
+				current.writer.close();
+				if (current.writer.checkError()) {
+					throw new IOException("Unable to write " + current.file);
+				}
+				for (Future<?> part : closing) {
+					await(part);
+				}
+			} finally {
+				try {
+					await(next).close();
+				} finally {
+					partFile(parts.size()).delete();
+				}
+			}
+			writeManifest();
+		} finally {
+			background.shutdown();
+		}
+	}
+
+	private void writeManifest() throws IOException {
+		CSVWriter manifest = new CSVWriter(new OutputStreamWriter(
+				new FileOutputStream(getManifest()), charset));
+		try {
+			manifest.writeNext(new String[] { "file", "rows", "bytes" });
+			for (Part part : parts) {
+				manifest.append(part.file.getName()).append(part.rows)
+						.append(part.file.length()).endRow();
+			}
+		} finally {
+			manifest.close();
+		}
+		if (manifest.checkError()) {
+			throw new IOException("Unable to write " + getManifest());
+		}
+	}
+
+	/**
+	 * @return the part files written so far, in order
+	 */
+	public List<File> getParts() {
+		List<File> files = new ArrayList<File>(parts.size());
+		for (Part part : parts) {
+			files.add(part.file);
+		}
+		return Collections.unmodifiableList(files);
+	}
+
+	/**
+	 * @return the manifest file, which exists once the writer is closed
+	 */
+	public File getManifest() {
+		return new File(directory, prefix + "-manifest.csv");
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * @param maxBytes
+	 *            the size at which a part is finished. The part that crosses
+	 *            it is finished at the end of the row.
+	 */
+	public void setMaxBytes(long maxBytes) {
+		if (maxBytes < 1) {
+			throw new IllegalArgumentException("A part must allow at least one byte");
+		}
+		this.maxBytes = maxBytes;
+	}
+
+	public long getMaxRows() {
+		return maxRows;
+	}
+
+	/**
+	 * @param maxRows
+	 *            the number of rows, not counting the header, at which a part
+	 *            is finished, or 0 for no limit
+	 */
+	public void setMaxRows(long maxRows) {
+		if (maxRows < 0) {
+			throw new IllegalArgumentException("The row limit cannot be negative");
+		}
+		this.maxRows = maxRows;
+	}
+
+	/**
+	 * Counts the bytes written to a part.
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+		volatile long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
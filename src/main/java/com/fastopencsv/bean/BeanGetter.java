@@ -0,0 +1,91 @@
+package com.fastopencsv.bean;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import com.fastopencsv.CSVWriter;
+
+/**
+ * The read method of one bean property, looked up once and then called
+ * through a MethodHandle for every bean. Integer and double properties are
+ * read without boxing and appended to the writer as numbers.
+ */
+final class BeanGetter {
+	private static final MethodType LONG_GETTER = MethodType.methodType(
+			long.class, Object.class);
+	private static final MethodType DOUBLE_GETTER = MethodType.methodType(
+			double.class, Object.class);
+	private static final MethodType OBJECT_GETTER = MethodType.methodType(
+			Object.class, Object.class);
+
+	private final MethodHandle longHandle;
+	private final MethodHandle doubleHandle;
+	private final MethodHandle objectHandle;
+
+	/**
+	 * @param descriptor
+	 *            the property to read
+	 * @throws IntrospectionException
+	 *             if the property has no read method
+	 * @throws IllegalAccessException
+	 *             if the read method cannot be called from here
+	 */
+	BeanGetter(PropertyDescriptor descriptor) throws IntrospectionException,
+			IllegalAccessException {
+		Method readMethod = descriptor.getReadMethod();
+		if (readMethod == null) {
+			throw new IntrospectionException("Property "
+					+ descriptor.getName() + " has no read method");
+		}
+		MethodHandle handle = MethodHandles.lookup().unreflect(readMethod);
+		Class<?> type = descriptor.getPropertyType();
+		if (type == int.class || type == long.class || type == short.class
+				|| type == byte.class) {
+			longHandle = handle.asType(LONG_GETTER);
+			doubleHandle = null;
+			objectHandle = null;
+		} else if (type == double.class) {
+			longHandle = null;
+			doubleHandle = handle.asType(DOUBLE_GETTER);
+			objectHandle = null;
+		} else {
+			longHandle = null;
+			doubleHandle = null;
+			objectHandle = handle.asType(OBJECT_GETTER);
+		}
+	}
+
+	/**
+	 * Appends the value of the property as the next field of the row. A null
+	 * value is left empty, anything else is written with toString.
+	 *
+	 * @param bean
+	 *            the bean to read
+	 * @param writer
+	 *            the writer building the row
+	 * @throws InvocationTargetException
+	 *             if the read method fails
+	 */
+	void appendTo(Object bean, CSVWriter writer)
+			throws InvocationTargetException {
+		try {
+			if (longHandle != null) {
+				writer.append((long) longHandle.invokeExact(bean));
+			} else if (doubleHandle != null) {
+				writer.append((double) doubleHandle.invokeExact(bean));
+			} else {
+				Object value = objectHandle.invokeExact(bean);
+				writer.append(value == null ? null : value.toString());
+			}
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new InvocationTargetException(t);
+		}
+	}
+}
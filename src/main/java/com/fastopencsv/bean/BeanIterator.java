@@ -0,0 +1,101 @@
+package com.fastopencsv.bean;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.fastopencsv.AbstractCsvReader;
+
+/**
+ * Reads and maps one row each time it is advanced, from
+ * {@link CsvToBean#iterate(MappingStrategy, AbstractCsvReader, boolean)}. A
+ * failure to read or map a row is thrown from hasNext or next as a
+ * RuntimeException, the way CsvToBean.parse throws it. Closing the iterator
+ * closes the reader.
+ * <p>
+ * hasNext maps the row ahead, so that rows the error sink of the CsvToBean
+ * took errors for can be skipped. When beans are recycled, calling it changes
+ * the bean returned last.
+ *
+ * @param <T>
+ *            the type of the beans
+ */
+public class BeanIterator<T> implements Iterator<T>, Closeable {
+	private final CsvToBean<T> converter;
+	private final MappingStrategy<T> mapper;
+	private final AbstractCsvReader csv;
+	private final boolean recycleBeans;
+	private T recycled;
+	private T nextBean;
+	private boolean mapped;
+	private boolean done;
+	private long rowsRead;
+
+	BeanIterator(CsvToBean<T> converter, MappingStrategy<T> mapper,
+			AbstractCsvReader csv, boolean recycleBeans) {
+		this.converter = converter;
+		this.mapper = mapper;
+		this.csv = csv;
+		this.recycleBeans = recycleBeans;
+	}
+
+	public boolean hasNext() {
+		while (!mapped && !done) {
+			try {
+				String[] line = csv.readNext();
+				if (line == null) {
+					done = true;
+				} else {
+					if (recycleBeans && recycled == null) {
+						recycled = mapper.createBean();
+					}
+					nextBean = converter.mapRow(mapper, line, recycled);
+					mapped = !converter.rowFailed;
+				}
+			} catch (Exception e) {
+				throw new RuntimeException("Error parsing CSV!", e);
+			}
+		}
+		return mapped;
+	}
+
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		T bean = nextBean;
+		nextBean = null;
+		mapped = false;
+		rowsRead++;
+		return bean;
+	}
+
+	/**
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Stops the iteration and closes the reader.
+	 *
+	 * @throws IOException
+	 *             if the reader cannot be closed
+	 */
+	public void close() throws IOException {
+		done = true;
+		mapped = false;
+		nextBean = null;
+		csv.close();
+	}
+
+	/**
+	 * @return the number of rows returned so far
+	 */
+	public long getRowsRead() {
+		return rowsRead;
+	}
+}
@@ -0,0 +1,71 @@
+package com.fastopencsv.bean;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * The write method of one bean property, looked up once and then called
+ * through a MethodHandle for every row. The handle takes the bean and the
+ * value as Objects, so a call needs no argument array and no access check.
+ */
+final class BeanSetter {
+	private static final MethodType SETTER_TYPE = MethodType.methodType(
+			void.class, Object.class, Object.class);
+
+	final PropertyDescriptor descriptor;
+
+	/** Turns the text into the value, looked up once for the column. */
+	final Converter<?> converter;
+
+	/** Whether the text is trimmed before it is converted. */
+	final boolean trim;
+
+	private final MethodHandle handle;
+
+	/**
+	 * @param descriptor
+	 *            the property to set
+	 * @param converter
+	 *            the converter for the property
+	 * @throws IntrospectionException
+	 *             if the property has no write method
+	 * @throws IllegalAccessException
+	 *             if the write method cannot be called from here
+	 */
+	BeanSetter(PropertyDescriptor descriptor, Converter<?> converter)
+			throws IntrospectionException, IllegalAccessException {
+		Method writeMethod = descriptor.getWriteMethod();
+		if (writeMethod == null) {
+			throw new IntrospectionException("Property "
+					+ descriptor.getName() + " has no write method");
+		}
+		this.descriptor = descriptor;
+		this.converter = converter;
+		this.trim = !descriptor.getPropertyType().getName().contains("String");
+		this.handle = MethodHandles.lookup().unreflect(writeMethod)
+				.asType(SETTER_TYPE);
+	}
+
+	/**
+	 * @param bean
+	 *            the bean to set the property on
+	 * @param value
+	 *            the converted value
+	 * @throws InvocationTargetException
+	 *             if the write method, or unboxing the value for it, fails
+	 */
+	void set(Object bean, Object value) throws InvocationTargetException {
+		try {
+			handle.invokeExact(bean, value);
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new InvocationTargetException(t);
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package com.fastopencsv.bean;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.fastopencsv.CSVWriter;
+
+/**
+ * Writes beans as CSV rows, the reverse of {@link CsvToBean}. The columns are
+ * laid out by the same mapping strategies:
+ * <ul>
+ * <li>a {@link ColumnPositionMappingStrategy} writes its column mapping in
+ * order, without a header line;</li>
+ * <li>a {@link HeaderColumnNameMappingStrategy} writes its header line and
+ * then the property for each column. When it has no header yet, every
+ * readable property of the type is written, in the order the Introspector
+ * returns them, and the header is set on the strategy.</li>
+ * </ul>
+ * Other strategies can be used if they implement
+ * {@link ColumnResolvingMappingStrategy}, and are written without a header.
+ * The read method of each column is looked up once and called through a
+ * MethodHandle. Integer and double properties are appended to the writer
+ * without going through a String, everything else with toString, and null
+ * values are left empty. If a getter throws, the fields of its bean already
+ * added are dropped from the writer before the exception is passed on.
+ * <p>
+ * Like CsvToBean it is not thread safe.
+ */
+public class BeanToCsv<T> {
+
+	public BeanToCsv() {
+	}
+
+	/**
+	 * Writes the beans and flushes the writer.
+	 *
+	 * @param mapper
+	 *            the column layout
+	 * @param writer
+	 *            where to write the CSV text
+	 * @param beans
+	 *            the beans, one per row
+	 */
+	public void write(MappingStrategy<T> mapper, Writer writer,
+			Iterable<? extends T> beans) {
+		write(mapper, new CSVWriter(writer), beans.iterator());
+	}
+
+	/**
+	 * Writes the beans and flushes the writer.
+	 *
+	 * @param mapper
+	 *            the column layout
+	 * @param csv
+	 *            the writer to write the rows with
+	 * @param beans
+	 *            the beans, one per row
+	 */
+	public void write(MappingStrategy<T> mapper, CSVWriter csv,
+			Iterable<? extends T> beans) {
+		write(mapper, csv, beans.iterator());
+	}
+
+	/**
+	 * Writes the beans as the iterator returns them, so they need not all be
+	 * in memory, and flushes the writer.
+	 *
+	 * @param mapper
+	 *            the column layout
+	 * @param csv
+	 *            the writer to write the rows with
+	 * @param beans
+	 *            the beans, one per row
+	 */
+	public void write(MappingStrategy<T> mapper, CSVWriter csv,
+			Iterator<? extends T> beans) {
+		try {
+			String[] header = resolveHeader(mapper);
+			BeanGetter[] getters = resolveGetters(mapper);
+			if (header != null) {
+				csv.writeNext(header);
+			}
+			while (beans.hasNext()) {
+				T bean = beans.next();
+				for (BeanGetter getter : getters) {
+					if (getter == null) {
+						csv.append(null);
+					} else {
+						getter.appendTo(bean, csv);
+					}
+				}
+				csv.endRow();
+			}
+			csv.flush();
+			if (csv.checkError()) {
+				throw new IOException("Unable to write the rows");
+			}
+		} catch (Exception e) {
+			// the writer is the caller's, so leave no half written row in it
+			csv.discardRow();
+			throw new RuntimeException("Error writing CSV!", e);
+		}
+	}
+
+	/*
+	 * Position strategies have no header line. Header strategies without a
+	 * header get one made from the properties of their type.
+	 */
+	private String[] resolveHeader(MappingStrategy<T> mapper)
+			throws IntrospectionException {
+		if (!(mapper instanceof ColumnResolvingMappingStrategy)) {
+			throw new IllegalArgumentException("The columns of a "
+					+ mapper.getClass().getName() + " cannot be listed");
+		} else if (!(mapper instanceof HeaderColumnNameMappingStrategy)
+				|| mapper instanceof ColumnPositionMappingStrategy) {
+			return null;
+		}
+		HeaderColumnNameMappingStrategy<T> strategy = (HeaderColumnNameMappingStrategy<T>) mapper;
+		String[] header = strategy.getHeader();
+		if (header == null) {
+			List<String> names = new ArrayList<String>();
+			for (PropertyDescriptor descriptor : Introspector.getBeanInfo(
+					strategy.getType(), Object.class).getPropertyDescriptors()) {
+				if (descriptor.getReadMethod() != null) {
+					names.add(descriptor.getName());
+				}
+			}
+			header = names.toArray(new String[names.size()]);
+			strategy.setHeader(header);
+		}
+		return header;
+	}
+
+	private BeanGetter[] resolveGetters(MappingStrategy<T> mapper)
+			throws IntrospectionException, IllegalAccessException {
+		PropertyDescriptor[] columns = ((ColumnResolvingMappingStrategy<T>) mapper)
+				.resolveColumns();
+		BeanGetter[] getters = new BeanGetter[columns.length];
+		for (int col = 0; col < columns.length; col++) {
+			getters[col] = null == columns[col] ? null : new BeanGetter(
+					columns[col]);
+		}
+		return getters;
+	}
+}
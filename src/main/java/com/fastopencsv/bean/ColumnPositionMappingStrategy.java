@@ -33,6 +33,10 @@ public class ColumnPositionMappingStrategy<T> extends
 				: null;
 	}
 
+	protected int getColumnCount() {
+		return null != columnMapping ? columnMapping.length : 0;
+	}
+
 	public String[] getColumnMapping() {
 		return columnMapping != null ? columnMapping.clone() : null;
 	}
@@ -40,5 +44,6 @@ public class ColumnPositionMappingStrategy<T> extends
 	public void setColumnMapping(String[] columnMapping) {
 		this.columnMapping = columnMapping != null ? columnMapping.clone()
 				: null;
+		columnsChanged();
 	}
 }
@@ -0,0 +1,25 @@
+package com.fastopencsv.bean;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+
+/**
+ * A mapping strategy that can resolve all of its columns at once, after the
+ * header has been captured. {@link CsvToBean}, {@link CsvToBeanPipeline} and
+ * {@link BeanToCsv} ask for the whole array once instead of calling
+ * findDescriptor for each column, and BeanToCsv can only write with strategies
+ * that know their columns.
+ */
+public interface ColumnResolvingMappingStrategy<T> extends MappingStrategy<T> {
+
+	/**
+	 * Resolves every column of the current header. The result only changes
+	 * when the header does, so implementations should keep it.
+	 *
+	 * @return the descriptor of each column, null for a column that maps to
+	 *         no property. Columns past the end of the array map to nothing.
+	 * @throws IntrospectionException
+	 *             if the bean type cannot be introspected
+	 */
+	PropertyDescriptor[] resolveColumns() throws IntrospectionException;
+}
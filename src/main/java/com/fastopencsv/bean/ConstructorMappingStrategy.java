@@ -0,0 +1,393 @@
+package com.fastopencsv.bean;
+
+import java.beans.ConstructorProperties;
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fastopencsv.AbstractCsvReader;
+
+/**
+ * Maps each row to an immutable object by passing the columns to a
+ * constructor or static factory method, instead of setting properties on an
+ * empty bean. The creator is, in order of preference:
+ * <ul>
+ * <li>a constructor or static method of the type annotated with
+ * {@link CsvCreator};</li>
+ * <li>a constructor annotated with {@link ConstructorProperties};</li>
+ * <li>the canonical constructor, when the type is a record.</li>
+ * </ul>
+ * The columns are matched to the parameter names by the header, ignoring
+ * case, or by position when a column mapping is set. A parameter without a
+ * column gets null, or zero or false for a primitive. The creator is called
+ * through a single MethodHandle with the converted values of the row. The
+ * creator is made accessible first, so neither the creator nor the type need
+ * be public.
+ * <p>
+ * Once the header is captured the strategy can be shared by several threads.
+ */
+public class ConstructorMappingStrategy<T> implements MappingStrategy<T> {
+	private static final MethodType CREATOR_TYPE = MethodType.methodType(
+			Object.class, Object[].class);
+
+	private final Class<T> type;
+	private final String[] parameterNames;
+	private final Class<?>[] parameterTypes;
+	private final MethodHandle creator;
+	private final Object[] defaults;
+	private ConverterRegistry converterRegistry = new ConverterRegistry();
+	private String[] columnMapping;
+	private volatile Columns columns;
+
+	/**
+	 * The parameter and converter of each column, fixed once the header is
+	 * known.
+	 */
+	private static class Columns {
+		final int[] parameters;
+		final Converter<?>[] converters;
+		final boolean[] trim;
+
+		Columns(int count) {
+			parameters = new int[count];
+			converters = new Converter<?>[count];
+			trim = new boolean[count];
+		}
+	}
+
+	/**
+	 * @param type
+	 *            the type to create
+	 * @throws IllegalArgumentException
+	 *             if the type has no creator the strategy can use
+	 */
+	public ConstructorMappingStrategy(Class<T> type) {
+		this.type = type;
+		try {
+			Object found = findCreator(type);
+			try {
+				((AccessibleObject) found).setAccessible(true);
+			} catch (RuntimeException e) {
+				// a module that does not open the type, reported below
+			}
+			MethodHandle handle;
+			if (found instanceof Method) {
+				Method method = (Method) found;
+				parameterTypes = method.getParameterTypes();
+				handle = MethodHandles.lookup().unreflect(method);
+			} else {
+				Constructor<?> constructor = (Constructor<?>) found;
+				parameterTypes = constructor.getParameterTypes();
+				handle = MethodHandles.lookup().unreflectConstructor(
+						constructor);
+			}
+			parameterNames = parameterNames(found);
+			creator = handle.asSpreader(Object[].class, parameterTypes.length)
+					.asType(CREATOR_TYPE);
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("The creator of "
+					+ type.getName() + " is not accessible", e);
+		}
+		defaults = new Object[parameterTypes.length];
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (parameterTypes[i].isPrimitive()) {
+				defaults[i] = Array.get(Array.newInstance(parameterTypes[i], 1),
+						0);
+			}
+		}
+	}
+
+	/*
+	 * The declared members are searched so a creator need not be public; the
+	 * public methods as well, for a factory inherited from a supertype.
+	 */
+	private static Object findCreator(Class<?> type) {
+		for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+			if (constructor.isAnnotationPresent(CsvCreator.class)) {
+				return constructor;
+			}
+		}
+		for (Method[] methods : new Method[][] { type.getDeclaredMethods(),
+				type.getMethods() }) {
+			for (Method method : methods) {
+				if (method.isAnnotationPresent(CsvCreator.class)
+						&& Modifier.isStatic(method.getModifiers())
+						&& type.isAssignableFrom(method.getReturnType())) {
+					return method;
+				}
+			}
+		}
+		for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+			if (constructor.isAnnotationPresent(ConstructorProperties.class)) {
+				return constructor;
+			}
+		}
+		Constructor<?> canonical = canonicalConstructor(type);
+		if (canonical != null) {
+			return canonical;
+		}
+		throw new IllegalArgumentException(type.getName()
+				+ " has no @CsvCreator, no @ConstructorProperties and is not a record");
+	}
+
+	private String[] parameterNames(Object creator) {
+		String[] names;
+		CsvCreator annotated = creator instanceof Method ? ((Method) creator)
+				.getAnnotation(CsvCreator.class) : ((Constructor<?>) creator)
+				.getAnnotation(CsvCreator.class);
+		ConstructorProperties properties = creator instanceof Constructor ? ((Constructor<?>) creator)
+				.getAnnotation(ConstructorProperties.class) : null;
+		if (annotated != null) {
+			names = annotated.value();
+		} else if (properties != null) {
+			names = properties.value();
+		} else {
+			names = recordComponentNames(type);
+		}
+		if (names.length != parameterTypes.length) {
+			throw new IllegalArgumentException("The creator of "
+					+ type.getName() + " takes " + parameterTypes.length
+					+ " parameters but " + names.length + " names are given");
+		}
+		return names.clone();
+	}
+
+	/*
+	 * Records arrived in Java 16 and the source level is 1.7, so they are
+	 * looked at through reflection.
+	 */
+	private static Constructor<?> canonicalConstructor(Class<?> type) {
+		Object[] components = recordComponents(type);
+		if (components == null) {
+			return null;
+		}
+		try {
+			Class<?>[] types = new Class<?>[components.length];
+			for (int i = 0; i < components.length; i++) {
+				types[i] = (Class<?>) components[i].getClass()
+						.getMethod("getType").invoke(components[i]);
+			}
+			return type.getDeclaredConstructor(types);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	private static String[] recordComponentNames(Class<?> type) {
+		Object[] components = recordComponents(type);
+		String[] names = new String[components.length];
+		try {
+			for (int i = 0; i < components.length; i++) {
+				names[i] = (String) components[i].getClass()
+						.getMethod("getName").invoke(components[i]);
+			}
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException(e);
+		}
+		return names;
+	}
+
+	private static Object[] recordComponents(Class<?> type) {
+		try {
+			if (!Boolean.TRUE.equals(Class.class.getMethod("isRecord").invoke(
+					type))) {
+				return null;
+			}
+			return (Object[]) Class.class.getMethod("getRecordComponents")
+					.invoke(type);
+		} catch (ReflectiveOperationException e) {
+			// before Java 16
+			return null;
+		}
+	}
+
+	/**
+	 * Reads the header, unless a column mapping is set, and matches the
+	 * columns to the parameters.
+	 */
+	public void captureHeader(AbstractCsvReader reader) throws IOException {
+		if (columnMapping == null) {
+			String[] header = reader.readNext();
+			columns = resolve(header == null ? new String[0] : header);
+		} else {
+			columns = resolve(columnMapping);
+		}
+	}
+
+	private Columns resolve(String[] names) {
+		Map<String, Integer> parameters = new HashMap<String, Integer>();
+		for (int i = 0; i < parameterNames.length; i++) {
+			parameters.put(parameterNames[i].toUpperCase().trim(), i);
+		}
+		Columns resolved = new Columns(names.length);
+		for (int col = 0; col < names.length; col++) {
+			Integer parameter = names[col] == null ? null : parameters
+					.get(names[col].toUpperCase().trim());
+			resolved.parameters[col] = parameter == null ? -1 : parameter;
+			if (parameter != null) {
+				Class<?> parameterType = parameterTypes[parameter];
+				Converter<?> converter = converterRegistry.find(parameterType);
+				if (converter == null) {
+					throw new IllegalArgumentException("No converter for "
+							+ parameterType.getName() + " of column "
+							+ names[col]);
+				}
+				resolved.converters[col] = converter;
+				resolved.trim[col] = parameterType != String.class;
+			}
+		}
+		return resolved;
+	}
+
+	/**
+	 * Converts the fields of a row and creates the object with them.
+	 *
+	 * @param line
+	 *            the fields of the row
+	 * @return the new object
+	 * @throws InvocationTargetException
+	 *             if the creator fails
+	 */
+	public T createBean(String[] line) throws InvocationTargetException {
+		return createBean(line, null, 0);
+	}
+
+	/**
+	 * Converts the fields of a row and creates the object with them, unless a
+	 * field cannot be converted and there is an error sink to record it in.
+	 *
+	 * @param line
+	 *            the fields of the row
+	 * @param errors
+	 *            where to record the fields that cannot be converted, or null
+	 *            to throw for them
+	 * @param row
+	 *            the number of the row, for the error sink
+	 * @return the new object, or null if a field was recorded in the sink
+	 * @throws InvocationTargetException
+	 *             if the creator fails
+	 */
+	T createBean(String[] line, CsvErrorSink errors, long row)
+			throws InvocationTargetException {
+		Columns resolved = columns;
+		if (resolved == null) {
+			if (columnMapping == null) {
+				throw new IllegalStateException(
+						"The header has not been captured");
+			}
+			resolved = columns = resolve(columnMapping);
+		}
+		Object[] args = defaults.clone();
+		ConversionResult conversion = null;
+		boolean failed = false;
+		int count = Math.min(line.length, resolved.parameters.length);
+		for (int col = 0; col < count; col++) {
+			int parameter = resolved.parameters[col];
+			if (parameter >= 0) {
+				String value = resolved.trim[col] ? line[col].trim()
+						: line[col];
+				Object converted;
+				if (errors == null) {
+					converted = resolved.converters[col].convert(value);
+				} else {
+					if (conversion == null) {
+						conversion = new ConversionResult();
+					}
+					ConversionStatus status = ConverterRegistry.tryConvert(
+							resolved.converters[col], value, conversion);
+					if (status != ConversionStatus.OK) {
+						errors.record(row, col, parameterNames[parameter],
+								line[col], status, conversion.detail);
+						failed = true;
+						continue;
+					}
+					converted = conversion.getValue();
+				}
+				if (converted != null || !parameterTypes[parameter].isPrimitive()) {
+					args[parameter] = converted;
+				}
+			}
+		}
+		if (failed) {
+			return null;
+		}
+		try {
+			return type.cast(creator.invokeExact(args));
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new InvocationTargetException(t);
+		}
+	}
+
+	/**
+	 * @return null, as the columns are not set through properties
+	 */
+	public PropertyDescriptor findDescriptor(int col)
+			throws IntrospectionException {
+		return null;
+	}
+
+	/**
+	 * @throws InstantiationException
+	 *             always, as the object needs the fields of the row. Use
+	 *             {@link #createBean(String[])}.
+	 */
+	public T createBean() throws InstantiationException {
+		throw new InstantiationException(type.getName()
+				+ " is created from the fields of a row");
+	}
+
+	/**
+	 * @return the parameter names of the creator, in order
+	 */
+	public String[] getParameterNames() {
+		return parameterNames.clone();
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	public String[] getColumnMapping() {
+		return columnMapping != null ? columnMapping.clone() : null;
+	}
+
+	/**
+	 * @param columnMapping
+	 *            the parameter name of each column, to map by position instead
+	 *            of reading a header. Null for a header.
+	 */
+	public void setColumnMapping(String[] columnMapping) {
+		this.columnMapping = columnMapping != null ? columnMapping.clone()
+				: null;
+		columns = null;
+	}
+
+	public ConverterRegistry getConverterRegistry() {
+		return converterRegistry;
+	}
+
+	/**
+	 * @param converterRegistry
+	 *            where the converters for the parameters are found
+	 */
+	public void setConverterRegistry(ConverterRegistry converterRegistry) {
+		if (converterRegistry == null) {
+			throw new IllegalArgumentException("A converter registry is needed");
+		}
+		this.converterRegistry = converterRegistry;
+		columns = null;
+	}
+}
@@ -0,0 +1,28 @@
+package com.fastopencsv.bean;
+
+/**
+ * Receives the value converted by a {@link StatusConverter}. One instance is
+ * reused for every field a thread converts, so a failed conversion costs no
+ * allocation.
+ */
+public final class ConversionResult {
+	private Object value;
+
+	/** Why a converter that throws failed, or null. */
+	String detail;
+
+	public ConversionResult() {
+	}
+
+	public Object getValue() {
+		return value;
+	}
+
+	/**
+	 * @param value
+	 *            the converted value
+	 */
+	public void setValue(Object value) {
+		this.value = value;
+	}
+}
@@ -0,0 +1,31 @@
+package com.fastopencsv.bean;
+
+/**
+ * The outcome of converting one field with a {@link StatusConverter}.
+ */
+public enum ConversionStatus {
+	/** The field was converted. */
+	OK("converted"),
+
+	/** The field is empty and the property cannot be null. */
+	EMPTY("empty value for a property that cannot be null"),
+
+	/** The field is not a valid value for the property. */
+	MALFORMED("not a valid value"),
+
+	/** The field is a number too large or too small for the property. */
+	OUT_OF_RANGE("value out of range");
+
+	private final String description;
+
+	private ConversionStatus(String description) {
+		this.description = description;
+	}
+
+	/**
+	 * @return what the status means, for error messages
+	 */
+	public String getDescription() {
+		return description;
+	}
+}
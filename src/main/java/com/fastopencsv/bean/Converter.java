@@ -0,0 +1,22 @@
+package com.fastopencsv.bean;
+
+/**
+ * Turns the text of a CSV field into the value of a bean property. Unlike a
+ * PropertyEditor a converter holds no state between calls, so one instance can
+ * be looked up once per column and shared by any number of threads.
+ *
+ * @param <T>
+ *            the type of the values
+ */
+public interface Converter<T> {
+
+	/**
+	 * @param text
+	 *            the field. For properties that are not Strings it has already
+	 *            been trimmed.
+	 * @return the value to set on the bean
+	 * @throws IllegalArgumentException
+	 *             if the text is not a valid value
+	 */
+	T convert(String text);
+}
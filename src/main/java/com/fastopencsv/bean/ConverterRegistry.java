@@ -0,0 +1,618 @@
+package com.fastopencsv.bean;
+
+import java.beans.PropertyDescriptor;
+import java.beans.PropertyEditor;
+import java.beans.PropertyEditorManager;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Finds the {@link Converter} for a property type. Converters are built in for
+ * String, the primitives and their wrappers, BigDecimal, BigInteger, UUID,
+ * enums and, when running on Java 8 or later, the java.time types with a
+ * parse method. Other types fall back to a PropertyEditor, as do properties
+ * that name their own editor class.
+ * <p>
+ * The built in converters read numbers straight from the characters of the
+ * field, in decimal. An empty field converts to null for the object types and
+ * is an error for the primitives. Apart from the java.time converters they
+ * are {@link StatusConverter}s, and check the text before parsing it so a bad
+ * value can be reported without an exception.
+ * <p>
+ * A registry can be shared between threads. Converters registered on it must
+ * be thread safe if it is.
+ */
+public class ConverterRegistry {
+
+	private static final String[] TIME_TYPES = { "java.time.Duration",
+			"java.time.Instant", "java.time.LocalDate",
+			"java.time.LocalDateTime", "java.time.LocalTime",
+			"java.time.MonthDay", "java.time.OffsetDateTime",
+			"java.time.OffsetTime", "java.time.Period", "java.time.Year",
+			"java.time.YearMonth", "java.time.ZonedDateTime" };
+
+	private static final Converter<String> STRING = new Converter<String>() {
+		public String convert(String text) {
+			return text;
+		}
+	};
+
+	// the built in converters need STRING and TIME_TYPES
+	private static final Map<Class<?>, Converter<?>> DEFAULTS = createDefaults();
+
+	// enum converters hold no state, so one per type does for every registry
+	private static final ClassValue<Converter<?>> ENUMS = new ClassValue<Converter<?>>() {
+		@Override
+		protected Converter<?> computeValue(Class<?> type) {
+			return type.isEnum() ? new EnumConverter(type) : null;
+		}
+	};
+
+	// replaced as a whole on each registration, so it can be handed out
+	private volatile Map<Class<?>, Converter<?>> converters = Collections
+			.emptyMap();
+
+	public ConverterRegistry() {
+	}
+
+	/**
+	 * Registers a converter, replacing any other for the same type, including
+	 * a built in one.
+	 *
+	 * @param type
+	 *            the property type
+	 * @param converter
+	 *            the converter for it
+	 */
+	public <T> void register(Class<T> type, Converter<? extends T> converter) {
+		if (type == null || converter == null) {
+			throw new IllegalArgumentException(
+					"A type and a converter are needed");
+		}
+		synchronized (this) {
+			Map<Class<?>, Converter<?>> copy = new HashMap<Class<?>, Converter<?>>(
+					converters);
+			copy.put(type, converter);
+			converters = Collections.unmodifiableMap(copy);
+		}
+	}
+
+	/**
+	 * @param type
+	 *            the property type
+	 * @return the converter registered or built in for the type, or null if
+	 *         there is none
+	 */
+	public Converter<?> find(Class<?> type) {
+		Converter<?> converter = converters.get(type);
+		if (converter == null) {
+			converter = DEFAULTS.get(type);
+		}
+		if (converter == null) {
+			converter = ENUMS.get(type);
+		}
+		return converter;
+	}
+
+	/**
+	 * Finds the converter for a property. A custom property editor class on
+	 * the descriptor comes first, then this registry, then the editor the
+	 * PropertyEditorManager knows for the type. When there is none of these
+	 * the text is set as it is. A converter built on an editor is new for each
+	 * call and converts one value at a time.
+	 *
+	 * @param descriptor
+	 *            the property
+	 * @return the converter
+	 * @throws InstantiationException
+	 *             if the custom editor cannot be created
+	 * @throws IllegalAccessException
+	 *             if the custom editor cannot be created
+	 */
+	public Converter<?> forProperty(PropertyDescriptor descriptor)
+			throws InstantiationException, IllegalAccessException {
+		Class<?> editorClass = descriptor.getPropertyEditorClass();
+		if (editorClass != null) {
+			return new PropertyEditorConverter(newEditor(editorClass));
+		}
+		Class<?> type = descriptor.getPropertyType();
+		Converter<?> converter = find(type);
+		if (converter != null) {
+			return converter;
+		}
+		PropertyEditor editor = PropertyEditorManager.findEditor(type);
+		return editor == null ? STRING : new PropertyEditorConverter(editor);
+	}
+
+	private static PropertyEditor newEditor(Class<?> editorClass)
+			throws InstantiationException, IllegalAccessException {
+		try {
+			return (PropertyEditor) editorClass.getDeclaredConstructor()
+					.newInstance();
+		} catch (NoSuchMethodException e) {
+			throw (InstantiationException) new InstantiationException(
+					editorClass.getName()
+							+ " has no constructor without arguments")
+					.initCause(e);
+		} catch (InvocationTargetException e) {
+			throw (InstantiationException) new InstantiationException(
+					"Unable to create " + editorClass.getName()).initCause(e
+					.getCause());
+		}
+	}
+
+	/**
+	 * @return the converters registered so far, which do not change. Two
+	 *         registries with the same converters find the same ones, so
+	 *         cached lookups can be shared between them.
+	 */
+	Map<Class<?>, Converter<?>> getRegistered() {
+		return converters;
+	}
+
+	/**
+	 * Converts a field without letting a bad value escape as an exception. A
+	 * {@link StatusConverter} is asked for a status; any other converter is
+	 * called through convert and an IllegalArgumentException from it reported
+	 * as MALFORMED, with its message as the detail of the result.
+	 *
+	 * @param converter
+	 *            the converter of the column
+	 * @param text
+	 *            the field
+	 * @param result
+	 *            receives the value
+	 * @return OK, or why the field could not be converted
+	 */
+	static ConversionStatus tryConvert(Converter<?> converter, String text,
+			ConversionResult result) {
+		result.detail = null;
+		if (converter instanceof StatusConverter) {
+			return ((StatusConverter<?>) converter).tryConvert(text, result);
+		}
+		try {
+			result.setValue(converter.convert(text));
+			return ConversionStatus.OK;
+		} catch (IllegalArgumentException e) {
+			result.detail = e.getMessage();
+			return ConversionStatus.MALFORMED;
+		}
+	}
+
+	private static Map<Class<?>, Converter<?>> createDefaults() {
+		Map<Class<?>, Converter<?>> map = new HashMap<Class<?>, Converter<?>>();
+		map.put(String.class, STRING);
+		putInteger(map, byte.class, Byte.class, Byte.MIN_VALUE, Byte.MAX_VALUE);
+		putInteger(map, short.class, Short.class, Short.MIN_VALUE,
+				Short.MAX_VALUE);
+		putInteger(map, int.class, Integer.class, Integer.MIN_VALUE,
+				Integer.MAX_VALUE);
+		putInteger(map, long.class, Long.class, Long.MIN_VALUE, Long.MAX_VALUE);
+		map.put(float.class, new FloatingConverter(false, float.class));
+		map.put(Float.class, new FloatingConverter(true, float.class));
+		map.put(double.class, new FloatingConverter(false, double.class));
+		map.put(Double.class, new FloatingConverter(true, double.class));
+		map.put(boolean.class, new BooleanConverter(false));
+		map.put(Boolean.class, new BooleanConverter(true));
+		map.put(char.class, new CharacterConverter(false));
+		map.put(Character.class, new CharacterConverter(true));
+		map.put(BigDecimal.class, new BigDecimalConverter());
+		map.put(BigInteger.class, new BigIntegerConverter());
+		map.put(UUID.class, new UuidConverter());
+		for (String name : TIME_TYPES) {
+			try {
+				Class<?> type = Class.forName(name);
+				map.put(type, new ParseMethodConverter(type));
+			} catch (ReflectiveOperationException e) {
+				// running on Java 7
+			}
+		}
+		return Collections.unmodifiableMap(map);
+	}
+
+	private static void putInteger(Map<Class<?>, Converter<?>> map,
+			Class<?> primitive, Class<?> wrapper, long min, long max) {
+		map.put(primitive, new IntegerConverter(min, max, false, primitive));
+		map.put(wrapper, new IntegerConverter(min, max, true, primitive));
+	}
+
+	/*
+	 * Whether the text is a plain decimal number: an optional sign, digits
+	 * with an optional fraction, and an optional exponent. BigDecimal accepts
+	 * exactly these, and Double.parseDouble all of them.
+	 */
+	private static boolean isDecimal(String text) {
+		int length = text.length();
+		int i = skipSign(text, 0);
+		int digits = 0;
+		for (; i < length && isDigit(text.charAt(i)); i++) {
+			digits++;
+		}
+		if (i < length && text.charAt(i) == '.') {
+			for (i++; i < length && isDigit(text.charAt(i)); i++) {
+				digits++;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+			i = skipSign(text, i + 1);
+			if (i == length) {
+				return false;
+			}
+			for (; i < length && isDigit(text.charAt(i)); i++) {
+			}
+		}
+		return i == length;
+	}
+
+	private static int skipSign(String text, int i) {
+		if (i < text.length()
+				&& (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+			return i + 1;
+		}
+		return i;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * The built in converters parse a field once, into either its value or
+	 * the status it failed with, so convert and tryConvert share the parse
+	 * and neither allocates anything beyond the value.
+	 */
+	private abstract static class BuiltInConverter<T> implements
+			StatusConverter<T> {
+
+		/**
+		 * @return the value, or the ConversionStatus the field failed with
+		 */
+		abstract Object parse(String text);
+
+		@SuppressWarnings("unchecked")
+		public T convert(String text) {
+			Object value = parse(text);
+			if (value instanceof ConversionStatus) {
+				throw failure(text, (ConversionStatus) value);
+			}
+			return (T) value;
+		}
+
+		public ConversionStatus tryConvert(String text, ConversionResult result) {
+			Object value = parse(text);
+			if (value instanceof ConversionStatus) {
+				return (ConversionStatus) value;
+			}
+			result.setValue(value);
+			return ConversionStatus.OK;
+		}
+
+		IllegalArgumentException failure(String text, ConversionStatus status) {
+			return new IllegalArgumentException("Not a valid value: \"" + text
+					+ "\"");
+		}
+	}
+
+	/**
+	 * The converters for numbers throw NumberFormatException, as the parse
+	 * methods of the number classes do.
+	 */
+	private abstract static class NumberConverter<T> extends
+			BuiltInConverter<T> {
+
+		@Override
+		IllegalArgumentException failure(String text, ConversionStatus status) {
+			return new NumberFormatException("For input string: \"" + text
+					+ "\"");
+		}
+	}
+
+	/**
+	 * Reads a decimal integer directly from the characters of the field,
+	 * accumulating it as a negative number so the minimum value fits.
+	 */
+	private static class IntegerConverter extends NumberConverter<Number> {
+		private final long min;
+		private final long max;
+		private final boolean nullable;
+		private final Class<?> type;
+
+		IntegerConverter(long min, long max, boolean nullable, Class<?> type) {
+			this.min = min;
+			this.max = max;
+			this.nullable = nullable;
+			this.type = type;
+		}
+
+		Object parse(String text) {
+			int length = text.length();
+			if (length == 0) {
+				return nullable ? null : ConversionStatus.EMPTY;
+			}
+			int i = skipSign(text, 0);
+			boolean negative = text.charAt(0) == '-';
+			if (i == length) {
+				return ConversionStatus.MALFORMED;
+			}
+			long limit = negative ? min : -max;
+			long multmin = limit / 10;
+			long value = 0;
+			boolean overflow = false;
+			for (; i < length; i++) {
+				int digit = text.charAt(i) - '0';
+				if (digit < 0 || digit > 9) {
+					return ConversionStatus.MALFORMED;
+				} else if (overflow || value < multmin
+						|| value * 10 < limit + digit) {
+					// keep looking for characters that are not digits
+					overflow = true;
+				} else {
+					value = value * 10 - digit;
+				}
+			}
+			if (overflow) {
+				return ConversionStatus.OUT_OF_RANGE;
+			}
+			return box(negative ? value : -value);
+		}
+
+		private Number box(long value) {
+			if (type == int.class) {
+				return Integer.valueOf((int) value);
+			} else if (type == long.class) {
+				return Long.valueOf(value);
+			} else if (type == short.class) {
+				return Short.valueOf((short) value);
+			}
+			return Byte.valueOf((byte) value);
+		}
+	}
+
+	/**
+	 * Checks the field before it is parsed, so a value that is not a number
+	 * is reported without an exception. Only the forms a plain decimal check
+	 * does not cover, such as NaN, hexadecimal or a type suffix, are left to
+	 * Double.parseDouble to reject.
+	 */
+	private static class FloatingConverter extends NumberConverter<Number> {
+		private final boolean nullable;
+		private final Class<?> type;
+
+		FloatingConverter(boolean nullable, Class<?> type) {
+			this.nullable = nullable;
+			this.type = type;
+		}
+
+		Object parse(String text) {
+			if (text.isEmpty()) {
+				return nullable ? null : ConversionStatus.EMPTY;
+			} else if (!isDecimal(text) && !isSpecial(text)) {
+				return ConversionStatus.MALFORMED;
+			}
+			try {
+				return parseNumber(text);
+			} catch (NumberFormatException e) {
+				return ConversionStatus.MALFORMED;
+			}
+		}
+
+		private Number parseNumber(String text) {
+			if (type == float.class) {
+				return Float.valueOf(Float.parseFloat(text));
+			}
+			return Double.valueOf(Double.parseDouble(text));
+		}
+
+		private static boolean isSpecial(String text) {
+			int length = text.length();
+			char last = text.charAt(length - 1);
+			int i = skipSign(text, 0);
+			boolean suffix = last == 'd' || last == 'D' || last == 'f'
+					|| last == 'F';
+			return text.charAt(0) <= ' ' || last <= ' '
+					|| suffix && isDecimal(text.substring(0, length - 1))
+					|| text.startsWith("NaN", i)
+					|| text.startsWith("Infinity", i)
+					|| text.startsWith("0x", i) || text.startsWith("0X", i);
+		}
+	}
+
+	private static class BigDecimalConverter extends
+			NumberConverter<BigDecimal> {
+
+		Object parse(String text) {
+			if (text.isEmpty()) {
+				return null;
+			} else if (!isDecimal(text)) {
+				return ConversionStatus.MALFORMED;
+			}
+			try {
+				return new BigDecimal(text);
+			} catch (NumberFormatException e) {
+				// the exponent does not fit in an int
+				return ConversionStatus.OUT_OF_RANGE;
+			}
+		}
+	}
+
+	private static class BigIntegerConverter extends
+			NumberConverter<BigInteger> {
+
+		Object parse(String text) {
+			int length = text.length();
+			if (length == 0) {
+				return null;
+			}
+			int i = skipSign(text, 0);
+			if (i == length) {
+				return ConversionStatus.MALFORMED;
+			}
+			for (; i < length; i++) {
+				if (!isDigit(text.charAt(i))) {
+					return ConversionStatus.MALFORMED;
+				}
+			}
+			return new BigInteger(text);
+		}
+	}
+
+	private static class BooleanConverter extends BuiltInConverter<Boolean> {
+		private final boolean nullable;
+
+		BooleanConverter(boolean nullable) {
+			this.nullable = nullable;
+		}
+
+		Object parse(String text) {
+			if (text.isEmpty()) {
+				return nullable ? null : ConversionStatus.EMPTY;
+			} else if ("true".equalsIgnoreCase(text)) {
+				return Boolean.TRUE;
+			} else if ("false".equalsIgnoreCase(text)) {
+				return Boolean.FALSE;
+			}
+			return ConversionStatus.MALFORMED;
+		}
+
+		@Override
+		IllegalArgumentException failure(String text, ConversionStatus status) {
+			return new IllegalArgumentException("Not a boolean: " + text);
+		}
+	}
+
+	private static class CharacterConverter extends
+			BuiltInConverter<Character> {
+		private final boolean nullable;
+
+		CharacterConverter(boolean nullable) {
+			this.nullable = nullable;
+		}
+
+		Object parse(String text) {
+			if (text.isEmpty() && nullable) {
+				return null;
+			} else if (text.length() != 1) {
+				return text.isEmpty() ? ConversionStatus.EMPTY
+						: ConversionStatus.MALFORMED;
+			}
+			return Character.valueOf(text.charAt(0));
+		}
+
+		@Override
+		IllegalArgumentException failure(String text, ConversionStatus status) {
+			return new IllegalArgumentException("Not a single character: "
+					+ text);
+		}
+	}
+
+	/**
+	 * Checks the shape of the field first, so only text that looks like a
+	 * UUID can reach UUID.fromString and its exceptions.
+	 */
+	private static class UuidConverter extends BuiltInConverter<UUID> {
+
+		Object parse(String text) {
+			if (text.isEmpty()) {
+				return null;
+			}
+			int dashes = 0;
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (c == '-') {
+					dashes++;
+				} else if (Character.digit(c, 16) < 0) {
+					return ConversionStatus.MALFORMED;
+				}
+			}
+			if (dashes != 4) {
+				return ConversionStatus.MALFORMED;
+			}
+			try {
+				return UUID.fromString(text);
+			} catch (IllegalArgumentException e) {
+				return ConversionStatus.MALFORMED;
+			}
+		}
+
+		@Override
+		IllegalArgumentException failure(String text, ConversionStatus status) {
+			return new IllegalArgumentException("Invalid UUID string: " + text);
+		}
+	}
+
+	/**
+	 * Looks the constants up in a map of their names, as Enum.valueOf throws
+	 * for a name it does not know.
+	 */
+	private static class EnumConverter extends BuiltInConverter<Object> {
+		private final Class<?> type;
+		private final Map<String, Object> constants = new HashMap<String, Object>();
+
+		EnumConverter(Class<?> type) {
+			this.type = type;
+			for (Object constant : type.getEnumConstants()) {
+				constants.put(((Enum<?>) constant).name(), constant);
+			}
+		}
+
+		Object parse(String text) {
+			if (text.isEmpty()) {
+				return null;
+			}
+			Object constant = constants.get(text);
+			return constant == null ? ConversionStatus.MALFORMED : constant;
+		}
+
+		@Override
+		IllegalArgumentException failure(String text, ConversionStatus status) {
+			return new IllegalArgumentException("No enum constant "
+					+ type.getCanonicalName() + "." + text);
+		}
+	}
+
+	/**
+	 * Calls the static parse(CharSequence) method of a type, which the
+	 * java.time types all have. They are looked up by name so the library
+	 * still runs on Java 7.
+	 */
+	private static class ParseMethodConverter implements Converter<Object> {
+		private final MethodHandle parse;
+
+		ParseMethodConverter(Class<?> type)
+				throws ReflectiveOperationException {
+			parse = MethodHandles.publicLookup()
+					.findStatic(type, "parse",
+							MethodType.methodType(type, CharSequence.class))
+					.asType(MethodType.methodType(Object.class,
+							CharSequence.class));
+		}
+
+		public Object convert(String text) {
+			if (text.isEmpty()) {
+				return null;
+			}
+			try {
+				return parse.invokeExact((CharSequence) text);
+			} catch (IllegalArgumentException e) {
+				throw e;
+			} catch (RuntimeException e) {
+				throw new IllegalArgumentException(e.getMessage(), e);
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new IllegalArgumentException(t);
+			}
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package com.fastopencsv.bean;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field of a {@link CsvRecord} bean as a column. The generated mapper
+ * reads and writes it through the setter and getter of the property.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface CsvColumn {
+
+	/**
+	 * @return the column name, or the field name when empty
+	 */
+	String name() default "";
+
+	/**
+	 * @return the place of the column, counting from 0. Columns without a
+	 *         position follow those with one, in the order of the fields.
+	 */
+	int position() default -1;
+}
@@ -0,0 +1,21 @@
+package com.fastopencsv.bean;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the constructor or static factory method a
+ * {@link ConstructorMappingStrategy} creates objects with, and names its
+ * parameters, which the class files do not keep.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.CONSTRUCTOR, ElementType.METHOD })
+public @interface CsvCreator {
+
+	/**
+	 * @return the column name for each parameter, in order
+	 */
+	String[] value();
+}
@@ -0,0 +1,69 @@
+package com.fastopencsv.bean;
+
+/**
+ * A field that could not be converted, as recorded by a {@link CsvErrorSink}.
+ */
+public final class CsvError {
+	private final long row;
+	private final int column;
+	private final String property;
+	private final String value;
+	private final ConversionStatus status;
+	private final String reason;
+
+	CsvError(long row, int column, String property, String value,
+			ConversionStatus status, String reason) {
+		this.row = row;
+		this.column = column;
+		this.property = property;
+		this.value = value;
+		this.status = status;
+		this.reason = reason;
+	}
+
+	/**
+	 * @return the number of the row, counting from 1 for the first row after
+	 *         the header
+	 */
+	public long getRow() {
+		return row;
+	}
+
+	/**
+	 * @return the index of the column, counting from 0
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * @return the property or parameter the column maps to
+	 */
+	public String getProperty() {
+		return property;
+	}
+
+	/**
+	 * @return the field as it was read, before trimming
+	 */
+	public String getValue() {
+		return value;
+	}
+
+	public ConversionStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return why the field could not be converted
+	 */
+	public String getReason() {
+		return reason;
+	}
+
+	@Override
+	public String toString() {
+		return "Row " + row + ", column " + column + " (" + property + "): "
+				+ reason + ": \"" + value + "\"";
+	}
+}
@@ -0,0 +1,115 @@
+package com.fastopencsv.bean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the fields a {@link CsvToBean} could not convert, so a parse can
+ * carry on past bad rows instead of failing on the first one. Only the first
+ * errors up to a limit are kept, so a feed that is bad throughout does not
+ * fill the memory; every error and failed row is still counted.
+ * <p>
+ * Like CsvToBean it is not thread safe.
+ */
+public class CsvErrorSink {
+
+	/** The default number of errors kept. */
+	public static final int DEFAULT_MAX_ERRORS = 1000;
+
+	private final int maxErrors;
+	private final List<CsvError> errors = new ArrayList<CsvError>();
+	private long errorCount;
+	private long failedRows;
+	private long lastFailedRow = -1;
+
+	public CsvErrorSink() {
+		this(DEFAULT_MAX_ERRORS);
+	}
+
+	/**
+	 * @param maxErrors
+	 *            the number of errors kept, 0 to only count them
+	 */
+	public CsvErrorSink(int maxErrors) {
+		if (maxErrors < 0) {
+			throw new IllegalArgumentException(
+					"The number of errors kept cannot be negative");
+		}
+		this.maxErrors = maxErrors;
+	}
+
+	/**
+	 * Records a field that could not be converted.
+	 *
+	 * @param row
+	 *            the number of the row, from 1
+	 * @param column
+	 *            the index of the column
+	 * @param property
+	 *            the property or parameter of the column
+	 * @param value
+	 *            the field as it was read
+	 * @param status
+	 *            why the converter rejected it
+	 * @param detail
+	 *            the message of the exception a converter threw, or null
+	 */
+	void record(long row, int column, String property, String value,
+			ConversionStatus status, String detail) {
+		errorCount++;
+		if (row != lastFailedRow) {
+			lastFailedRow = row;
+			failedRows++;
+		}
+		if (errors.size() < maxErrors) {
+			String reason = detail == null ? status.getDescription() : status
+					.getDescription() + " (" + detail + ")";
+			errors.add(new CsvError(row, column, property, value, status,
+					reason));
+		}
+	}
+
+	/**
+	 * @return the errors kept, in the order they were found
+	 */
+	public List<CsvError> getErrors() {
+		return Collections.unmodifiableList(errors);
+	}
+
+	/**
+	 * @return the number of errors found, including those not kept
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * @return the number of rows that had at least one error, and so were
+	 *         left out of the result
+	 */
+	public long getFailedRows() {
+		return failedRows;
+	}
+
+	/**
+	 * @return true if more errors were found than are kept
+	 */
+	public boolean isTruncated() {
+		return errorCount > errors.size();
+	}
+
+	public int getMaxErrors() {
+		return maxErrors;
+	}
+
+	/**
+	 * Forgets the errors, to use the sink for another parse.
+	 */
+	public void clear() {
+		errors.clear();
+		errorCount = 0;
+		failedRows = 0;
+		lastFailedRow = -1;
+	}
+}
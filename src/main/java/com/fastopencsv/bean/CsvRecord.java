@@ -0,0 +1,17 @@
+package com.fastopencsv.bean;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a bean for the optional
+ * {@link com.fastopencsv.bean.processor.CsvMapperProcessor}, which generates a
+ * mapper class for it at compile time. The columns are the fields annotated
+ * with {@link CsvColumn}.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface CsvRecord {
+}
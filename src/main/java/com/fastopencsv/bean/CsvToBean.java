@@ -23,6 +23,7 @@ import java.beans.PropertyEditorManager;
 import java.io.Reader;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,7 +32,25 @@ import com.fastopencsv.AbstractCsvReader;
 import com.fastopencsv.CsvStreamReader;
 
 public class CsvToBean<T> {
+	private static final BeanSetter[] NO_SETTERS = new BeanSetter[0];
+
 	private Map<Class<?>, PropertyEditor> editorMap = null;
+	private ConverterRegistry converterRegistry = new ConverterRegistry();
+	private MappingPlanCache planCache = MappingPlanCache.getShared();
+	private MappingStrategy<T> plannedMapper;
+	private BeanSetter[] setters = NO_SETTERS;
+	private PropertyDescriptor[] resolvedColumns;
+	private CsvErrorSink errorSink;
+	private final ConversionResult conversion = new ConversionResult();
+	private long row;
+
+	/** Whether the error sink took errors for the row mapped last. */
+	boolean rowFailed;
+
+	// subclasses that convert the old way keep being called
+	private final boolean customConversion = overridden("convertValue",
+			String.class, PropertyDescriptor.class)
+			|| overridden("getPropertyEditor", PropertyDescriptor.class);
 
 	public CsvToBean() {
 	}
@@ -43,11 +62,16 @@ public class CsvToBean<T> {
 	public List<T> parse(MappingStrategy<T> mapper, AbstractCsvReader csv) {
 		try {
 			mapper.captureHeader(csv);
+			// the header may have changed since the last parse
+			plannedMapper = null;
+			row = 0;
 			String[] line;
 			List<T> list = new ArrayList<T>();
 			while (null != (line = csv.readNext())) {
-				T obj = processLine(mapper, line);
-				list.add(obj); // TODO: (Kyle) null check object
+				T obj = mapRow(mapper, line, null);
+				if (!rowFailed) {
+					list.add(obj); // TODO: (Kyle) null check object
+				}
 			}
 			return list;
 		} catch (Exception e) {
@@ -55,29 +79,210 @@ public class CsvToBean<T> {
 		}
 	}
 
+	/**
+	 * Maps the rows one at a time as the iterator is advanced, so only one row
+	 * and one bean are held at a time however long the file is. The CsvToBean
+	 * must not be used for anything else until the iterator is finished.
+	 *
+	 * @param mapper
+	 *            the mapping strategy
+	 * @param reader
+	 *            the CSV text
+	 * @return the beans, one per row
+	 */
+	public BeanIterator<T> iterate(MappingStrategy<T> mapper, Reader reader) {
+		return iterate(mapper, new CsvStreamReader(reader), false);
+	}
+
+	/**
+	 * Maps the rows one at a time as the iterator is advanced.
+	 *
+	 * @param mapper
+	 *            the mapping strategy
+	 * @param csv
+	 *            the CSV reader
+	 * @return the beans, one per row
+	 * @see #iterate(MappingStrategy, AbstractCsvReader, boolean)
+	 */
+	public BeanIterator<T> iterate(MappingStrategy<T> mapper,
+			AbstractCsvReader csv) {
+		return iterate(mapper, csv, false);
+	}
+
+	/**
+	 * Maps the rows one at a time as the iterator is advanced. The header is
+	 * captured before this returns.
+	 *
+	 * @param mapper
+	 *            the mapping strategy
+	 * @param csv
+	 *            the CSV reader
+	 * @param recycleBeans
+	 *            true to create a single bean and set each row on it in turn,
+	 *            so the iterator returns the same object every time. A column
+	 *            missing from a short row keeps the value of the row before.
+	 * @return the beans, one per row
+	 */
+	public BeanIterator<T> iterate(MappingStrategy<T> mapper,
+			AbstractCsvReader csv, boolean recycleBeans) {
+		if (recycleBeans && mapper instanceof ConstructorMappingStrategy) {
+			throw new IllegalArgumentException(
+					"Objects created by a constructor cannot be recycled");
+		}
+		try {
+			mapper.captureHeader(csv);
+			plannedMapper = null;
+			row = 0;
+		} catch (Exception e) {
+			throw new RuntimeException("Error parsing CSV!", e);
+		}
+		return new BeanIterator<T>(this, mapper, csv, recycleBeans);
+	}
+
+	/**
+	 * Counts a row and maps it, onto the recycled bean if one is given. When
+	 * the error sink took errors for the row, rowFailed is set and the bean
+	 * should be dropped.
+	 */
+	T mapRow(MappingStrategy<T> mapper, String[] line, T recycled)
+			throws IllegalAccessException, InvocationTargetException,
+			InstantiationException, IntrospectionException {
+		row++;
+		long errors = errorSink == null ? 0 : errorSink.getErrorCount();
+		T bean = recycled == null ? processLine(mapper, line) : fillBean(
+				mapper, recycled, line);
+		rowFailed = errorSink != null && errorSink.getErrorCount() != errors;
+		return bean;
+	}
+
 	protected T processLine(MappingStrategy<T> mapper, String[] line)
 			throws IllegalAccessException, InvocationTargetException,
 			InstantiationException, IntrospectionException {
-		T bean = mapper.createBean();
+		if (mapper instanceof ConstructorMappingStrategy) {
+			return ((ConstructorMappingStrategy<T>) mapper).createBean(line,
+					errorSink, row);
+		}
+		return fillBean(mapper, mapper.createBean(), line);
+	}
+
+	/**
+	 * Sets the fields of a row on a bean.
+	 */
+	T fillBean(MappingStrategy<T> mapper, T bean, String[] line)
+			throws IllegalAccessException, InvocationTargetException,
+			InstantiationException, IntrospectionException {
+		BeanSetter[] columns = settersFor(mapper, line.length);
 		for (int col = 0; col < line.length; col++) {
-			PropertyDescriptor prop = mapper.findDescriptor(col);
-			if (null != prop) {
-				String value = checkForTrim(line[col], prop);
-				Object obj = convertValue(value, prop);
-				prop.getWriteMethod().invoke(bean, obj);
+			BeanSetter setter = columns[col];
+			if (null != setter) {
+				String value = setter.trim ? line[col].trim() : line[col];
+				Object obj;
+				if (errorSink != null) {
+					if (!convertField(setter, col, line[col], value)) {
+						continue;
+					}
+					obj = conversion.getValue();
+				} else {
+					obj = customConversion ? convertValue(value,
+							setter.descriptor) : setter.converter.convert(value);
+				}
+				setter.set(bean, obj);
 			}
 		}
 		return bean;
 	}
 
-	private String checkForTrim(String s, PropertyDescriptor prop) {
-		return trimmableProperty(prop) ? s.trim() : s;
+	/*
+	 * Converts a field into the conversion result, or records it in the error
+	 * sink. The built in converters report a bad field with a status, so no
+	 * exception is thrown for it; only other converters and subclasses that
+	 * convert the old way are caught throwing.
+	 */
+	private boolean convertField(BeanSetter setter, int col, String raw,
+			String value) throws InstantiationException,
+			IllegalAccessException {
+		ConversionStatus status;
+		if (customConversion) {
+			conversion.detail = null;
+			try {
+				conversion.setValue(convertValue(value, setter.descriptor));
+				status = ConversionStatus.OK;
+			} catch (IllegalArgumentException e) {
+				conversion.detail = e.getMessage();
+				status = ConversionStatus.MALFORMED;
+			}
+		} else {
+			status = ConverterRegistry.tryConvert(setter.converter, value,
+					conversion);
+		}
+		if (status == ConversionStatus.OK) {
+			return true;
+		}
+		errorSink.record(row, col, setter.descriptor.getName(), raw, status,
+				conversion.detail);
+		return false;
 	}
 
-	private boolean trimmableProperty(PropertyDescriptor prop) {
-		return !prop.getPropertyType().getName().contains("String");
+	/*
+	 * Each column is looked up in the mapping strategy once, the first time a
+	 * row reaches it, and its write method compiled into a setter along with
+	 * the converter for the property. A strategy that can resolve all of its
+	 * columns at once is asked a single time, and its setters are taken from
+	 * the plan cache when the layout has been seen before. Rows that are
+	 * longer than any before them resolve only the new columns.
+	 */
+	private BeanSetter[] settersFor(MappingStrategy<T> mapper, int columns)
+			throws IntrospectionException, IllegalAccessException,
+			InstantiationException {
+		if (mapper != plannedMapper) {
+			plannedMapper = mapper;
+			setters = NO_SETTERS;
+			resolvedColumns = null;
+			if (mapper instanceof ColumnResolvingMappingStrategy) {
+				resolvedColumns = ((ColumnResolvingMappingStrategy<T>) mapper)
+						.resolveColumns();
+				if (planCache != null) {
+					setters = planCache.setters(resolvedColumns,
+							converterRegistry);
+				}
+			}
+		}
+		if (columns > setters.length) {
+			BeanSetter[] grown = Arrays.copyOf(setters, columns);
+			for (int col = setters.length; col < columns; col++) {
+				PropertyDescriptor prop;
+				if (resolvedColumns == null) {
+					prop = mapper.findDescriptor(col);
+				} else {
+					prop = col < resolvedColumns.length ? resolvedColumns[col]
+							: null;
+				}
+				grown[col] = null == prop ? null : new BeanSetter(prop,
+						converterRegistry.forProperty(prop));
+			}
+			setters = grown;
+		}
+		return setters;
 	}
 
+	private boolean overridden(String name, Class<?>... parameterTypes) {
+		for (Class<?> cls = getClass(); cls != CsvToBean.class; cls = cls
+				.getSuperclass()) {
+			try {
+				cls.getDeclaredMethod(name, parameterTypes);
+				return true;
+			} catch (NoSuchMethodException e) {
+				// look further up
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Converts with the PropertyEditor of the property. The rows are converted
+	 * with the converters of the {@link ConverterRegistry} instead, unless a
+	 * subclass overrides this method or getPropertyEditor.
+	 */
 	protected Object convertValue(String value, PropertyDescriptor prop)
 			throws InstantiationException, IllegalAccessException {
 		PropertyEditor editor = getPropertyEditor(prop);
@@ -122,4 +327,52 @@ public class CsvToBean<T> {
 		return getPropertyEditorValue(desc.getPropertyType());
 	}
 
+	public ConverterRegistry getConverterRegistry() {
+		return converterRegistry;
+	}
+
+	/**
+	 * @param converterRegistry
+	 *            where the converters for the properties are found
+	 */
+	public void setConverterRegistry(ConverterRegistry converterRegistry) {
+		if (converterRegistry == null) {
+			throw new IllegalArgumentException("A converter registry is needed");
+		}
+		this.converterRegistry = converterRegistry;
+		plannedMapper = null;
+	}
+
+	public MappingPlanCache getMappingPlanCache() {
+		return planCache;
+	}
+
+	/**
+	 * @param planCache
+	 *            where compiled setters are shared with other CsvToBeans, or
+	 *            null to compile them for this one only. The process-wide
+	 *            cache is used by default.
+	 */
+	public void setMappingPlanCache(MappingPlanCache planCache) {
+		this.planCache = planCache;
+		plannedMapper = null;
+	}
+
+	public CsvErrorSink getErrorSink() {
+		return errorSink;
+	}
+
+	/**
+	 * Makes the parse go on past fields that cannot be converted. Each such
+	 * field is recorded in the sink with its row, column and value, and a row
+	 * with any of them is left out of the result. Other failures, such as a
+	 * setter throwing, still stop the parse.
+	 *
+	 * @param errorSink
+	 *            where to record the fields, or null to throw for the first
+	 *            one, which is the default
+	 */
+	public void setErrorSink(CsvErrorSink errorSink) {
+		this.errorSink = errorSink;
+	}
 }
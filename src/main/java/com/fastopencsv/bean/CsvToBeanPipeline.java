@@ -0,0 +1,187 @@
+package com.fastopencsv.bean;
+
+import java.beans.IntrospectionException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fastopencsv.AbstractCsvReader;
+import com.fastopencsv.CsvPipeline;
+import com.fastopencsv.CsvStreamReader;
+
+/**
+ * Maps a CSV source to beans with reading, record splitting, parsing and bean
+ * mapping each running on their own threads. Rows travel between the stages
+ * in blocks. The beans are returned in file order, or, when ordering is turned
+ * off, in the order their blocks finish mapping, so one slow block does not
+ * hold back the ones behind it.
+ * <p>
+ * Each mapper thread has its own {@link CsvToBean} so property editors are
+ * never shared between threads. The mapping strategy is shared, so a custom
+ * strategy must allow findDescriptor and createBean to be called from several
+ * threads once the header has been captured.
+ */
+public class CsvToBeanPipeline<T> {
+	/** The default number of threads mapping rows to beans. */
+	public static final int DEFAULT_MAPPER_THREADS = 1;
+
+	private int blockSize = CsvPipeline.DEFAULT_BLOCK_SIZE;
+	private int queueCapacity = CsvPipeline.DEFAULT_QUEUE_CAPACITY;
+	private int parserThreads = CsvPipeline.DEFAULT_PARSER_THREADS;
+	private int mapperThreads = DEFAULT_MAPPER_THREADS;
+	private boolean ordered = true;
+
+	public CsvToBeanPipeline() {
+	}
+
+	public List<T> parse(MappingStrategy<T> mapper, Reader reader) {
+		return parse(mapper, new CsvStreamReader(reader));
+	}
+
+	public List<T> parse(MappingStrategy<T> mapper, AbstractCsvReader csv) {
+		ExecutorService mapperPool = Executors.newFixedThreadPool(mapperThreads);
+		CsvPipeline pipeline = new CsvPipeline(csv);
+		pipeline.setBlockSize(blockSize);
+		pipeline.setQueueCapacity(queueCapacity);
+		pipeline.setParserThreads(parserThreads);
+		try {
+			mapper.captureHeader(csv);
+			ThreadLocal<CsvToBean<T>> converters = new ThreadLocal<CsvToBean<T>>() {
+				@Override
+				protected CsvToBean<T> initialValue() {
+					return new CsvToBean<T>();
+				}
+			};
+			// unordered takes whichever block is done first
+			CompletionService<List<T>> completed = new ExecutorCompletionService<List<T>>(
+					mapperPool);
+			Deque<Future<List<T>>> inFlight = new ArrayDeque<Future<List<T>>>();
+			List<T> list = new ArrayList<T>();
+			List<String[]> rows;
+			boolean prepared = false;
+			while (null != (rows = pipeline.nextBlock())) {
+				if (!prepared && !rows.isEmpty()) {
+					prepareDescriptors(mapper, rows.get(0).length);
+					prepared = true;
+				}
+				MapTask task = new MapTask(mapper, rows, converters);
+				inFlight.add(ordered ? mapperPool.submit(task) : completed
+						.submit(task));
+				if (inFlight.size() >= queueCapacity) {
+					list.addAll(nextMapped(inFlight, completed));
+				}
+			}
+			while (!inFlight.isEmpty()) {
+				list.addAll(nextMapped(inFlight, completed));
+			}
+			return list;
+		} catch (Exception e) {
+			throw new RuntimeException("Error parsing CSV!", e);
+		} finally {
+			pipeline.close();
+			mapperPool.shutdownNow();
+		}
+	}
+
+	private List<T> nextMapped(Deque<Future<List<T>>> inFlight,
+			CompletionService<List<T>> completed) throws InterruptedException,
+			ExecutionException {
+		if (ordered) {
+			return inFlight.remove().get();
+		}
+		Future<List<T>> done = completed.take();
+		inFlight.remove(done);
+		return done.get();
+	}
+
+	/*
+	 * The header strategies load their descriptors lazily. Do it once here,
+	 * before the mapper threads start asking for them.
+	 */
+	private void prepareDescriptors(MappingStrategy<T> mapper, int columns)
+			throws IntrospectionException {
+		if (mapper instanceof ColumnResolvingMappingStrategy) {
+			((ColumnResolvingMappingStrategy<T>) mapper).resolveColumns();
+			return;
+		}
+		for (int col = 0; col < columns; col++) {
+			mapper.findDescriptor(col);
+		}
+	}
+
+	private class MapTask implements Callable<List<T>> {
+		private final MappingStrategy<T> mapper;
+		private final List<String[]> rows;
+		private final ThreadLocal<CsvToBean<T>> converters;
+
+		MapTask(MappingStrategy<T> mapper, List<String[]> rows,
+				ThreadLocal<CsvToBean<T>> converters) {
+			this.mapper = mapper;
+			this.rows = rows;
+			this.converters = converters;
+		}
+
+		public List<T> call() throws Exception {
+			CsvToBean<T> converter = converters.get();
+			List<T> beans = new ArrayList<T>(rows.size());
+			for (String[] row : rows) {
+				beans.add(converter.processLine(mapper, row));
+			}
+			return beans;
+		}
+	}
+
+	public boolean isOrdered() {
+		return ordered;
+	}
+
+	/**
+	 * @param ordered
+	 *            true, the default, to return the beans in file order, false
+	 *            to return each block of beans as soon as it is mapped
+	 */
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	public void setBlockSize(int blockSize) {
+		this.blockSize = blockSize;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public int getParserThreads() {
+		return parserThreads;
+	}
+
+	public void setParserThreads(int parserThreads) {
+		this.parserThreads = parserThreads;
+	}
+
+	public int getMapperThreads() {
+		return mapperThreads;
+	}
+
+	public void setMapperThreads(int mapperThreads) {
+		this.mapperThreads = mapperThreads;
+	}
+}
@@ -5,6 +5,8 @@ import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,22 +28,76 @@ import com.fastopencsv.AbstractCsvReader;
  * the License.
  */
 
-public class HeaderColumnNameMappingStrategy<T> implements MappingStrategy<T> {
+public class HeaderColumnNameMappingStrategy<T> implements
+		ColumnResolvingMappingStrategy<T> {
 	protected String[] header;
 	protected Map<String, PropertyDescriptor> descriptorMap = null;
 	protected Class<T> type;
+	private volatile PropertyDescriptor[] columnDescriptors;
+
+	// introspected once per class; each strategy copies the map it is given
+	private static final ClassValue<Map<String, PropertyDescriptor>> DESCRIPTOR_MAPS = new ClassValue<Map<String, PropertyDescriptor>>() {
+		@Override
+		protected Map<String, PropertyDescriptor> computeValue(Class<?> cls) {
+			try {
+				return createDescriptorMap(cls);
+			} catch (IntrospectionException e) {
+				throw new UndeclaredThrowableException(e);
+			}
+		}
+	};
 
 	public void captureHeader(AbstractCsvReader reader) throws IOException {
 		header = reader.readNext();
+		columnsChanged();
 	}
 
+	/**
+	 * Looks the column up in the descriptors resolved for the header, once
+	 * they have been.
+	 */
 	public PropertyDescriptor findDescriptor(int col)
 			throws IntrospectionException {
+		PropertyDescriptor[] resolved = columnDescriptors;
+		if (resolved != null) {
+			return col < resolved.length ? resolved[col] : null;
+		}
 		String columnName = getColumnName(col);
 		return (null != columnName && columnName.trim().length() > 0) ? findDescriptor(columnName)
 				: null;
 	}
 
+	/**
+	 * Resolves every column of the header into an array, which findDescriptor
+	 * then reads instead of looking each name up again.
+	 */
+	public PropertyDescriptor[] resolveColumns() throws IntrospectionException {
+		PropertyDescriptor[] resolved = columnDescriptors;
+		if (resolved == null) {
+			resolved = new PropertyDescriptor[getColumnCount()];
+			for (int col = 0; col < resolved.length; col++) {
+				resolved[col] = findDescriptor(col);
+			}
+			columnDescriptors = resolved;
+		}
+		return resolved.clone();
+	}
+
+	/**
+	 * @return the number of columns the header names
+	 */
+	protected int getColumnCount() {
+		return null != header ? header.length : 0;
+	}
+
+	/**
+	 * Forgets the resolved columns. Subclasses call it when anything that
+	 * decides the columns changes.
+	 */
+	protected void columnsChanged() {
+		columnDescriptors = null;
+	}
+
 	protected String getColumnName(int col) {
 		return (null != header && col < header.length) ? header[col] : null;
 	}
@@ -58,20 +114,34 @@ public class HeaderColumnNameMappingStrategy<T> implements MappingStrategy<T> {
 		return desc.getName().equals(name.trim());
 	}
 
+	/**
+	 * Returns the properties of the type by upper case name. The type is
+	 * introspected once, but each call returns a new map, so a subclass may
+	 * add aliases to its own.
+	 */
 	protected Map<String, PropertyDescriptor> loadDescriptorMap(Class<T> cls)
 			throws IntrospectionException {
+		try {
+			return new HashMap<String, PropertyDescriptor>(DESCRIPTOR_MAPS.get(cls));
+		} catch (UndeclaredThrowableException e) {
+			throw (IntrospectionException) e.getCause();
+		}
+	}
+
+	private static Map<String, PropertyDescriptor> createDescriptorMap(
+			Class<?> cls) throws IntrospectionException {
 		Map<String, PropertyDescriptor> map = new HashMap<String, PropertyDescriptor>();
 
 		PropertyDescriptor[] descriptors;
-		descriptors = loadDescriptors(getType());
+		descriptors = loadDescriptors(cls);
 		for (PropertyDescriptor descriptor : descriptors) {
 			map.put(descriptor.getName().toUpperCase().trim(), descriptor);
 		}
 
-		return map;
+		return Collections.unmodifiableMap(map);
 	}
 
-	private PropertyDescriptor[] loadDescriptors(Class<T> cls)
+	private static PropertyDescriptor[] loadDescriptors(Class<?> cls)
 			throws IntrospectionException {
 		BeanInfo beanInfo = Introspector.getBeanInfo(cls);
 		return beanInfo.getPropertyDescriptors();
@@ -81,11 +151,33 @@ public class HeaderColumnNameMappingStrategy<T> implements MappingStrategy<T> {
 		return type.newInstance();
 	}
 
+	/**
+	 * @return the header captured from the reader or set, or null if there is
+	 *         none yet
+	 */
+	public String[] getHeader() {
+		return header != null ? header.clone() : null;
+	}
+
+	/**
+	 * Sets the header without reading it, for writing beans with
+	 * {@link BeanToCsv}. Reading with the strategy replaces it.
+	 *
+	 * @param header
+	 *            the column names
+	 */
+	public void setHeader(String[] header) {
+		this.header = header != null ? header.clone() : null;
+		columnsChanged();
+	}
+
 	public Class<T> getType() {
 		return type;
 	}
 
 	public void setType(Class<T> type) {
 		this.type = type;
+		descriptorMap = null;
+		columnsChanged();
 	}
 }
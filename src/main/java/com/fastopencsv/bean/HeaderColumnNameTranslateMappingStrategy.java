@@ -36,5 +36,6 @@ public class HeaderColumnNameTranslateMappingStrategy<T> extends
 		for (String key : columnMapping.keySet()) {
 			this.columnMapping.put(key.toUpperCase(), columnMapping.get(key));
 		}
+		columnsChanged();
 	}
 }
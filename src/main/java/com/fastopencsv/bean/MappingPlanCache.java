@@ -0,0 +1,143 @@
+package com.fastopencsv.bean;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the compiled setters of a column layout so every {@link CsvToBean}
+ * that meets the same layout again reuses them instead of compiling its own.
+ * A layout is the property of each column, as resolved by a
+ * {@link ColumnResolvingMappingStrategy}, together with the converters
+ * registered on the {@link ConverterRegistry}, so CsvToBeans with registries
+ * of their own share a plan as long as the same converters are registered.
+ * The setters are immutable and their converters thread safe, so
+ * any number of threads can map with them at once. A layout with a column
+ * converted by a PropertyEditor is never cached, as an editor holds the value
+ * it converts; each CsvToBean compiles its own setters for it.
+ * <p>
+ * One cache is shared by the whole process unless a CsvToBean is given its
+ * own. When it holds more layouts than its limit it is emptied and starts
+ * again.
+ */
+public class MappingPlanCache {
+
+	/** The default number of layouts a cache holds. */
+	public static final int DEFAULT_MAX_PLANS = 1024;
+
+	private static final MappingPlanCache SHARED = new MappingPlanCache(
+			DEFAULT_MAX_PLANS);
+
+	private final ConcurrentMap<Key, BeanSetter[]> plans = new ConcurrentHashMap<Key, BeanSetter[]>();
+	private final int maxPlans;
+
+	/**
+	 * The columns and the registered converters a plan was compiled for.
+	 */
+	private static final class Key {
+		private final PropertyDescriptor[] columns;
+		private final Map<Class<?>, Converter<?>> converters;
+		private final int hash;
+
+		Key(PropertyDescriptor[] columns, ConverterRegistry registry) {
+			this.columns = columns;
+			this.converters = registry.getRegistered();
+			this.hash = Arrays.hashCode(columns) * 31 + converters.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return hash == other.hash && Arrays.equals(columns, other.columns)
+					&& converters.equals(other.converters);
+		}
+	}
+
+	/**
+	 * @param maxPlans
+	 *            the number of layouts kept before the cache is emptied
+	 */
+	public MappingPlanCache(int maxPlans) {
+		if (maxPlans < 1) {
+			throw new IllegalArgumentException(
+					"The cache must hold at least one plan");
+		}
+		this.maxPlans = maxPlans;
+	}
+
+	/**
+	 * @return the cache shared by the whole process
+	 */
+	public static MappingPlanCache getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * Returns the setters for the columns, compiling them the first time the
+	 * layout is seen. Two threads meeting a new layout together may both
+	 * compile it; one of the results is kept. Setters with a property editor
+	 * are compiled again on every call.
+	 *
+	 * @param columns
+	 *            the property of each column, null for none
+	 * @param registry
+	 *            where the converters are found
+	 * @return the setter of each column, which must not be changed
+	 */
+	BeanSetter[] setters(PropertyDescriptor[] columns,
+			ConverterRegistry registry) throws IntrospectionException,
+			IllegalAccessException, InstantiationException {
+		Key key = new Key(columns.clone(), registry);
+		BeanSetter[] setters = plans.get(key);
+		if (setters == null) {
+			setters = new BeanSetter[columns.length];
+			boolean shared = true;
+			for (int col = 0; col < columns.length; col++) {
+				if (columns[col] != null) {
+					Converter<?> converter = registry.forProperty(columns[col]);
+					shared &= !(converter instanceof PropertyEditorConverter);
+					setters[col] = new BeanSetter(columns[col], converter);
+				}
+			}
+			if (!shared || registry.getRegistered() != key.converters) {
+				// editors cannot be shared between threads, and a converter
+				// may have been registered while compiling
+				return setters;
+			}
+			if (plans.size() >= maxPlans) {
+				plans.clear();
+			}
+			BeanSetter[] raced = plans.putIfAbsent(key, setters);
+			if (raced != null) {
+				setters = raced;
+			}
+		}
+		return setters;
+	}
+
+	/**
+	 * @return the number of layouts held
+	 */
+	public int size() {
+		return plans.size();
+	}
+
+	/**
+	 * Forgets every layout, for example after the bean classes have been
+	 * reloaded.
+	 */
+	public void clear() {
+		plans.clear();
+	}
+}
@@ -0,0 +1,23 @@
+package com.fastopencsv.bean;
+
+import java.beans.PropertyEditor;
+
+/**
+ * Converts with a PropertyEditor, for the properties that have a custom editor
+ * class or a type no converter is registered for. An editor keeps the value
+ * it was last given, so each column gets its own instance, which must only be
+ * used by one thread. The {@link MappingPlanCache} does not share plans that
+ * contain one.
+ */
+class PropertyEditorConverter implements Converter<Object> {
+	private final PropertyEditor editor;
+
+	PropertyEditorConverter(PropertyEditor editor) {
+		this.editor = editor;
+	}
+
+	public Object convert(String text) {
+		editor.setAsText(text);
+		return editor.getValue();
+	}
+}
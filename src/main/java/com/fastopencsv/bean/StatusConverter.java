@@ -0,0 +1,30 @@
+package com.fastopencsv.bean;
+
+/**
+ * A {@link Converter} that can also report a bad field with a status instead
+ * of an exception. Filling in the stack trace of an exception costs far more
+ * than the conversion itself, which adds up when a feed has many bad fields
+ * and they are collected by a {@link CsvErrorSink} rather than stopping the
+ * parse. The built in converters of {@link ConverterRegistry} for the
+ * primitives, their wrappers, BigDecimal, BigInteger, UUID and enums all
+ * implement it; other converters are called through convert and their
+ * exceptions caught.
+ *
+ * @param <T>
+ *            the type of the values
+ */
+public interface StatusConverter<T> extends Converter<T> {
+
+	/**
+	 * Converts the field without throwing for a bad value.
+	 *
+	 * @param text
+	 *            the field. For properties that are not Strings it has already
+	 *            been trimmed.
+	 * @param result
+	 *            receives the value when the status is OK, and is left as it
+	 *            is otherwise
+	 * @return OK, or why the field is not a valid value
+	 */
+	ConversionStatus tryConvert(String text, ConversionResult result);
+}
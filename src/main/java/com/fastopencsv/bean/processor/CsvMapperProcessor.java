@@ -0,0 +1,444 @@
+package com.fastopencsv.bean.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import com.fastopencsv.bean.CsvColumn;
+import com.fastopencsv.bean.CsvRecord;
+
+/**
+ * Generates a mapper class for every type annotated with {@link CsvRecord}.
+ * For a bean Order it writes OrderCsvMapper in the same package, with
+ * <ul>
+ * <li>HEADER, the column names in order;</li>
+ * <li>read(String[] row), which creates a bean and sets each column of the
+ * row, matched by position to HEADER, through its setter;</li>
+ * <li>write(Order bean), which returns the fields of the bean in the same
+ * order.</li>
+ * </ul>
+ * The generated code calls the constructor, setters and getters directly and
+ * parses the values with the JDK parse methods, so it needs no reflection,
+ * Introspector or PropertyEditor at run time. The column types can be String,
+ * the primitives and their wrappers, BigDecimal, BigInteger and enums. Booleans
+ * and chars are as strict as the converters of ConverterRegistry. A nested
+ * type must be static, and neither it nor the types around it private.
+ * <p>
+ * The processor is not registered as a service, so it only runs when it is
+ * asked for, with javac -processor
+ * com.fastopencsv.bean.processor.CsvMapperProcessor or the annotation
+ * processor settings of the build.
+ */
+@SupportedAnnotationTypes("com.fastopencsv.bean.CsvRecord")
+public class CsvMapperProcessor extends AbstractProcessor {
+
+	/**
+	 * A field annotated with CsvColumn.
+	 */
+	private static class Column {
+		String name;
+		int position;
+		TypeMirror type;
+		String setter;
+		String getter;
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations,
+			RoundEnvironment roundEnv) {
+		for (Element element : roundEnv
+				.getElementsAnnotatedWith(CsvRecord.class)) {
+			if (element.getKind() != ElementKind.CLASS) {
+				error(element, "@CsvRecord can only be put on a class");
+				continue;
+			}
+			TypeElement type = (TypeElement) element;
+			List<Column> columns = findColumns(type);
+			if (columns != null) {
+				generate(type, columns);
+			}
+		}
+		return true;
+	}
+
+	private List<Column> findColumns(TypeElement type) {
+		String inaccessible = findInaccessible(type);
+		if (inaccessible != null) {
+			error(type, inaccessible);
+			return null;
+		}
+		if (!hasPublicNoArgConstructor(type)) {
+			error(type, type + " needs a public constructor without arguments");
+			return null;
+		}
+		List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv
+				.getElementUtils().getAllMembers(type));
+		List<Column> columns = new ArrayList<Column>();
+		boolean valid = true;
+		for (VariableElement field : ElementFilter.fieldsIn(type
+				.getEnclosedElements())) {
+			CsvColumn annotation = field.getAnnotation(CsvColumn.class);
+			if (annotation == null) {
+				continue;
+			}
+			Column column = new Column();
+			String fieldName = field.getSimpleName().toString();
+			column.name = annotation.name().isEmpty() ? fieldName : annotation
+					.name();
+			column.position = annotation.position();
+			column.type = field.asType();
+			String property = Character.toUpperCase(fieldName.charAt(0))
+					+ fieldName.substring(1);
+			column.setter = findMethod(methods, "set" + property, 1);
+			column.getter = findMethod(methods, "get" + property, 0);
+			if (column.getter == null
+					&& column.type.getKind() == TypeKind.BOOLEAN) {
+				column.getter = findMethod(methods, "is" + property, 0);
+			}
+			if (column.setter == null || column.getter == null) {
+				error(field, fieldName + " needs a public getter and setter");
+				valid = false;
+			} else if (parseExpression(column.type, "v") == null) {
+				error(field, "Columns of type " + column.type
+						+ " are not supported");
+				valid = false;
+			}
+			columns.add(column);
+		}
+		if (!valid) {
+			return null;
+		}
+		return order(type, columns);
+	}
+
+	/*
+	 * The mapper is generated into the package of the type and creates it with
+	 * new, so the type and the types around it must not be private, and a
+	 * nested type must be static.
+	 */
+	private static String findInaccessible(TypeElement type) {
+		if (type.getNestingKind() == NestingKind.LOCAL
+				|| type.getNestingKind() == NestingKind.ANONYMOUS) {
+			return "@CsvRecord cannot be put on a local class";
+		}
+		for (Element e = type; e instanceof TypeElement; e = e
+				.getEnclosingElement()) {
+			TypeElement enclosing = (TypeElement) e;
+			if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+				return enclosing + " must not be private to be mapped";
+			} else if (enclosing.getNestingKind() == NestingKind.MEMBER
+					&& enclosing.getKind() == ElementKind.CLASS
+					&& !enclosing.getModifiers().contains(Modifier.STATIC)) {
+				return enclosing + " must be static to be mapped";
+			}
+		}
+		return null;
+	}
+
+	private boolean hasPublicNoArgConstructor(TypeElement type) {
+		if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+			return false;
+		}
+		for (ExecutableElement constructor : ElementFilter
+				.constructorsIn(type.getEnclosedElements())) {
+			if (constructor.getParameters().isEmpty()
+					&& constructor.getModifiers().contains(Modifier.PUBLIC)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String findMethod(List<ExecutableElement> methods,
+			String name, int parameters) {
+		for (ExecutableElement method : methods) {
+			if (method.getSimpleName().contentEquals(name)
+					&& method.getParameters().size() == parameters
+					&& method.getModifiers().contains(Modifier.PUBLIC)
+					&& !method.getModifiers().contains(Modifier.STATIC)) {
+				return name;
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * Columns with a position come first, in position order, then the rest in
+	 * field order. The sort is stable.
+	 */
+	private List<Column> order(TypeElement type, List<Column> columns) {
+		List<Column> ordered = new ArrayList<Column>(columns);
+		Collections.sort(ordered, new Comparator<Column>() {
+			public int compare(Column a, Column b) {
+				long left = a.position < 0 ? Integer.MAX_VALUE + 1L
+						: a.position;
+				long right = b.position < 0 ? Integer.MAX_VALUE + 1L
+						: b.position;
+				return left < right ? -1 : left == right ? 0 : 1;
+			}
+		});
+		for (int i = 0; i < ordered.size(); i++) {
+			int position = ordered.get(i).position;
+			if (position >= 0 && position != i) {
+				error(type, "Column " + ordered.get(i).name + " of " + type
+						+ " cannot be at position " + position
+						+ ", the positions must run 0, 1, 2 without gaps");
+				return null;
+			}
+		}
+		return ordered;
+	}
+
+	/**
+	 * @return the Java expression that converts the trimmed text in the
+	 *         variable to the type, or null if the type is not supported
+	 */
+	private String parseExpression(TypeMirror type, String v) {
+		switch (type.getKind()) {
+		case INT:
+			return "Integer.parseInt(" + v + ")";
+		case LONG:
+			return "Long.parseLong(" + v + ")";
+		case SHORT:
+			return "Short.parseShort(" + v + ")";
+		case BYTE:
+			return "Byte.parseByte(" + v + ")";
+		case DOUBLE:
+			return "Double.parseDouble(" + v + ")";
+		case FLOAT:
+			return "Float.parseFloat(" + v + ")";
+		case BOOLEAN:
+			return "toBoolean(" + v + ")";
+		case CHAR:
+			return "toChar(" + v + ")";
+		case DECLARED:
+			break;
+		default:
+			return null;
+		}
+		String name = type.toString();
+		String parse;
+		if (name.equals("java.lang.String")) {
+			return v;
+		} else if (name.equals("java.lang.Integer")) {
+			parse = "Integer.valueOf(" + v + ")";
+		} else if (name.equals("java.lang.Long")) {
+			parse = "Long.valueOf(" + v + ")";
+		} else if (name.equals("java.lang.Short")) {
+			parse = "Short.valueOf(" + v + ")";
+		} else if (name.equals("java.lang.Byte")) {
+			parse = "Byte.valueOf(" + v + ")";
+		} else if (name.equals("java.lang.Double")) {
+			parse = "Double.valueOf(" + v + ")";
+		} else if (name.equals("java.lang.Float")) {
+			parse = "Float.valueOf(" + v + ")";
+		} else if (name.equals("java.lang.Boolean")) {
+			parse = "Boolean.valueOf(toBoolean(" + v + "))";
+		} else if (name.equals("java.lang.Character")) {
+			parse = "Character.valueOf(toChar(" + v + "))";
+		} else if (name.equals("java.math.BigDecimal")
+				|| name.equals("java.math.BigInteger")) {
+			parse = "new " + name + "(" + v + ")";
+		} else if (isEnum(type)) {
+			parse = name + ".valueOf(" + v + ")";
+		} else {
+			return null;
+		}
+		return v + ".isEmpty() ? null : " + parse;
+	}
+
+	private static boolean isBoolean(TypeMirror type) {
+		return type.getKind() == TypeKind.BOOLEAN
+				|| type.toString().equals("java.lang.Boolean");
+	}
+
+	private static boolean isCharacter(TypeMirror type) {
+		return type.getKind() == TypeKind.CHAR
+				|| type.toString().equals("java.lang.Character");
+	}
+
+	private static boolean isEnum(TypeMirror type) {
+		return ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM;
+	}
+
+	private void generate(TypeElement type, List<Column> columns) {
+		PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+		String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName()
+				.toString();
+		String beanName = type.getQualifiedName().toString();
+		String simpleName = beanName.substring(packageName.isEmpty() ? 0
+				: packageName.length() + 1).replace('.', '_');
+		String mapperName = simpleName + "CsvMapper";
+		String qualifiedName = packageName.isEmpty() ? mapperName
+				: packageName + "." + mapperName;
+		try {
+			PrintWriter out = new PrintWriter(processingEnv.getFiler()
+					.createSourceFile(qualifiedName, type).openWriter());
+			try {
+				writeMapper(out, packageName, mapperName, beanName, columns);
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			error(type, "Unable to write " + qualifiedName + ": "
+					+ e.getMessage());
+		}
+	}
+
+	private void writeMapper(PrintWriter out, String packageName,
+			String mapperName, String beanName, List<Column> columns) {
+		if (!packageName.isEmpty()) {
+			out.println("package " + packageName + ";");
+			out.println();
+		}
+		out.println("/**");
+		out.println(" * Reads and writes " + beanName
+				+ " rows. Generated by CsvMapperProcessor.");
+		out.println(" */");
+		out.println("public final class " + mapperName + " {");
+		out.println();
+		out.print("\tpublic static final String[] HEADER = {");
+		for (int i = 0; i < columns.size(); i++) {
+			out.print((i == 0 ? " " : ", ") + quote(columns.get(i).name));
+		}
+		out.println(" };");
+		out.println();
+		out.println("\tprivate " + mapperName + "() {");
+		out.println("\t}");
+		out.println();
+
+		// booleans are as strict as in ConverterRegistry
+		for (Column column : columns) {
+			if (isBoolean(column.type)) {
+				out.println("\tprivate static boolean toBoolean(String v) {");
+				out.println("\t\tif (\"true\".equalsIgnoreCase(v)) {");
+				out.println("\t\t\treturn true;");
+				out.println("\t\t} else if (\"false\".equalsIgnoreCase(v)) {");
+				out.println("\t\t\treturn false;");
+				out.println("\t\t}");
+				out.println("\t\tthrow new IllegalArgumentException("
+						+ "\"Not a boolean: \" + v);");
+				out.println("\t}");
+				out.println();
+				break;
+			}
+		}
+
+		// a char field must be a single character, as in ConverterRegistry
+		for (Column column : columns) {
+			if (isCharacter(column.type)) {
+				out.println("\tprivate static char toChar(String v) {");
+				out.println("\t\tif (v.length() != 1) {");
+				out.println("\t\t\tthrow new IllegalArgumentException("
+						+ "\"Not a single character: \" + v);");
+				out.println("\t\t}");
+				out.println("\t\treturn v.charAt(0);");
+				out.println("\t}");
+				out.println();
+				break;
+			}
+		}
+
+		out.println("\tpublic static " + beanName + " read(String[] row) {");
+		out.println("\t\t" + beanName + " bean = new " + beanName + "();");
+		for (int i = 0; i < columns.size(); i++) {
+			Column column = columns.get(i);
+			boolean string = column.type.toString().equals("java.lang.String");
+			out.println("\t\tif (row.length > " + i + ") {");
+			if (string) {
+				out.println("\t\t\tbean." + column.setter + "(row[" + i + "]);");
+			} else {
+				out.println("\t\t\tString v = row[" + i + "].trim();");
+				out.println("\t\t\tbean." + column.setter + "("
+						+ parseExpression(column.type, "v") + ");");
+			}
+			out.println("\t\t}");
+		}
+		out.println("\t\treturn bean;");
+		out.println("\t}");
+		out.println();
+
+		out.println("\tpublic static String[] write(" + beanName + " bean) {");
+		out.println("\t\tString[] row = new String[" + columns.size() + "];");
+		for (int i = 0; i < columns.size(); i++) {
+			Column column = columns.get(i);
+			String value = "bean." + column.getter + "()";
+			if (column.type.getKind().isPrimitive()) {
+				out.println("\t\trow[" + i + "] = String.valueOf(" + value
+						+ ");");
+			} else if (column.type.toString().equals("java.lang.String")) {
+				out.println("\t\trow[" + i + "] = " + value + ";");
+			} else {
+				String text = isEnum(column.type) ? "name()" : "toString()";
+				out.println("\t\t{");
+				out.println("\t\t\t" + column.type + " v = " + value + ";");
+				out.println("\t\t\trow[" + i + "] = v == null ? null : v."
+						+ text + ";");
+				out.println("\t\t}");
+			}
+		}
+		out.println("\t\treturn row;");
+		out.println("\t}");
+		out.println("}");
+	}
+
+	/*
+	 * Control characters get escape sequences rather than unicode escapes.
+	 * javac replaces unicode escapes before it reads the literal, so an
+	 * escaped line feed would end the line in the middle of the string.
+	 */
+	private static String quote(String s) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c == '\n') {
+				sb.append("\\n");
+			} else if (c == '\r') {
+				sb.append("\\r");
+			} else if (c == '\t') {
+				sb.append("\\t");
+			} else if (c < 0x20) {
+				sb.append(String.format("\\%03o", (int) c));
+			} else if (c > 0x7e) {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+				message, element);
+	}
+}
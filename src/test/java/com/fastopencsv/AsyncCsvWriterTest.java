@@ -0,0 +1,191 @@
+package com.fastopencsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AsyncCsvWriterTest {
+
+    /**
+     * A writer that holds up the background thread until it is released.
+     */
+    private static class GateWriter extends StringWriter {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.write(cbuf, off, len);
+        }
+    }
+
+    @Test
+    public void writesRowsFromManyThreads() throws Exception {
+        StringWriter sw = new StringWriter();
+        final AsyncCsvWriter writer = new AsyncCsvWriter(new CSVWriter(sw), 16, AsyncCsvWriter.OverflowPolicy.BLOCK);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < 500; i++) {
+                            writer.writeNext(new String[]{Integer.toString(id), Integer.toString(i)});
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.close();
+
+        String[] lines = sw.toString().split("\n");
+        assertEquals(2000, lines.length);
+        assertEquals(2000, new HashSet<String>(Arrays.asList(lines)).size());
+        assertEquals(2000, writer.getWrittenRows());
+        assertEquals(0, writer.getDroppedRows());
+    }
+
+    @Test
+    public void flushFutureCompletesOnceRowsAreWritten() throws Exception {
+        StringWriter sw = new StringWriter();
+        AsyncCsvWriter writer = new AsyncCsvWriter(new CSVWriter(sw));
+        writer.setFlushIntervalMillis(60000);
+        writer.writeNext(new String[]{"a", "b"});
+        Future<Void> flushed = writer.flush();
+        flushed.get(5, TimeUnit.SECONDS);
+
+        assertEquals("\"a\",\"b\"\n", sw.toString());
+        writer.close();
+    }
+
+    @Test
+    public void flushesAfterTheInterval() throws Exception {
+        StringWriter sw = new StringWriter();
+        AsyncCsvWriter writer = new AsyncCsvWriter(new CSVWriter(sw));
+        writer.setFlushIntervalMillis(10);
+        writer.writeNext(new String[]{"x"});
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sw.toString().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("\"x\"\n", sw.toString());
+        writer.close();
+    }
+
+    @Test
+    public void flushesWhenTheQueueRunsDry() throws Exception {
+        final CountDownLatch flushed = new CountDownLatch(1);
+        StringWriter sw = new StringWriter() {
+            @Override
+            public void flush() {
+                flushed.countDown();
+            }
+        };
+        AsyncCsvWriter writer = new AsyncCsvWriter(new CSVWriter(sw));
+        writer.setFlushIntervalMillis(60000);
+        writer.writeNext(new String[]{"x"});
+
+        assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        writer.close();
+    }
+
+    @Test(timeout = 10000)
+    public void keepsTakingRowsAfterTheWriterThrows() throws Exception {
+        CSVWriter throwing = new CSVWriter(new StringWriter()) {
+            @Override
+            public void writeNext(String[] nextLine) {
+                throw new IllegalStateException("broken");
+            }
+        };
+        AsyncCsvWriter writer = new AsyncCsvWriter(throwing, 1, AsyncCsvWriter.OverflowPolicy.BLOCK);
+        for (int i = 0; i < 100; i++) {
+            writer.writeNext(new String[]{Integer.toString(i)});
+        }
+        try {
+            writer.close();
+            fail("The close should have failed");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(0, writer.getWrittenRows());
+    }
+
+    @Test
+    public void dropsRowsWhenTheQueueIsFull() throws Exception {
+        GateWriter gate = new GateWriter();
+        AsyncCsvWriter writer = new AsyncCsvWriter(new CSVWriter(gate), 2, AsyncCsvWriter.OverflowPolicy.DROP);
+        writer.setFlushRows(1);
+        assertTrue(writer.writeNext(new String[]{"first"}));
+        assertTrue(gate.entered.await(5, TimeUnit.SECONDS));
+
+        assertTrue(writer.writeNext(new String[]{"2"}));
+        assertTrue(writer.writeNext(new String[]{"3"}));
+        assertFalse(writer.writeNext(new String[]{"4"}));
+        assertEquals(1, writer.getDroppedRows());
+
+        gate.release.countDown();
+        writer.close();
+        assertEquals("\"first\"\n\"2\"\n\"3\"\n", gate.toString());
+    }
+
+    @Test
+    public void reportsWriteFailures() throws Exception {
+        Writer failing = new Writer() {
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            public void flush() {
+            }
+
+            public void close() {
+            }
+        };
+        AsyncCsvWriter writer = new AsyncCsvWriter(new CSVWriter(failing));
+        writer.writeNext(new String[]{"a"});
+        try {
+            writer.flush().get(5, TimeUnit.SECONDS);
+            fail("The flush should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        try {
+            writer.close();
+            fail("The close should have failed");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsRowsAfterClose() throws IOException {
+        AsyncCsvWriter writer = new AsyncCsvWriter(new CSVWriter(new StringWriter()));
+        writer.close();
+        writer.writeNext(new String[]{"late"});
+    }
+}
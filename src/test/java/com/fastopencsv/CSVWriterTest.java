@@ -424,4 +424,87 @@ public class CSVWriterTest {
         assertNotNull(result);
         assertEquals("\"v1\",\"v2\",\"v3\"\n\"v1\",\"v2\",\"v3\"\n\"v1\",\"v2\",\"v3\"\n", result);
     }
+
+    private String invokePolicyWriter(QuotePolicy policy, String[] args) {
+        StringWriter sw = new StringWriter();
+        CSVWriter csvw = new CSVWriter(sw);
+        csvw.setQuotePolicy(policy);
+        csvw.writeNext(args);
+        return sw.toString();
+    }
+
+    private static final String[] POLICY_ROW = {"plain", "42", "-1.5e3", "a,b", "say \"hi\"", "two\nlines", "", null, "1.2.3"};
+
+    @Test
+    public void quotePolicyAlwaysIsTheDefault() {
+        assertEquals("\"plain\",\"42\",\"-1.5e3\",\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",\"\",,\"1.2.3\"\n",
+                invokePolicyWriter(QuotePolicy.ALWAYS, POLICY_ROW));
+    }
+
+    @Test
+    public void quotePolicyMinimalQuotesOnlySpecialFields() {
+        assertEquals("plain,42,-1.5e3,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",,,1.2.3\n",
+                invokePolicyWriter(QuotePolicy.MINIMAL, POLICY_ROW));
+    }
+
+    @Test
+    public void quotePolicyNonNumericLeavesNumbersBare() {
+        assertEquals("\"plain\",42,-1.5e3,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",\"\",,\"1.2.3\"\n",
+                invokePolicyWriter(QuotePolicy.NON_NUMERIC, POLICY_ROW));
+    }
+
+    @Test
+    public void quotePolicyNeverStillEscapes() {
+        assertEquals("plain,42,-1.5e3,a,b,say \"\"hi\"\",two\nlines,,,1.2.3\n",
+                invokePolicyWriter(QuotePolicy.NEVER, POLICY_ROW));
+    }
+
+    @Test
+    public void quotePolicyNonNumericQuotesNumbersContainingTheSeparator() {
+        StringWriter sw = new StringWriter();
+        CSVWriter csvw = new CSVWriter(sw, '.');
+        csvw.setQuotePolicy(QuotePolicy.NON_NUMERIC);
+        csvw.writeNext(new String[]{"1.5", "15"});
+        assertEquals("\"1.5\".15\n", sw.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quotePolicyCannotBeNull() {
+        new CSVWriter(new StringWriter()).setQuotePolicy(null);
+    }
+
+    @Test
+    public void appendBuildsTheSameRowAsWriteNext() {
+        StringWriter expected = new StringWriter();
+        CSVWriter expectedWriter = new CSVWriter(expected);
+        expectedWriter.writeNext(new String[]{"7", Long.toString(Long.MIN_VALUE), "-0.25", "1.0E10", "NaN", "say \"hi\"", null});
+
+        StringWriter sw = new StringWriter();
+        CSVWriter csvw = new CSVWriter(sw);
+        csvw.append(7).append(Long.MIN_VALUE).append(-0.25).append(1e10).append(Double.NaN)
+                .append("say \"hi\"").append((CharSequence) null).endRow();
+
+        assertEquals(expected.toString(), sw.toString());
+    }
+
+    @Test
+    public void appendFollowsTheQuotePolicy() {
+        StringWriter sw = new StringWriter();
+        CSVWriter csvw = new CSVWriter(sw);
+        csvw.setQuotePolicy(QuotePolicy.NON_NUMERIC);
+        csvw.append(1).append(2.5).append(Double.POSITIVE_INFINITY).append("x").endRow();
+        csvw.append(-3L).endRow();
+
+        assertEquals("1,2.5,\"Infinity\",\"x\"\n-3\n", sw.toString());
+    }
+
+    @Test
+    public void appendChecksNumbersAgainstUnusualSeparators() {
+        StringWriter sw = new StringWriter();
+        CSVWriter csvw = new CSVWriter(sw, '.', CSVWriter.DEFAULT_QUOTE_CHARACTER);
+        csvw.setQuotePolicy(QuotePolicy.MINIMAL);
+        csvw.append(1.5).append(15).endRow();
+
+        assertEquals("\"1.5\".15\n", sw.toString());
+    }
 }
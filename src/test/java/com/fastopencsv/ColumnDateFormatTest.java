@@ -0,0 +1,66 @@
+package com.fastopencsv;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class ColumnDateFormatTest {
+
+    private static final String[] PATTERNS = {
+            "dd-MMM-yyyy", "dd-MMM-yyyy HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss.SSS",
+            "d/M/yy", "MMMM d, yyyy", "'at' HH 'o''clock'", "yyyyMMdd", "EEE dd MMM yyyy"
+    };
+
+    @Test
+    public void matchesSimpleDateFormat() {
+        TimeZone zone = TimeZone.getTimeZone("America/New_York");
+        Date[] dates = {
+                new Timestamp(109, 11, 15, 12, 0, 0, 0),
+                new Timestamp(100, 0, 1, 0, 0, 0, 7000000),
+                new Timestamp(123, 6, 4, 23, 59, 59, 999000000),
+                new Date(0)
+        };
+        for (String pattern : PATTERNS) {
+            SimpleDateFormat expected = new SimpleDateFormat(pattern, Locale.US);
+            expected.setTimeZone(zone);
+            ColumnDateFormat format = new ColumnDateFormat(pattern, Locale.US, zone);
+            for (Date date : dates) {
+                assertEquals(pattern, expected.format(date), format.format(date));
+            }
+        }
+    }
+
+    @Test
+    public void matchesSimpleDateFormatForOtherCalendarsAndDigits() {
+        TimeZone zone = TimeZone.getTimeZone("UTC");
+        Date date = new Timestamp(123, 6, 4, 23, 59, 59, 999000000);
+        Locale[] locales = {
+                new Locale("th", "TH"), new Locale("ja", "JP", "JP"), new Locale("th", "TH", "TH")
+        };
+        for (Locale locale : locales) {
+            SimpleDateFormat expected = new SimpleDateFormat("yyyy-MM-dd HH:mm", locale);
+            expected.setTimeZone(zone);
+            ColumnDateFormat format = new ColumnDateFormat("yyyy-MM-dd HH:mm", locale, zone);
+            assertEquals(locale.toString(), expected.format(date), format.format(date));
+        }
+    }
+
+    @Test
+    public void appendsToTheBuffer() {
+        ColumnDateFormat format = new ColumnDateFormat("yyyy-MM-dd", Locale.US, TimeZone.getTimeZone("UTC"));
+        StringBuilder sb = new StringBuilder("x=");
+        format.format(new Date(0), sb);
+        assertEquals("x=1970-01-01", sb.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnInvalidPattern() {
+        new ColumnDateFormat("yyyy-qq");
+    }
+}
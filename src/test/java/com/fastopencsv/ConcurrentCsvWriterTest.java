@@ -0,0 +1,173 @@
+package com.fastopencsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class ConcurrentCsvWriterTest {
+
+    private static void runThreads(int count, final ThreadBody body) throws Exception {
+        final List<Exception> failures = Collections.synchronizedList(new ArrayList<Exception>());
+        Thread[] threads = new Thread[count];
+        for (int t = 0; t < count; t++) {
+            final int id = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        body.run(id);
+                    } catch (Exception e) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    private interface ThreadBody {
+        void run(int id) throws Exception;
+    }
+
+    @Test
+    public void keepsEveryRowAndTheOrderWithinAThread() throws Exception {
+        StringWriter sw = new StringWriter();
+        final ConcurrentCsvWriter writer = new ConcurrentCsvWriter(sw, 100);
+        runThreads(4, new ThreadBody() {
+            public void run(int id) throws IOException {
+                for (int i = 0; i < 1000; i++) {
+                    writer.writeNext(new String[]{Integer.toString(id), Integer.toString(i)});
+                }
+            }
+        });
+        writer.close();
+
+        String[] lines = sw.toString().split("\n");
+        assertEquals(4000, lines.length);
+        assertEquals(4000, new HashSet<String>(Arrays.asList(lines)).size());
+        int[] last = {-1, -1, -1, -1};
+        for (String line : lines) {
+            String[] fields = line.replace("\"", "").split(",");
+            int id = Integer.parseInt(fields[0]);
+            int i = Integer.parseInt(fields[1]);
+            assertEquals(last[id] + 1, i);
+            last[id] = i;
+        }
+    }
+
+    @Test
+    public void writesBlocksInSequenceOrder() throws Exception {
+        StringWriter sw = new StringWriter();
+        final ConcurrentCsvWriter writer = new ConcurrentCsvWriter(sw);
+        final AtomicLong sequence = new AtomicLong();
+        runThreads(4, new ThreadBody() {
+            public void run(int id) throws IOException {
+                long block;
+                while ((block = sequence.getAndIncrement()) < 200) {
+                    List<String[]> rows = new ArrayList<String[]>();
+                    for (int i = 0; i < 3; i++) {
+                        rows.add(new String[]{Long.toString(block * 3 + i)});
+                    }
+                    writer.writeBlock(block, rows);
+                }
+            }
+        });
+        writer.close();
+
+        String[] lines = sw.toString().split("\n");
+        assertEquals(600, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals("\"" + i + "\"", lines[i]);
+        }
+    }
+
+    @Test
+    public void flushCopiesTheBufferedRows() throws Exception {
+        StringWriter sw = new StringWriter();
+        ConcurrentCsvWriter writer = new ConcurrentCsvWriter(sw);
+        writer.writeNext(new String[]{"a"});
+        assertEquals("", sw.toString());
+        writer.flush();
+        assertEquals("\"a\"\n", sw.toString());
+    }
+
+    @Test
+    public void createWriterChangesTheFormat() throws Exception {
+        StringWriter sw = new StringWriter();
+        ConcurrentCsvWriter writer = new ConcurrentCsvWriter(sw) {
+            @Override
+            protected CSVWriter createWriter(Writer chars) {
+                return new CSVWriter(chars, ';', CSVWriter.NO_QUOTE_CHARACTER);
+            }
+        };
+        writer.writeBlock(0, Collections.singletonList(new String[]{"a", "b"}));
+        writer.close();
+        assertEquals("a;b\n", sw.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsASequenceThatWasAlreadyWritten() throws Exception {
+        ConcurrentCsvWriter writer = new ConcurrentCsvWriter(new StringWriter());
+        writer.writeBlock(0, Collections.<String[]>emptyList());
+        writer.writeBlock(0, Collections.<String[]>emptyList());
+    }
+
+    private static Thread startBlock(final ConcurrentCsvWriter writer, final long sequence,
+            final List<Exception> failures) throws InterruptedException {
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    writer.writeBlock(sequence, Collections.singletonList(new String[]{"x"}));
+                } catch (Exception e) {
+                    failures.add(e);
+                }
+            }
+        });
+        thread.start();
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        return thread;
+    }
+
+    @Test
+    public void failsTheWaitingBlocksWhenOneIsInterrupted() throws Exception {
+        ConcurrentCsvWriter writer = new ConcurrentCsvWriter(new StringWriter());
+        List<Exception> interruptedFailures = Collections.synchronizedList(new ArrayList<Exception>());
+        List<Exception> waitingFailures = Collections.synchronizedList(new ArrayList<Exception>());
+        Thread interrupted = startBlock(writer, 1, interruptedFailures);
+        Thread waiting = startBlock(writer, 2, waitingFailures);
+
+        interrupted.interrupt();
+        interrupted.join(5000);
+        waiting.join(5000);
+
+        assertFalse(waiting.isAlive());
+        assertTrue(interruptedFailures.get(0) instanceof InterruptedIOException);
+        assertSame(interruptedFailures.get(0), waitingFailures.get(0).getCause());
+        try {
+            writer.writeBlock(0, Collections.<String[]>emptyList());
+            fail("expected the writer to have failed");
+        } catch (IOException e) {
+            assertSame(interruptedFailures.get(0), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.fastopencsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CsvBatchIngestTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File createFile(String name, int rows) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        FileWriter writer = new FileWriter(file);
+        try {
+            for (int i = 0; i < rows; i++) {
+                writer.write(i + ",value" + i + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    private static final CsvBatchIngest.FileHandler<Integer> ROW_COUNTER = new CsvBatchIngest.FileHandler<Integer>() {
+        public Integer process(File file, AbstractCsvReader reader) throws Exception {
+            return reader.readAll().size();
+        }
+    };
+
+    @Test
+    public void processesEveryFileInADirectory() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            createFile("file" + (char) ('a' + i) + ".csv", i + 1);
+        }
+        CsvBatchIngest ingest = new CsvBatchIngest();
+
+        List<CsvBatchIngest.FileResult<Integer>> results = ingest.process(folder.getRoot(), ROW_COUNTER);
+
+        assertEquals(20, results.size());
+        for (int i = 0; i < 20; i++) {
+            CsvBatchIngest.FileResult<Integer> result = results.get(i);
+            assertTrue(result.isSuccessful());
+            assertEquals("file" + (char) ('a' + i) + ".csv", result.getFile().getName());
+            assertEquals(Integer.valueOf(i + 1), result.getValue());
+        }
+    }
+
+    @Test
+    public void keepsFailuresPerFile() throws IOException {
+        File good = createFile("good.csv", 3);
+        File missing = new File(folder.getRoot(), "missing.csv");
+        CsvBatchIngest ingest = new CsvBatchIngest();
+
+        List<CsvBatchIngest.FileResult<Integer>> results = ingest.process(Arrays.asList(good, missing), ROW_COUNTER);
+
+        assertTrue(results.get(0).isSuccessful());
+        assertEquals(Integer.valueOf(3), results.get(0).getValue());
+        assertFalse(results.get(1).isSuccessful());
+        assertNull(results.get(1).getValue());
+        assertTrue(results.get(1).getError() instanceof IOException);
+    }
+
+    @Test
+    public void neverOpensMoreFilesThanAllowed() throws IOException {
+        for (int i = 0; i < 30; i++) {
+            createFile("file" + i + ".csv", 10);
+        }
+        final AtomicInteger open = new AtomicInteger();
+        final AtomicInteger mostOpen = new AtomicInteger();
+        CsvBatchIngest ingest = new CsvBatchIngest();
+        ingest.setMaxOpenFiles(3);
+        ingest.setPlatformThreads(8);
+
+        List<CsvBatchIngest.FileResult<Integer>> results = ingest.process(folder.getRoot(),
+                new CsvBatchIngest.FileHandler<Integer>() {
+                    public Integer process(File file, AbstractCsvReader reader) throws Exception {
+                        int now = open.incrementAndGet();
+                        synchronized (mostOpen) {
+                            mostOpen.set(Math.max(mostOpen.get(), now));
+                        }
+                        Thread.sleep(5);
+                        open.decrementAndGet();
+                        return reader.readAll().size();
+                    }
+                });
+
+        assertEquals(30, results.size());
+        assertTrue(mostOpen.get() <= 3);
+    }
+
+    @Test
+    public void countsTheReaderBuffersOfSmallFiles() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            createFile("file" + i + ".csv", 2);
+        }
+        final AtomicInteger open = new AtomicInteger();
+        final AtomicInteger mostOpen = new AtomicInteger();
+        CsvBatchIngest ingest = new CsvBatchIngest();
+        ingest.setPlatformThreads(8);
+        // room for the buffers of two readers, not three
+        ingest.setMaxInFlightBytes(5L * AbstractCsvReader.DEFAULT_BUFFER_SIZE / 2);
+
+        List<CsvBatchIngest.FileResult<Integer>> results = ingest.process(folder.getRoot(),
+                new CsvBatchIngest.FileHandler<Integer>() {
+                    public Integer process(File file, AbstractCsvReader reader) throws Exception {
+                        int now = open.incrementAndGet();
+                        synchronized (mostOpen) {
+                            mostOpen.set(Math.max(mostOpen.get(), now));
+                        }
+                        Thread.sleep(5);
+                        open.decrementAndGet();
+                        return reader.readAll().size();
+                    }
+                });
+
+        assertEquals(10, results.size());
+        assertTrue(results.get(9).isSuccessful());
+        assertTrue(mostOpen.get() <= 2);
+    }
+}
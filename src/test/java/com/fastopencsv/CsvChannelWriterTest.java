@@ -0,0 +1,124 @@
+package com.fastopencsv;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CsvChannelWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<String[]> sampleRows() {
+        List<String[]> rows = new ArrayList<String[]>();
+        rows.add(new String[]{"plain", "with \"quotes\"", null, ""});
+        rows.add(new String[]{"caf\u00e9", "\u20ac 5", "\ud83d\ude00 smile", "lone \ud83d surrogate"});
+        rows.add(new String[]{"a,b", "line\nbreak", "back\\slash"});
+        return rows;
+    }
+
+    private static String expected(List<String[]> rows, char separator, char quotechar, char escapechar,
+                                   String lineEnd) {
+        StringWriter sw = new StringWriter();
+        CSVWriter writer = new CSVWriter(sw, separator, quotechar, escapechar, lineEnd);
+        writer.writeAll(rows);
+        return sw.toString();
+    }
+
+    @Test
+    public void writesTheSameTextAsCSVWriter() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvChannelWriter writer = new CsvChannelWriter(Channels.newChannel(out));
+        writer.writeAll(sampleRows());
+        writer.close();
+
+        String text = expected(sampleRows(), ',', '"', '"', "\n");
+        assertEquals(text.replace('\ud83d' + " surrogate", "? surrogate"),
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void encodesLikeStringGetBytes() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvChannelWriter writer = new CsvChannelWriter(Channels.newChannel(out));
+        writer.writeAll(sampleRows());
+        writer.close();
+
+        byte[] expected = expected(sampleRows(), ',', '"', '"', "\n").getBytes(StandardCharsets.UTF_8);
+        assertEquals(new String(expected, StandardCharsets.ISO_8859_1),
+                new String(out.toByteArray(), StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void handlesFieldsLargerThanTheBuffer() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i % 7 == 0 ? '\'' : i % 5 == 0 ? '\u00e9' : 'x');
+        }
+        List<String[]> rows = new ArrayList<String[]>();
+        for (int i = 0; i < 20; i++) {
+            rows.add(new String[]{sb.toString(), Integer.toString(i)});
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvChannelWriter writer = new CsvChannelWriter(Channels.newChannel(out), ';', '\'', '\\', "\r\n", 64);
+        writer.writeAll(rows);
+        writer.flush();
+
+        assertEquals(expected(rows, ';', '\'', '\\', "\r\n"), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writesAResultSetToAFile() throws IOException, SQLException {
+        MockResultSet resultSet = new MockResultSet();
+        MockResultSetMetaData metaData = new MockResultSetMetaData();
+        metaData.setColumnNames(new String[]{"id", "name"});
+        metaData.setColumnTypes(new int[]{Types.INTEGER, Types.VARCHAR});
+        resultSet.setMetaData(metaData);
+        resultSet.setColumnValues(new String[]{"1", "na\u00efve"});
+        resultSet.setNumberOfResults(2);
+
+        File file = folder.newFile("out.csv");
+        CsvChannelWriter writer = CsvChannelWriter.open(file);
+        writer.writeAll(resultSet, true);
+        writer.close();
+
+        assertEquals("\"id\",\"name\"\n\"1\",\"na\u00efve\"\n\"1\",\"na\u00efve\"\n",
+                new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void quotesLikeCSVWriterUnderEveryPolicy() throws IOException {
+        for (QuotePolicy policy : QuotePolicy.values()) {
+            StringWriter sw = new StringWriter();
+            CSVWriter expected = new CSVWriter(sw);
+            expected.setQuotePolicy(policy);
+            expected.writeAll(sampleRows());
+            expected.writeNext(new String[]{"12", "-0.5", "1e9", "x1"});
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            CsvChannelWriter writer = new CsvChannelWriter(Channels.newChannel(out));
+            writer.setQuotePolicy(policy);
+            writer.writeAll(sampleRows());
+            writer.writeNext(new String[]{"12", "-0.5", "1e9", "x1"});
+            writer.close();
+
+            assertEquals(policy.name(), sw.toString().replace('\ud83d' + " surrogate", "? surrogate"),
+                    new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.fastopencsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class CsvJdbcLoaderTest {
+
+    private static AbstractCsvReader createReader(int rows) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            sb.append(i).append(",name").append(i).append(",").append(i).append(".50\n");
+        }
+        return new CsvStreamReader(new StringReader(sb.toString()));
+    }
+
+    @Test
+    public void buildsInsertStatement() {
+        CsvJdbcLoader loader = new CsvJdbcLoader(new MockDataSource(), "people", new String[]{"id", "name"});
+        assertEquals("INSERT INTO people (id, name) VALUES (?, ?)", loader.getInsertSql());
+    }
+
+    @Test
+    public void bindsTypedValues() throws IOException, SQLException {
+        MockDataSource dataSource = new MockDataSource();
+        CsvJdbcLoader loader = new CsvJdbcLoader(dataSource, "t",
+                new String[]{"id", "name", "amount", "born", "active"});
+        loader.setColumnTypes(new int[]{Types.BIGINT, Types.VARCHAR, Types.DECIMAL, Types.DATE, Types.BOOLEAN});
+
+        long rows = loader.load(new CsvStreamReader(new StringReader(
+                "-42,kyle,12.34,2014-03-31,true\n7,,,,\n")));
+
+        assertEquals(2, rows);
+        Object[] first = dataSource.getInsertedRows().get(0);
+        assertEquals(Long.valueOf(-42), first[0]);
+        assertEquals("kyle", first[1]);
+        assertEquals(new BigDecimal("12.34"), first[2]);
+        assertEquals(Date.valueOf("2014-03-31"), first[3]);
+        assertEquals(Boolean.TRUE, first[4]);
+
+        Object[] second = dataSource.getInsertedRows().get(1);
+        assertEquals("", second[1]);
+        assertNull(second[2]);
+        assertNull(second[3]);
+        assertNull(second[4]);
+
+        MockConnection connection = dataSource.getConnections().get(0);
+        assertEquals("INSERT INTO t (id, name, amount, born, active) VALUES (?, ?, ?, ?, ?)",
+                connection.getPreparedSql());
+        assertTrue(connection.getAutoCommit());
+        assertTrue(connection.isClosed());
+    }
+
+    @Test
+    public void executesOneBatchPerBlock() throws IOException, SQLException {
+        MockDataSource dataSource = new MockDataSource();
+        CsvJdbcLoader loader = new CsvJdbcLoader(dataSource, "t", new String[]{"id", "name", "amount"});
+        loader.setBatchSize(2);
+
+        assertEquals(5, loader.load(createReader(5)));
+        assertEquals(3, dataSource.getExecuteBatchCount());
+        assertEquals(3, dataSource.getConnections().get(0).getCommitCount());
+    }
+
+    @Test
+    public void spreadsBatchesOverConnections() throws IOException, SQLException {
+        MockDataSource dataSource = new MockDataSource();
+        CsvJdbcLoader loader = new CsvJdbcLoader(dataSource, "t", new String[]{"id", "name", "amount"});
+        loader.setColumnTypes(new int[]{Types.INTEGER, Types.VARCHAR, Types.NUMERIC});
+        loader.setBatchSize(10);
+        loader.setWriterThreads(4);
+
+        assertEquals(1000, loader.load(createReader(1000)));
+        assertEquals(4, dataSource.getConnections().size());
+        Set<Object> ids = new HashSet<Object>();
+        for (Object[] row : dataSource.getInsertedRows()) {
+            ids.add(row[0]);
+        }
+        assertEquals(1000, ids.size());
+        assertTrue(ids.contains(Integer.valueOf(999)));
+    }
+
+    @Test
+    public void reportsFailedBatch() throws IOException {
+        MockDataSource dataSource = new MockDataSource();
+        dataSource.setFailOnBatch(2);
+        CsvJdbcLoader loader = new CsvJdbcLoader(dataSource, "t", new String[]{"id", "name", "amount"});
+        loader.setBatchSize(3);
+        try {
+            loader.load(createReader(20));
+            fail("the failed batch should have been reported");
+        } catch (SQLException e) {
+            assertEquals("Test failure on batch 2", e.getMessage());
+        }
+        assertEquals(1, dataSource.getConnections().get(0).getRollbackCount());
+        assertEquals(3, dataSource.getInsertedRows().size());
+    }
+
+    @Test
+    public void reportsValuesThatCannotBeConverted() throws IOException {
+        CsvJdbcLoader loader = new CsvJdbcLoader(new MockDataSource(), "t", new String[]{"id"});
+        loader.setColumnTypes(new int[]{Types.BIGINT});
+        try {
+            loader.load(new CsvStreamReader(new StringReader("12x\n")));
+            fail("the bad number should have been reported");
+        } catch (SQLException e) {
+            assertFalse(e.getMessage().indexOf("12x") < 0);
+        }
+    }
+
+    @Test
+    public void parsesLongsWithoutStrings() {
+        char[] chars = " -9223372036854775808 9223372036854775807".toCharArray();
+        assertEquals(Long.MIN_VALUE, CsvJdbcLoader.parseLong(chars, 0, 21));
+        assertEquals(Long.MAX_VALUE, CsvJdbcLoader.parseLong(chars, 21, 20));
+        try {
+            CsvJdbcLoader.parseLong("9223372036854775808".toCharArray(), 0, 19);
+            fail("overflow should be rejected");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void parsesOnlyKnownBooleans() {
+        assertTrue(CsvJdbcLoader.parseBoolean(" TRUE ".toCharArray(), 0, 6));
+        assertTrue(CsvJdbcLoader.parseBoolean("y".toCharArray(), 0, 1));
+        assertFalse(CsvJdbcLoader.parseBoolean("False".toCharArray(), 0, 5));
+        assertFalse(CsvJdbcLoader.parseBoolean("0".toCharArray(), 0, 1));
+        assertFalse(CsvJdbcLoader.parseBoolean("N".toCharArray(), 0, 1));
+        for (String bad : new String[]{"no", "garbage", "2", "tru"}) {
+            try {
+                CsvJdbcLoader.parseBoolean(bad.toCharArray(), 0, bad.length());
+                fail(bad + " should have been rejected");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void reportsBooleansThatCannotBeConverted() throws IOException {
+        MockDataSource dataSource = new MockDataSource();
+        CsvJdbcLoader loader = new CsvJdbcLoader(dataSource, "t", new String[]{"active"});
+        loader.setColumnTypes(new int[]{Types.BOOLEAN});
+        try {
+            loader.load(new CsvStreamReader(new StringReader("true\nno\n")));
+            fail("the bad boolean should have been reported");
+        } catch (SQLException e) {
+            assertFalse(e.getMessage().indexOf("'no'") < 0);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.fastopencsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CsvPipelineTest {
+
+    private static String createTestData(int rows) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            if (i % 7 == 0) {
+                sb.append(i).append(",\"multi\nline ").append(i).append("\",x\n");
+            } else if (i % 5 == 0) {
+                sb.append(i).append(",\"quoted, \"\"with\"\" commas\",y\n");
+            } else {
+                sb.append(i).append(",plain").append(i).append(",z\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void assertSameRows(List<String[]> expected, List<String[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals("row " + i, expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void keepsFileOrderWithManyParserThreads() throws IOException {
+        String data = createTestData(5000);
+        List<String[]> expected = new CsvStreamReader(new StringReader(data)).readAll();
+
+        CsvPipeline pipeline = new CsvPipeline(new CsvStreamReader(new StringReader(data)));
+        pipeline.setBlockSize(13);
+        pipeline.setQueueCapacity(2);
+        pipeline.setParserThreads(4);
+        try {
+            assertSameRows(expected, pipeline.readAll());
+        } finally {
+            pipeline.close();
+        }
+    }
+
+    @Test
+    public void neverSplitsAQuotedFieldBetweenBlocks() throws IOException {
+        String data = "a,\"b\nc\nd\",e\nf,g,h\n\"i\nj\",k,l\n";
+        CsvPipeline pipeline = new CsvPipeline(new CsvStreamReader(new StringReader(data)));
+        pipeline.setBlockSize(1);
+        pipeline.setParserThreads(3);
+        List<String[]> rows = pipeline.readAll();
+        pipeline.close();
+
+        assertEquals(3, rows.size());
+        assertArrayEquals(new String[]{"a", "b\nc\nd", "e"}, rows.get(0));
+        assertArrayEquals(new String[]{"f", "g", "h"}, rows.get(1));
+        assertArrayEquals(new String[]{"i\nj", "k", "l"}, rows.get(2));
+    }
+
+    @Test
+    public void continuesAfterLinesAlreadyRead() throws IOException {
+        AbstractCsvReader reader = new CsvStreamReader(new StringReader("h1,h2\n1,2\n3,4\n"));
+        assertArrayEquals(new String[]{"h1", "h2"}, reader.readNext());
+
+        CsvPipeline pipeline = new CsvPipeline(reader);
+        List<String[]> block = pipeline.nextBlock();
+        assertEquals(2, block.size());
+        assertArrayEquals(new String[]{"3", "4"}, block.get(1));
+        assertNull(pipeline.nextBlock());
+        assertNull(pipeline.nextBlock());
+        pipeline.close();
+    }
+
+    @Test
+    public void honorsSkipLines() throws IOException {
+        AbstractCsvReader reader = new CsvStreamReader(new StringReader("skip me\n1,2\n"), ',', '"', 1);
+        CsvPipeline pipeline = new CsvPipeline(reader);
+        List<String[]> rows = pipeline.readAll();
+        pipeline.close();
+
+        assertEquals(1, rows.size());
+        assertArrayEquals(new String[]{"1", "2"}, rows.get(0));
+    }
+
+    private static int parserThreadsAlive() {
+        int alive = 0;
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith("csv-parse-") && t.isAlive()) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+
+    @Test
+    public void releasesParserThreadsAtTheEndOfInput() throws Exception {
+        int before = parserThreadsAlive();
+        CsvPipeline pipeline = new CsvPipeline(new CsvStreamReader(new StringReader(createTestData(100))));
+        pipeline.setBlockSize(10);
+        pipeline.setParserThreads(4);
+
+        assertEquals(100, pipeline.readAll().size());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (parserThreadsAlive() > before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(parserThreadsAlive() <= before);
+    }
+}
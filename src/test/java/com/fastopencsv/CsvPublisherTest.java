@@ -0,0 +1,128 @@
+package com.fastopencsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+
+public class CsvPublisherTest {
+
+    private static final Executor SAME_THREAD = new Executor() {
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static final String TEST_STRING = "a,b\nc,d\ne,f\ng,h\ni,j\n";
+
+    private static class RecordingSubscriber implements CsvPublisher.Subscriber<List<String[]>> {
+        CsvPublisher.Subscription subscription;
+        List<List<String[]>> batches = new ArrayList<List<String[]>>();
+        Throwable error;
+        boolean complete;
+
+        public void onSubscribe(CsvPublisher.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        public void onNext(List<String[]> item) {
+            batches.add(item);
+        }
+
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        public void onComplete() {
+            complete = true;
+        }
+    }
+
+    @Test
+    public void onlyReadsWhatWasRequested() throws Exception {
+        AbstractCsvReader reader = new CsvStreamReader(new StringReader(TEST_STRING));
+        CsvPublisher publisher = new CsvPublisher(reader, 2, SAME_THREAD);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.batches.isEmpty());
+
+        subscriber.subscription.request(1);
+        assertEquals(1, subscriber.batches.size());
+        assertEquals(2, subscriber.batches.get(0).size());
+        assertFalse(subscriber.complete);
+
+        // the rows after the first batch are still in the reader
+        assertArrayEquals(new String[]{"e", "f"}, reader.readNext());
+    }
+
+    @Test
+    public void completesAfterTheLastBatch() {
+        CsvPublisher publisher = new CsvPublisher(new CsvStreamReader(new StringReader(TEST_STRING)), 2, SAME_THREAD);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(3, subscriber.batches.size());
+        assertEquals(1, subscriber.batches.get(2).size());
+        assertArrayEquals(new String[]{"i", "j"}, subscriber.batches.get(2).get(0));
+        assertTrue(subscriber.complete);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void completesWithAShortLastBatchWithoutMoreDemand() {
+        CsvPublisher publisher = new CsvPublisher(new CsvStreamReader(new StringReader(TEST_STRING)), 2, SAME_THREAD);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(3);
+
+        assertEquals(3, subscriber.batches.size());
+        assertTrue(subscriber.complete);
+    }
+
+    @Test
+    public void stopsAfterCancel() {
+        CsvPublisher publisher = new CsvPublisher(new CsvStreamReader(new StringReader(TEST_STRING)), 1, SAME_THREAD);
+        final RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(List<String[]> item) {
+                super.onNext(item);
+                subscription.cancel();
+            }
+        };
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(10);
+
+        assertEquals(1, subscriber.batches.size());
+        assertFalse(subscriber.complete);
+    }
+
+    @Test
+    public void signalsErrorForNonPositiveRequest() {
+        CsvPublisher publisher = new CsvPublisher(new CsvStreamReader(new StringReader(TEST_STRING)), 2, SAME_THREAD);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(0);
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(subscriber.batches.isEmpty());
+    }
+
+    @Test
+    public void rejectsSecondSubscriber() {
+        CsvPublisher publisher = new CsvPublisher(new CsvStreamReader(new StringReader(TEST_STRING)), 2, SAME_THREAD);
+        publisher.subscribe(new RecordingSubscriber());
+        RecordingSubscriber second = new RecordingSubscriber();
+        publisher.subscribe(second);
+
+        assertTrue(second.error instanceof IllegalStateException);
+    }
+}
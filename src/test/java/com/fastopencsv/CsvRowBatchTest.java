@@ -0,0 +1,72 @@
+package com.fastopencsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CsvRowBatchTest {
+
+    private static final String TEST_STRING = "a,b,c\n"
+            + "a,\"b,b,b\",c\n"
+            + ",,\n"
+            + "a,\"PO Box 123,\nKippax,ACT. 2615.\nAustralia\",d.\n"
+            + "\"Glen \"\"The Man\"\" Smith\",Athlete,Developer\n";
+
+    @Test
+    public void readsTheSameRowsAsReadNext() throws IOException {
+        List<String[]> expected = new CsvStreamReader(new StringReader(TEST_STRING)).readAll();
+
+        AbstractCsvReader reader = new CsvStreamReader(new StringReader(TEST_STRING));
+        List<String[]> actual = new ArrayList<String[]>();
+        CsvRowBatch batch;
+        while ((batch = reader.readBatch(2)) != null) {
+            for (int row = 0; row < batch.size(); row++) {
+                actual.add(batch.getRow(row));
+            }
+        }
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void fieldsShareOneArena() throws IOException {
+        AbstractCsvReader reader = new CsvStreamReader(new StringReader("ab,c\nde,f\n"));
+        CsvRowBatch batch = reader.readBatch(10);
+
+        assertEquals(2, batch.size());
+        assertEquals(2, batch.getFieldCount(1));
+        assertEquals("abcdef", new String(batch.getChars(), 0, batch.getCharCount()));
+        assertEquals(3, batch.getFieldStart(1, 0));
+        assertEquals(2, batch.getFieldLength(1, 0));
+        assertEquals("f", batch.getField(1, 1));
+        assertNull(reader.readBatch(10));
+    }
+
+    @Test
+    public void batchIsReused() throws IOException {
+        AbstractCsvReader reader = new CsvStreamReader(new StringReader("1\n2\n3\n"));
+        CsvRowBatch first = reader.readBatch(2);
+        assertEquals("2", first.getField(1, 0));
+        CsvRowBatch second = reader.readBatch(2);
+        assertSame(first, second);
+        assertEquals(1, second.size());
+        assertEquals("3", second.getField(0, 0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsColumnsPastTheEndOfTheRow() throws IOException {
+        CsvRowBatch batch = new CsvStreamReader(new StringReader("a,b\nc,d\n")).readBatch(2);
+        batch.getField(0, 2);
+    }
+}
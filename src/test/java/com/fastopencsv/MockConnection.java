@@ -0,0 +1,278 @@
+package com.fastopencsv;
+/**
+ Copyright 2005 Bytecode Pty Ltd.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+public class MockConnection implements Connection {
+
+    private final MockDataSource dataSource;
+    private boolean autoCommit = true;
+    private boolean closed;
+    private int commitCount;
+    private int rollbackCount;
+    private String preparedSql;
+
+    public MockConnection(MockDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public int getCommitCount() {
+        return commitCount;
+    }
+
+    public int getRollbackCount() {
+        return rollbackCount;
+    }
+
+    public String getPreparedSql() {
+        return preparedSql;
+    }
+
+    public void setReadOnly(boolean arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public void close() throws SQLException {
+        closed = true;
+    }
+
+    public boolean isReadOnly() throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public void commit() throws SQLException {
+        commitCount++;
+    }
+
+    public boolean isValid(int arg0) throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void abort(Executor arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public Statement createStatement() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public Statement createStatement(int arg0, int arg1, int arg2) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public Statement createStatement(int arg0, int arg1) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public PreparedStatement prepareStatement(String arg0, String[] arg1) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public PreparedStatement prepareStatement(String arg0, int arg1) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public PreparedStatement prepareStatement(String arg0, int arg1, int arg2) throws SQLException {
+        preparedSql = arg0;
+        return new MockPreparedStatement(dataSource, arg0);
+    }
+
+    public PreparedStatement prepareStatement(String arg0, int[] arg1) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public PreparedStatement prepareStatement(String arg0) throws SQLException {
+        preparedSql = arg0;
+        return new MockPreparedStatement(dataSource);
+    }
+
+    public PreparedStatement prepareStatement(String arg0, int arg1, int arg2, int arg3) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public CallableStatement prepareCall(String arg0, int arg1, int arg2) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public CallableStatement prepareCall(String arg0) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public CallableStatement prepareCall(String arg0, int arg1, int arg2, int arg3) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public String nativeSQL(String arg0) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public void setAutoCommit(boolean arg0) throws SQLException {
+        autoCommit = arg0;
+    }
+
+public boolean getAutoCommit() throws SQLException {
+        return autoCommit;
+    }
+
+public void rollback() throws SQLException {
+        rollbackCount++;
+    }
+
+    public void rollback(Savepoint arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public boolean isClosed() throws SQLException {
+        return closed;
+    }
+
+    public DatabaseMetaData getMetaData() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setCatalog(String arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public String getCatalog() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setTransactionIsolation(int arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int getTransactionIsolation() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public SQLWarning getWarnings() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void clearWarnings() throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setTypeMap(Map<String, Class<?>> arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setHoldability(int arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int getHoldability() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public Savepoint setSavepoint() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public Savepoint setSavepoint(String arg0) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void releaseSavepoint(Savepoint arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public Clob createClob() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public Blob createBlob() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public NClob createNClob() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public SQLXML createSQLXML() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setClientInfo(Properties arg0) throws SQLClientInfoException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setClientInfo(String arg0, String arg1) throws SQLClientInfoException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public Properties getClientInfo() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public String getClientInfo(String arg0) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public Array createArrayOf(String arg0, Object[] arg1) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public Struct createStruct(String arg0, Object[] arg1) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setSchema(String arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public String getSchema() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setNetworkTimeout(Executor arg0, int arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int getNetworkTimeout() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public <T> T unwrap(Class<T> arg0) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public boolean isWrapperFor(Class<?> arg0) throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+}
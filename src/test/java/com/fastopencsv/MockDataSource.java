@@ -0,0 +1,123 @@
+package com.fastopencsv;
+/**
+ Copyright 2005 Bytecode Pty Ltd.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * An in-memory stand-in for a database. Each connection records the rows its
+ * statements insert so a test can check what was loaded.
+ */
+public class MockDataSource implements DataSource {
+
+    private final List<MockConnection> connections = Collections.synchronizedList(new ArrayList<MockConnection>());
+    private final List<Object[]> insertedRows = Collections.synchronizedList(new ArrayList<Object[]>());
+    private int executeBatchCount;
+    private int failOnBatch = -1;
+    private QueryHandler queryHandler;
+
+    /**
+     * Answers the queries run through a prepared statement.
+     */
+    public interface QueryHandler {
+        ResultSet executeQuery(String sql, Object[] parameters) throws SQLException;
+    }
+
+    public void setQueryHandler(QueryHandler queryHandler) {
+        this.queryHandler = queryHandler;
+    }
+
+    ResultSet executeQuery(String sql, Object[] parameters) throws SQLException {
+        if (queryHandler == null) {
+            return null;
+        }
+        return queryHandler.executeQuery(sql, parameters);
+    }
+
+    public List<MockConnection> getConnections() {
+        return connections;
+    }
+
+    public List<Object[]> getInsertedRows() {
+        return insertedRows;
+    }
+
+    public synchronized int getExecuteBatchCount() {
+        return executeBatchCount;
+    }
+
+    /**
+     * Makes the given call to executeBatch, counting from 1, throw an SQLException.
+     */
+    public void setFailOnBatch(int failOnBatch) {
+        this.failOnBatch = failOnBatch;
+    }
+
+    synchronized void executeBatch(List<Object[]> rows) throws SQLException {
+        executeBatchCount++;
+        if (executeBatchCount == failOnBatch) {
+            throw new SQLException("Test failure on batch " + failOnBatch);
+        }
+        insertedRows.addAll(rows);
+    }
+
+public Connection getConnection() throws SQLException {
+        MockConnection connection = new MockConnection(this);
+        connections.add(connection);
+        return connection;
+    }
+
+    public Connection getConnection(String arg0, String arg1) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public PrintWriter getLogWriter() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setLogWriter(PrintWriter arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setLoginTimeout(int arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int getLoginTimeout() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public <T> T unwrap(Class<T> arg0) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public boolean isWrapperFor(Class<?> arg0) throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+}
@@ -0,0 +1,470 @@
+package com.fastopencsv;
+/**
+ Copyright 2005 Bytecode Pty Ltd.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Keeps the values bound for each row and hands the rows to the
+ * MockDataSource when the batch is executed.
+ */
+public class MockPreparedStatement implements PreparedStatement {
+
+    private final MockDataSource dataSource;
+    private final String sql;
+    private Object[] parameters = new Object[0];
+    private List<Object[]> batch = new ArrayList<Object[]>();
+
+    public MockPreparedStatement(MockDataSource dataSource) {
+        this(dataSource, null);
+    }
+
+    public MockPreparedStatement(MockDataSource dataSource, String sql) {
+        this.dataSource = dataSource;
+        this.sql = sql;
+    }
+
+    private void setParameter(int index, Object value) {
+        if (index > parameters.length) {
+            parameters = Arrays.copyOf(parameters, index);
+        }
+        parameters[index - 1] = value;
+    }
+
+    public boolean execute() throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public void setBoolean(int arg0, boolean arg1) throws SQLException {
+        setParameter(arg0, arg1);
+    }
+
+    public void setByte(int arg0, byte arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setShort(int arg0, short arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public void setInt(int arg0, int arg1) throws SQLException {
+        setParameter(arg0, arg1);
+    }
+
+public void setLong(int arg0, long arg1) throws SQLException {
+        setParameter(arg0, arg1);
+    }
+
+public void setFloat(int arg0, float arg1) throws SQLException {
+        setParameter(arg0, arg1);
+    }
+
+public void setDouble(int arg0, double arg1) throws SQLException {
+        setParameter(arg0, arg1);
+    }
+
+    public void setURL(int arg0, URL arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setArray(int arg0, Array arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setTime(int arg0, Time arg1, Calendar arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public void setTime(int arg0, Time arg1) throws SQLException {
+        setParameter(arg0, arg1);
+    }
+
+    public void setDate(int arg0, Date arg1, Calendar arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public void setDate(int arg0, Date arg1) throws SQLException {
+        setParameter(arg0, arg1);
+    }
+
+public ResultSet executeQuery() throws SQLException {
+        return dataSource.executeQuery(sql, parameters.clone());
+    }
+
+    public int executeUpdate() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public void setNull(int arg0, int arg1) throws SQLException {
+        setParameter(arg0, null);
+    }
+
+    public void setNull(int arg0, int arg1, String arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public void setBigDecimal(int arg0, BigDecimal arg1) throws SQLException {
+        setParameter(arg0, arg1);
+    }
+
+public void setString(int arg0, String arg1) throws SQLException {
+        setParameter(arg0, arg1);
+    }
+
+    public void setBytes(int arg0, byte[] arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setTimestamp(int arg0, Timestamp arg1, Calendar arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public void setTimestamp(int arg0, Timestamp arg1) throws SQLException {
+        setParameter(arg0, arg1);
+    }
+
+    public void setAsciiStream(int arg0, InputStream arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setAsciiStream(int arg0, InputStream arg1, int arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setAsciiStream(int arg0, InputStream arg1, long arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setUnicodeStream(int arg0, InputStream arg1, int arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setBinaryStream(int arg0, InputStream arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setBinaryStream(int arg0, InputStream arg1, long arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setBinaryStream(int arg0, InputStream arg1, int arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public void clearParameters() throws SQLException {
+        parameters = new Object[0];
+    }
+
+public void setObject(int arg0, Object arg1) throws SQLException {
+        setParameter(arg0, arg1);
+    }
+
+    public void setObject(int arg0, Object arg1, int arg2, int arg3) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setObject(int arg0, Object arg1, int arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public void addBatch() throws SQLException {
+        batch.add(parameters.clone());
+    }
+
+    public void setCharacterStream(int arg0, Reader arg1, int arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setCharacterStream(int arg0, Reader arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setCharacterStream(int arg0, Reader arg1, long arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setRef(int arg0, Ref arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setBlob(int arg0, Blob arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setBlob(int arg0, InputStream arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setBlob(int arg0, InputStream arg1, long arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setClob(int arg0, Clob arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setClob(int arg0, Reader arg1, long arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setClob(int arg0, Reader arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public ResultSetMetaData getMetaData() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setRowId(int arg0, RowId arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setNString(int arg0, String arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setNCharacterStream(int arg0, Reader arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setNCharacterStream(int arg0, Reader arg1, long arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setNClob(int arg0, Reader arg1, long arg2) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setNClob(int arg0, Reader arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setNClob(int arg0, NClob arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setSQLXML(int arg0, SQLXML arg1) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public boolean execute(String arg0, int arg1) throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public boolean execute(String arg0, int[] arg1) throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public boolean execute(String arg0, String[] arg1) throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public boolean execute(String arg0) throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void close() throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void cancel() throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public ResultSet executeQuery(String arg0) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int executeUpdate(String arg0, int arg1) throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int executeUpdate(String arg0, int[] arg1) throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int executeUpdate(String arg0) throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int executeUpdate(String arg0, String[] arg1) throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void addBatch(String arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int getMaxFieldSize() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setMaxFieldSize(int arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int getMaxRows() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setMaxRows(int arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setEscapeProcessing(boolean arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int getQueryTimeout() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setQueryTimeout(int arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public SQLWarning getWarnings() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void clearWarnings() throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setCursorName(String arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public ResultSet getResultSet() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int getUpdateCount() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public boolean getMoreResults(int arg0) throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public boolean getMoreResults() throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setFetchDirection(int arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int getFetchDirection() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setFetchSize(int arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int getFetchSize() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int getResultSetConcurrency() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int getResultSetType() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+public void clearBatch() throws SQLException {
+        batch.clear();
+    }
+
+public int[] executeBatch() throws SQLException {
+        List<Object[]> rows = batch;
+        batch = new ArrayList<Object[]>();
+        dataSource.executeBatch(rows);
+        int[] counts = new int[rows.size()];
+        Arrays.fill(counts, 1);
+        return counts;
+    }
+
+    public Connection getConnection() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public int getResultSetHoldability() throws SQLException {
+        return 0;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public boolean isClosed() throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void setPoolable(boolean arg0) throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public boolean isPoolable() throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public void closeOnCompletion() throws SQLException {
+        //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public boolean isCloseOnCompletion() throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public <T> T unwrap(Class<T> arg0) throws SQLException {
+        return null;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+
+    public boolean isWrapperFor(Class<?> arg0) throws SQLException {
+        return false;  //To change body of implemented methods use File | Settings | File Templates.
+    }
+}
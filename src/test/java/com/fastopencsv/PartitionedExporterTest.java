@@ -0,0 +1,119 @@
+package com.fastopencsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PartitionedExporterTest {
+
+    private static final String SQL = "SELECT id FROM t WHERE id >= ? AND id < ? ORDER BY id";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Answers each range with (hi - lo) rows holding the lower bound.
+     */
+    private static MockDataSource createDataSource(final long failOnLowerBound) {
+        MockDataSource dataSource = new MockDataSource();
+        dataSource.setQueryHandler(new MockDataSource.QueryHandler() {
+            public ResultSet executeQuery(String sql, Object[] parameters) throws SQLException {
+                assertEquals(SQL, sql);
+                long lo = (Long) parameters[0];
+                long hi = (Long) parameters[1];
+                if (lo == failOnLowerBound) {
+                    throw new SQLException("Test failure for " + lo);
+                }
+                MockResultSet resultSet = new MockResultSet();
+                MockResultSetMetaData metaData = new MockResultSetMetaData();
+                metaData.setColumnNames(new String[]{"id"});
+                metaData.setColumnTypes(new int[]{Types.BIGINT});
+                resultSet.setMetaData(metaData);
+                resultSet.setColumnValues(new String[]{Long.toString(lo)});
+                resultSet.setNumberOfResults((int) (hi - lo));
+                return resultSet;
+            }
+        });
+        return dataSource;
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void keyRangesBindLowerAndUpperBounds() {
+        List<Object[]> ranges = PartitionedExporter.keyRanges(0, 10, 25);
+        assertEquals(2, ranges.size());
+        assertEquals(Arrays.asList(0L, 10L), Arrays.asList(ranges.get(0)));
+        assertEquals(Arrays.asList(10L, 25L), Arrays.asList(ranges.get(1)));
+    }
+
+    @Test
+    public void moduloBindsCountAndRemainder() {
+        List<Object[]> parts = PartitionedExporter.modulo(3);
+        assertEquals(3, parts.size());
+        assertEquals(Arrays.asList(3, 2), Arrays.asList(parts.get(2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keyRangesMustIncrease() {
+        PartitionedExporter.keyRanges(5, 5);
+    }
+
+    @Test
+    public void writesOnePartFilePerPartition() throws Exception {
+        MockDataSource dataSource = createDataSource(-1);
+        PartitionedExporter exporter = new PartitionedExporter(dataSource, SQL,
+                PartitionedExporter.keyRanges(0, 2, 5, 6));
+        exporter.setThreads(2);
+        List<File> files = exporter.exportToParts(folder.getRoot(), "orders", true);
+
+        assertEquals(3, files.size());
+        assertEquals("orders-00001.csv", files.get(1).getName());
+        assertEquals("\"id\"\n\"0\"\n\"0\"\n", read(files.get(0)));
+        assertEquals("\"id\"\n\"2\"\n\"2\"\n\"2\"\n", read(files.get(1)));
+        assertEquals("\"id\"\n\"5\"\n", read(files.get(2)));
+        assertEquals(3, dataSource.getConnections().size());
+    }
+
+    @Test
+    public void mergesPartitionsInOrderWithOneHeader() throws Exception {
+        PartitionedExporter exporter = new PartitionedExporter(createDataSource(-1), SQL,
+                PartitionedExporter.keyRanges(0, 1, 3, 4, 6));
+        StringWriter out = new StringWriter();
+        long rows = exporter.exportMerged(out, true);
+
+        assertEquals(6, rows);
+        assertEquals("\"id\"\n\"0\"\n\"1\"\n\"1\"\n\"3\"\n\"4\"\n\"4\"\n", out.toString());
+    }
+
+    @Test
+    public void failedPartitionRemovesThePartFiles() throws Exception {
+        PartitionedExporter exporter = new PartitionedExporter(createDataSource(2), SQL,
+                PartitionedExporter.keyRanges(0, 2, 4, 6));
+        try {
+            exporter.exportToParts(folder.getRoot(), "orders", false);
+            assertTrue("The export should have failed", false);
+        } catch (SQLException e) {
+            assertEquals("Test failure for 2", e.getMessage());
+        }
+        assertFalse(new File(folder.getRoot(), "orders-00000.csv").exists());
+        assertEquals(0, folder.getRoot().list().length);
+    }
+}
@@ -0,0 +1,206 @@
+package com.fastopencsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.junit.Test;
+
+public class ResultSetExporterTest {
+
+    private static class CountingResultSet extends MockResultSet {
+        int metaDataCalls;
+
+        @Override
+        public ResultSetMetaData getMetaData() throws SQLException {
+            metaDataCalls++;
+            return super.getMetaData();
+        }
+    }
+
+    private static CountingResultSet createResultSet(int rows) {
+        CountingResultSet resultSet = new CountingResultSet();
+        MockResultSetMetaData metaData = new MockResultSetMetaData();
+        metaData.setColumnNames(new String[]{"id", "name", "amount", "missing"});
+        metaData.setColumnTypes(new int[]{Types.BIGINT, Types.VARCHAR, Types.DECIMAL, Types.INTEGER});
+        resultSet.setMetaData(metaData);
+        resultSet.setColumnValues(new String[]{"42", "say \"hi\"", "1.50", null});
+        resultSet.setNumberOfResults(rows);
+        return resultSet;
+    }
+
+    @Test
+    public void writesTheSameOutputAsTheHelperService() throws SQLException, IOException {
+        StringWriter expected = new StringWriter();
+        CSVWriter expectedWriter = new CSVWriter(expected);
+        ResultSetHelperService service = new ResultSetHelperService();
+        CountingResultSet legacy = createResultSet(3);
+        expectedWriter.writeNext(service.getColumnNames(legacy));
+        while (legacy.next()) {
+            expectedWriter.writeNext(service.getColumnValues(legacy));
+        }
+        expectedWriter.flush();
+
+        StringWriter actual = new StringWriter();
+        CSVWriter writer = new CSVWriter(actual);
+        long rows = new ResultSetExporter(writer).export(createResultSet(3), true);
+        writer.flush();
+
+        assertEquals(3, rows);
+        assertEquals(expected.toString(), actual.toString());
+        assertTrue(actual.toString().startsWith("\"id\",\"name\",\"amount\",\"missing\"\n"
+                + "\"42\",\"say \"\"hi\"\"\",\"1.50\",\"\"\n"));
+    }
+
+    @Test
+    public void readsMetaDataOnlyForThePlanAndHeader() throws SQLException, IOException {
+        CountingResultSet resultSet = createResultSet(100);
+        CSVWriter writer = new CSVWriter(new StringWriter());
+        new ResultSetExporter(writer).export(resultSet, true);
+
+        assertEquals(2, resultSet.metaDataCalls);
+    }
+
+    @Test
+    public void writeAllUsesThePlanWithTheDefaultService() throws SQLException, IOException {
+        CountingResultSet resultSet = createResultSet(50);
+        StringWriter sw = new StringWriter();
+        CSVWriter writer = new CSVWriter(sw);
+        writer.writeAll(resultSet, false);
+        writer.flush();
+
+        assertEquals(1, resultSet.metaDataCalls);
+        assertEquals(50, sw.toString().split("\n").length);
+    }
+
+    @Test
+    public void formatsDatesLikeTheHelperService() throws SQLException, IOException {
+        String millis = Long.toString(new java.sql.Timestamp(109, 11, 15, 12, 0, 0, 0).getTime());
+        ResultSetHelperService service = new ResultSetHelperService();
+        service.setColumnFormat(2, "yyyy-MM-dd'T'HH:mm:ss.SSS");
+
+        MockResultSet legacy = new MockResultSet();
+        MockResultSetMetaData metaData = new MockResultSetMetaData();
+        metaData.setColumnNames(new String[]{"d", "ts", "t", "empty"});
+        metaData.setColumnTypes(new int[]{Types.DATE, Types.TIMESTAMP, Types.TIME, Types.TIMESTAMP});
+        legacy.setMetaData(metaData);
+        legacy.setColumnValues(new String[]{millis, millis, millis, null});
+        StringWriter expected = new StringWriter();
+        CSVWriter expectedWriter = new CSVWriter(expected);
+        expectedWriter.writeNext(service.getColumnValues(legacy));
+        expectedWriter.flush();
+
+        MockResultSet resultSet = new MockResultSet();
+        resultSet.setMetaData(metaData);
+        resultSet.setColumnValues(new String[]{millis, millis, millis, null});
+        resultSet.setNumberOfResults(1);
+        StringWriter actual = new StringWriter();
+        CSVWriter writer = new CSVWriter(actual);
+        new ResultSetExporter(writer, service).export(resultSet, false);
+        writer.flush();
+
+        assertEquals(expected.toString(), actual.toString());
+        assertTrue(actual.toString().contains("\"2009-12-15T12:00:00.000\""));
+    }
+
+    private static MockResultSet createClobResultSet(String clob) {
+        MockResultSet resultSet = new MockResultSet();
+        MockResultSetMetaData metaData = new MockResultSetMetaData();
+        metaData.setColumnNames(new String[]{"id", "body", "empty"});
+        metaData.setColumnTypes(new int[]{Types.INTEGER, Types.CLOB, Types.CLOB});
+        resultSet.setMetaData(metaData);
+        resultSet.setColumnValues(new String[]{"7", clob, null});
+        resultSet.setNumberOfResults(2);
+        return resultSet;
+    }
+
+    @Test
+    public void streamsClobsWithTheSameEscaping() throws SQLException, IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < ResultSetHelperService.CLOBBUFFERSIZE * 3; i++) {
+            sb.append(i % 97 == 0 ? '"' : (char) ('a' + i % 26));
+        }
+        String clob = sb.toString();
+
+        StringWriter expected = new StringWriter();
+        CSVWriter expectedWriter = new CSVWriter(expected);
+        ResultSetHelperService service = new ResultSetHelperService();
+        MockResultSet legacy = createClobResultSet(clob);
+        while (legacy.next()) {
+            expectedWriter.writeNext(service.getColumnValues(legacy));
+        }
+        expectedWriter.flush();
+
+        StringWriter actual = new StringWriter();
+        CSVWriter writer = new CSVWriter(actual);
+        new ResultSetExporter(writer).export(createClobResultSet(clob), false);
+        writer.flush();
+
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    public void doesNotStreamClobsPastAnOverriddenProcessLine() throws SQLException, IOException {
+        StringWriter actual = new StringWriter();
+        CSVWriter writer = new CSVWriter(actual) {
+            @Override
+            protected StringBuilder processLine(String nextElement) {
+                return new StringBuilder(nextElement.replace("\"", "'"));
+            }
+        };
+        new ResultSetExporter(writer).export(createClobResultSet("say \"hi\""), false);
+        writer.flush();
+
+        assertEquals("\"7\",\"say 'hi'\",\"\"\n\"7\",\"say 'hi'\",\"\"\n", actual.toString());
+    }
+
+    @Test
+    public void leavesTheWriterCleanAfterAFailedRow() throws IOException {
+        MockResultSet resultSet = new MockResultSet() {
+            @Override
+            public String getString(int i) throws SQLException {
+                throw new SQLException("connection lost");
+            }
+        };
+        MockResultSetMetaData metaData = new MockResultSetMetaData();
+        metaData.setColumnNames(new String[]{"id", "name"});
+        metaData.setColumnTypes(new int[]{Types.BIGINT, Types.VARCHAR});
+        resultSet.setMetaData(metaData);
+        resultSet.setColumnValues(new String[]{"42", "kyle"});
+        resultSet.setNumberOfResults(1);
+        StringWriter sw = new StringWriter();
+        CSVWriter writer = new CSVWriter(sw);
+
+        try {
+            new ResultSetExporter(writer).export(resultSet, false);
+            fail("expected the export to fail");
+        } catch (SQLException e) {
+            assertEquals("connection lost", e.getMessage());
+        }
+        writer.writeNext(new String[]{"next"});
+        writer.flush();
+
+        assertEquals("\"next\"\n", sw.toString());
+    }
+
+    @Test
+    public void writeAllKeepsTheRowsOfASubclass() throws SQLException, IOException {
+        StringWriter sw = new StringWriter();
+        CSVWriter writer = new CSVWriter(sw) {
+            @Override
+            public void writeNext(String[] nextLine) {
+                super.writeNext(new String[]{nextLine[0]});
+            }
+        };
+        writer.writeAll(createResultSet(2), true);
+        writer.flush();
+
+        assertEquals("\"id\"\n\"42\"\n\"42\"\n", sw.toString());
+    }
+}
@@ -281,6 +281,39 @@ public class ResultSetHelperServiceTest {
 
     }
 
+    @Test
+    public void getDatesWithConfiguredFormats() throws SQLException, IOException {
+        MockResultSet resultSet = new MockResultSet();
+        MockResultSetMetaData metaData = new MockResultSetMetaData();
+
+        Timestamp date = new Timestamp(109, 11, 15, 12, 30, 5, 0); // 12/15/2009 12:30:05
+        String millis = Long.toString(date.getTime());
+
+        String[] expectedNames = {"Date", "Timestamp", "Time", "Other"};
+        String[] realValues = {millis, millis, millis, millis};
+        String[] expectedValues = {
+                new SimpleDateFormat("yyyy-MM-dd").format(date),
+                new SimpleDateFormat("yyyy-MM-dd HH:mm").format(date),
+                new SimpleDateFormat("HH.mm.ss").format(date),
+                new SimpleDateFormat("dd/MM/yyyy").format(date)};
+        int[] expectedTypes = {Types.DATE, Types.TIMESTAMP, Types.TIME, Types.TIMESTAMP};
+
+        metaData.setColumnNames(expectedNames);
+        metaData.setColumnTypes(expectedTypes);
+        resultSet.setMetaData(metaData);
+        resultSet.setColumnValues(realValues);
+
+        ResultSetHelperService service = new ResultSetHelperService();
+        service.setDateFormat("yyyy-MM-dd");
+        service.setTimestampFormat("yyyy-MM-dd HH:mm");
+        service.setTimeFormat("HH.mm.ss");
+        service.setColumnFormat(4, "dd/MM/yyyy");
+
+        String[] columnValues = service.getColumnValues(resultSet);
+        assertArrayEquals(expectedValues, columnValues);
+
+    }
+
     @Test
     public void getTimestampFromResultSet() throws SQLException, IOException {
         MockResultSet resultSet = new MockResultSet();
@@ -0,0 +1,102 @@
+package com.fastopencsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RollingCsvWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void rollsOnRowCountWithTheHeaderInEveryPart() throws IOException {
+        RollingCsvWriter writer = new RollingCsvWriter(folder.getRoot(), "audit", new String[]{"id"});
+        writer.setMaxRows(2);
+        for (int i = 0; i < 5; i++) {
+            writer.writeNext(new String[]{Integer.toString(i)});
+        }
+        writer.close();
+
+        List<File> parts = writer.getParts();
+        assertEquals(3, parts.size());
+        assertEquals("audit-00000.csv", parts.get(0).getName());
+        assertEquals("\"id\"\n\"0\"\n\"1\"\n", read(parts.get(0)));
+        assertEquals("\"id\"\n\"2\"\n\"3\"\n", read(parts.get(1)));
+        assertEquals("\"id\"\n\"4\"\n", read(parts.get(2)));
+        assertFalse("the part opened in advance is removed", new File(folder.getRoot(), "audit-00003.csv").exists());
+    }
+
+    @Test
+    public void writesAManifest() throws IOException {
+        RollingCsvWriter writer = new RollingCsvWriter(folder.getRoot(), "audit", null);
+        writer.setMaxRows(3);
+        for (int i = 0; i < 4; i++) {
+            writer.writeNext(new String[]{"row"});
+        }
+        writer.close();
+
+        assertEquals("\"file\",\"rows\",\"bytes\"\n"
+                + "\"audit-00000.csv\",\"3\",\"18\"\n"
+                + "\"audit-00001.csv\",\"1\",\"6\"\n", read(writer.getManifest()));
+    }
+
+    @Test
+    public void rollsOnSize() throws IOException {
+        RollingCsvWriter writer = new RollingCsvWriter(folder.getRoot(), "big", null);
+        writer.setMaxBytes(32 * 1024);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append('x');
+        }
+        for (int i = 0; i < 200; i++) {
+            writer.writeNext(new String[]{sb.toString()});
+        }
+        writer.close();
+
+        List<File> parts = writer.getParts();
+        assertTrue(parts.size() > 1);
+        long total = 0;
+        for (File part : parts) {
+            total += part.length();
+            // a part ends at the first row after the limit, behind by at most the encoder buffer
+            assertTrue(part.length() <= 32 * 1024 + 8192 + 1003);
+        }
+        assertEquals(200 * 1003, total);
+    }
+
+    @Test
+    public void createWriterChangesTheFormat() throws IOException {
+        RollingCsvWriter writer = new RollingCsvWriter(folder.getRoot(), "semi", new String[]{"a", "b"}) {
+            @Override
+            protected CSVWriter createWriter(Writer out) {
+                return new CSVWriter(out, ';', CSVWriter.NO_QUOTE_CHARACTER);
+            }
+        };
+        writer.writeNext(new String[]{"1", "2"});
+        writer.close();
+        assertEquals("a;b\n1;2\n", read(writer.getParts().get(0)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsRowsAfterClose() throws IOException {
+        RollingCsvWriter writer = new RollingCsvWriter(folder.getRoot(), "closed", null);
+        writer.close();
+        writer.writeNext(new String[]{"late"});
+    }
+}
@@ -0,0 +1,81 @@
+package com.fastopencsv.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+import com.fastopencsv.CsvStreamReader;
+
+public class BeanIteratorTest {
+
+    private static final String TEST_STRING = "name,orderNumber,num\n" +
+            "kyle,abc123456,123\n" +
+            "jimmy,def098765,456\n";
+
+    private HeaderColumnNameMappingStrategy<MockBean> createStrategy() {
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        return strat;
+    }
+
+    @Test
+    public void mapsRowsAsTheyAreRead() {
+        BeanIterator<MockBean> beans = new CsvToBean<MockBean>().iterate(createStrategy(),
+                new StringReader(TEST_STRING));
+
+        assertTrue(beans.hasNext());
+        assertTrue(beans.hasNext());
+        MockBean first = beans.next();
+        assertEquals("kyle", first.getName());
+        assertEquals(123, first.getNum());
+        MockBean second = beans.next();
+        assertNotSame(first, second);
+        assertEquals("jimmy", second.getName());
+        assertFalse(beans.hasNext());
+        assertEquals(2, beans.getRowsRead());
+    }
+
+    @Test
+    public void recyclesOneBean() {
+        BeanIterator<MockBean> beans = new CsvToBean<MockBean>().iterate(createStrategy(),
+                new CsvStreamReader(new StringReader(TEST_STRING)), true);
+
+        MockBean first = beans.next();
+        assertEquals("kyle", first.getName());
+        MockBean second = beans.next();
+        assertSame(first, second);
+        assertEquals("jimmy", second.getName());
+        assertEquals(456, second.getNum());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void throwsWhenThereAreNoMoreRows() {
+        BeanIterator<MockBean> beans = new CsvToBean<MockBean>().iterate(createStrategy(),
+                new StringReader("name\n"));
+        beans.next();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void throwsRuntimeExceptionForBadRow() {
+        BeanIterator<MockBean> beans = new CsvToBean<MockBean>().iterate(createStrategy(),
+                new StringReader("name,num\nkyle,abc\n"));
+        beans.next();
+    }
+
+    @Test
+    public void closeEndsTheIteration() throws IOException {
+        BeanIterator<MockBean> beans = new CsvToBean<MockBean>().iterate(createStrategy(),
+                new StringReader(TEST_STRING));
+        beans.next();
+        beans.close();
+        assertFalse(beans.hasNext());
+    }
+}
@@ -0,0 +1,133 @@
+package com.fastopencsv.bean;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.beans.PropertyDescriptor;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fastopencsv.AbstractCsvReader;
+import com.fastopencsv.CSVWriter;
+import com.fastopencsv.QuotePolicy;
+
+public class BeanToCsvTest {
+
+    private static MockBean createBean(String name, String orderNumber, int num) {
+        MockBean bean = new MockBean();
+        bean.setName(name);
+        bean.setOrderNumber(orderNumber);
+        bean.setNum(num);
+        return bean;
+    }
+
+    private final List<MockBean> beans = Arrays.asList(
+            createBean("kyle", "abc123456", 123),
+            createBean("jimmy", null, -456));
+
+    @Test
+    public void writesColumnsByPosition() {
+        ColumnPositionMappingStrategy<MockBean> strat = new ColumnPositionMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        strat.setColumnMapping(new String[]{"num", "name", "unknown", "orderNumber"});
+        StringWriter sw = new StringWriter();
+
+        new BeanToCsv<MockBean>().write(strat, sw, beans);
+
+        assertEquals("\"123\",\"kyle\",,\"abc123456\"\n\"-456\",\"jimmy\",,\n", sw.toString());
+    }
+
+    @Test
+    public void writesHeaderAndNumbersWithoutQuotes() {
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        strat.setHeader(new String[]{"name", "num"});
+        StringWriter sw = new StringWriter();
+        CSVWriter csv = new CSVWriter(sw);
+        csv.setQuotePolicy(QuotePolicy.NON_NUMERIC);
+
+        new BeanToCsv<MockBean>().write(strat, csv, beans);
+
+        assertEquals("\"name\",\"num\"\n\"kyle\",123\n\"jimmy\",-456\n", sw.toString());
+    }
+
+    @Test
+    public void derivesHeaderFromProperties() {
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        StringWriter sw = new StringWriter();
+        CSVWriter csv = new CSVWriter(sw);
+        csv.setQuotePolicy(QuotePolicy.MINIMAL);
+
+        new BeanToCsv<MockBean>().write(strat, csv, beans);
+
+        assertArrayEquals(new String[]{"id", "name", "num", "orderNumber"}, strat.getHeader());
+        assertEquals("id,name,num,orderNumber\n,kyle,123,abc123456\n,jimmy,-456,\n", sw.toString());
+    }
+
+    @Test
+    public void readsBackWhatItWrites() {
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        StringWriter sw = new StringWriter();
+        new BeanToCsv<MockBean>().write(strat, sw, beans);
+
+        List<MockBean> read = new CsvToBean<MockBean>().parse(strat, new StringReader(sw.toString()));
+
+        assertEquals(2, read.size());
+        assertEquals("kyle", read.get(0).getName());
+        assertEquals("abc123456", read.get(0).getOrderNumber());
+        assertEquals(-456, read.get(1).getNum());
+    }
+
+    public static class BrokenBean extends MockBean {
+        @Override
+        public String getOrderNumber() {
+            throw new IllegalStateException("broken");
+        }
+    }
+
+    @Test
+    public void leavesTheWriterCleanWhenAGetterThrows() throws Exception {
+        ColumnPositionMappingStrategy<MockBean> strat = new ColumnPositionMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        strat.setColumnMapping(new String[]{"name", "orderNumber"});
+        StringWriter sw = new StringWriter();
+        CSVWriter csv = new CSVWriter(sw);
+        BrokenBean broken = new BrokenBean();
+        broken.setName("kyle");
+
+        try {
+            new BeanToCsv<MockBean>().write(strat, csv, Arrays.<MockBean>asList(broken));
+            fail("expected the getter to fail");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+        }
+        csv.writeNext(new String[]{"next"});
+        csv.flush();
+
+        assertEquals("\"next\"\n", sw.toString());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void throwsForStrategyWithoutColumnList() {
+        new BeanToCsv<MockBean>().write(new MappingStrategy<MockBean>() {
+            public PropertyDescriptor findDescriptor(int col) {
+                return null;
+            }
+
+            public MockBean createBean() {
+                return null;
+            }
+
+            public void captureHeader(AbstractCsvReader reader) {
+            }
+        }, new StringWriter(), beans);
+    }
+}
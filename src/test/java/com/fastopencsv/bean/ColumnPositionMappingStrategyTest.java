@@ -129,4 +129,15 @@ public class ColumnPositionMappingStrategyTest {
         assertNull(strat.getColumnMapping());
     }
 
+    @Test
+    public void resolvesTheColumnMapping() throws Exception {
+        strat.setColumnMapping(new String[]{"name", null, "num"});
+        assertEquals(3, strat.resolveColumns().length);
+        assertNull(strat.resolveColumns()[1]);
+
+        strat.setColumnMapping(new String[]{"id"});
+
+        assertEquals("id", strat.findDescriptor(0).getName());
+        assertNull(strat.findDescriptor(2));
+    }
 }
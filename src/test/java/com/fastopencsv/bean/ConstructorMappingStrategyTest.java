@@ -0,0 +1,225 @@
+package com.fastopencsv.bean;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeNotNull;
+import static org.junit.Assume.assumeTrue;
+
+import java.beans.ConstructorProperties;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fastopencsv.CsvStreamReader;
+
+public class ConstructorMappingStrategyTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public static final class Order {
+        private final String name;
+        private final int num;
+        private final BigDecimal price;
+
+        @ConstructorProperties({"name", "num", "price"})
+        public Order(String name, int num, BigDecimal price) {
+            this.name = name;
+            this.num = num;
+            this.price = price;
+        }
+    }
+
+    public static final class Point {
+        private final long x;
+        private final long y;
+
+        private Point(long x, long y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @CsvCreator({"x", "y"})
+        public static Point of(long x, long y) {
+            return new Point(x, y);
+        }
+    }
+
+    public static class NoCreator {
+    }
+
+    static final class Hidden {
+        final String name;
+        final int num;
+
+        @CsvCreator({"name", "num"})
+        private Hidden(String name, int num) {
+            this.name = name;
+            this.num = num;
+        }
+    }
+
+    static final class HiddenFactory {
+        final String name;
+
+        private HiddenFactory(String name) {
+            this.name = name;
+        }
+
+        @CsvCreator({"name"})
+        static HiddenFactory named(String name) {
+            return new HiddenFactory(name);
+        }
+    }
+
+    @Test
+    public void mapsHeaderColumnsToConstructorParameters() {
+        ConstructorMappingStrategy<Order> strat = new ConstructorMappingStrategy<Order>(Order.class);
+
+        List<Order> list = new CsvToBean<Order>().parse(strat,
+                new StringReader("PRICE,ignored,Name,num\n 9.99 ,x,kyle, 3\n,y,jimmy,4\n"));
+
+        assertEquals(2, list.size());
+        assertEquals("kyle", list.get(0).name);
+        assertEquals(3, list.get(0).num);
+        assertEquals(new BigDecimal("9.99"), list.get(0).price);
+        assertNull(list.get(1).price);
+    }
+
+    @Test
+    public void usesDefaultsForMissingColumns() {
+        ConstructorMappingStrategy<Order> strat = new ConstructorMappingStrategy<Order>(Order.class);
+
+        List<Order> list = new CsvToBean<Order>().parse(strat, new StringReader("name\nkyle\n"));
+
+        assertEquals("kyle", list.get(0).name);
+        assertEquals(0, list.get(0).num);
+        assertNull(list.get(0).price);
+    }
+
+    @Test
+    public void mapsByPositionToFactoryMethod() {
+        ConstructorMappingStrategy<Point> strat = new ConstructorMappingStrategy<Point>(Point.class);
+        strat.setColumnMapping(new String[]{"y", "x"});
+
+        BeanIterator<Point> points = new CsvToBean<Point>().iterate(strat,
+                new CsvStreamReader(new StringReader("1,2\n-3,4\n")));
+
+        Point first = points.next();
+        assertEquals(2, first.x);
+        assertEquals(1, first.y);
+        Point second = points.next();
+        assertEquals(4, second.x);
+        assertEquals(-3, second.y);
+    }
+
+    @Test
+    public void findsCreatorsThatAreNotPublic() {
+        List<Hidden> hidden = new CsvToBean<Hidden>().parse(new ConstructorMappingStrategy<Hidden>(Hidden.class),
+                new StringReader("num,name\n3,kyle\n"));
+        List<HiddenFactory> factory = new CsvToBean<HiddenFactory>().parse(
+                new ConstructorMappingStrategy<HiddenFactory>(HiddenFactory.class),
+                new StringReader("name\njimmy\n"));
+
+        assertEquals("kyle", hidden.get(0).name);
+        assertEquals(3, hidden.get(0).num);
+        assertEquals("jimmy", factory.get(0).name);
+    }
+
+    @Test
+    public void reportsParameterNames() {
+        assertArrayEquals(new String[]{"name", "num", "price"},
+                new ConstructorMappingStrategy<Order>(Order.class).getParameterNames());
+    }
+
+    @Test
+    public void worksInThePipeline() {
+        ConstructorMappingStrategy<Point> strat = new ConstructorMappingStrategy<Point>(Point.class);
+        CsvToBeanPipeline<Point> pipeline = new CsvToBeanPipeline<Point>();
+        pipeline.setMapperThreads(2);
+        StringBuilder sb = new StringBuilder("x,y\n");
+        for (int i = 0; i < 500; i++) {
+            sb.append(i).append(',').append(-i).append('\n');
+        }
+
+        List<Point> list = pipeline.parse(strat, new StringReader(sb.toString()));
+
+        assertEquals(500, list.size());
+        assertEquals(499, list.get(499).x);
+        assertEquals(-499, list.get(499).y);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void mapsRowsToARecord() throws Exception {
+        assumeTrue(hasRecords());
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeNotNull(compiler);
+        File out = folder.newFolder("classes");
+        File source = new File(folder.newFolder("points"), "Point.java");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(source), "UTF-8");
+        try {
+            // not public, so the canonical constructor has to be made accessible
+            writer.write("package points;\n"
+                    + "record Point(String name, int x, java.math.BigDecimal price) {}\n");
+        } finally {
+            writer.close();
+        }
+        assertEquals(0, compiler.run(null, null, null, "-d", out.getPath(), source.getPath()));
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{out.toURI().toURL()}, getClass().getClassLoader());
+        try {
+            Class<Object> type = (Class<Object>) loader.loadClass("points.Point");
+            ConstructorMappingStrategy<Object> strat = new ConstructorMappingStrategy<Object>(type);
+            assertArrayEquals(new String[]{"name", "x", "price"}, strat.getParameterNames());
+
+            List<Object> list = new CsvToBean<Object>().parse(strat,
+                    new StringReader("X,name,price\n 3 ,kyle,9.99\n-1,jimmy,\n"));
+
+            assertEquals("Point[name=kyle, x=3, price=9.99]", list.get(0).toString());
+            assertEquals("Point[name=jimmy, x=-1, price=null]", list.get(1).toString());
+        } finally {
+            loader.close();
+        }
+    }
+
+    private static boolean hasRecords() {
+        try {
+            Class.class.getMethod("isRecord");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTypeWithoutCreator() {
+        new ConstructorMappingStrategy<NoCreator>(NoCreator.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotRecycleImmutableObjects() {
+        ConstructorMappingStrategy<Point> strat = new ConstructorMappingStrategy<Point>(Point.class);
+        new CsvToBean<Point>().iterate(strat, new CsvStreamReader(new StringReader("x,y\n")), true);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void throwsRuntimeExceptionForBadValue() {
+        ConstructorMappingStrategy<Point> strat = new ConstructorMappingStrategy<Point>(Point.class);
+        new CsvToBean<Point>().parse(strat, new StringReader("x,y\n1,two\n"));
+    }
+}
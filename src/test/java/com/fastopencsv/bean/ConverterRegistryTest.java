@@ -0,0 +1,196 @@
+package com.fastopencsv.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.beans.PropertyDescriptor;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class ConverterRegistryTest {
+
+    public enum Colour { RED, GREEN }
+
+    private final ConverterRegistry registry = new ConverterRegistry();
+
+    private Object convert(Class<?> type, String text) {
+        return registry.find(type).convert(text);
+    }
+
+    @Test
+    public void convertsIntegersInDecimal() {
+        assertEquals(Integer.valueOf(42), convert(int.class, "42"));
+        assertEquals(Integer.valueOf(10), convert(int.class, "010"));
+        assertEquals(Integer.valueOf(7), convert(Integer.class, "+7"));
+        assertEquals(Integer.valueOf(Integer.MIN_VALUE), convert(int.class, "-2147483648"));
+        assertEquals(Long.valueOf(Long.MAX_VALUE), convert(long.class, "9223372036854775807"));
+        assertEquals(Short.valueOf((short) -5), convert(short.class, "-5"));
+        assertEquals(Byte.valueOf((byte) 127), convert(Byte.class, "127"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectsIntegerOverflow() {
+        convert(int.class, "2147483648");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectsByteOverflow() {
+        convert(byte.class, "-129");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectsSignWithoutDigits() {
+        convert(long.class, "-");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectsEmptyPrimitive() {
+        convert(int.class, "");
+    }
+
+    @Test
+    public void convertsEmptyObjectsToNull() {
+        assertNull(convert(Integer.class, ""));
+        assertNull(convert(Double.class, ""));
+        assertNull(convert(Boolean.class, ""));
+        assertNull(convert(BigDecimal.class, ""));
+        assertNull(convert(Colour.class, ""));
+        assertEquals("", convert(String.class, ""));
+    }
+
+    @Test
+    public void convertsOtherBuiltInTypes() {
+        assertEquals(Double.valueOf(1.5), convert(double.class, "1.5"));
+        assertEquals(Float.valueOf(-2.25f), convert(Float.class, "-2.25"));
+        assertEquals(Boolean.TRUE, convert(boolean.class, "TRUE"));
+        assertEquals(Character.valueOf('x'), convert(char.class, "x"));
+        assertEquals(new BigDecimal("12.50"), convert(BigDecimal.class, "12.50"));
+        UUID uuid = UUID.randomUUID();
+        assertEquals(uuid, convert(UUID.class, uuid.toString()));
+        assertEquals(Colour.GREEN, convert(Colour.class, "GREEN"));
+    }
+
+    @Test
+    public void convertsJavaTimeTypesWhenPresent() throws Exception {
+        Class<?> localDate;
+        try {
+            localDate = Class.forName("java.time.LocalDate");
+        } catch (ClassNotFoundException e) {
+            return;
+        }
+        assertEquals("2014-07-01", convert(localDate, "2014-07-01").toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reportsBadJavaTimeValuesAsIllegalArguments() throws Exception {
+        Class<?> localDate;
+        try {
+            localDate = Class.forName("java.time.LocalDate");
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException(e);
+        }
+        convert(localDate, "yesterday");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownEnumConstant() {
+        convert(Colour.class, "BLUE");
+    }
+
+    @Test
+    public void findsNothingForUnknownTypes() {
+        assertNull(registry.find(StringBuilder.class));
+    }
+
+    @Test
+    public void registeredConverterReplacesBuiltIn() {
+        Converter<Integer> hex = new Converter<Integer>() {
+            public Integer convert(String text) {
+                return Integer.valueOf(text, 16);
+            }
+        };
+        registry.register(int.class, hex);
+        assertSame(hex, registry.find(int.class));
+    }
+
+    @Test
+    public void csvToBeanUsesTheRegistry() {
+        registry.register(int.class, new Converter<Integer>() {
+            public Integer convert(String text) {
+                return Integer.valueOf(text, 16);
+            }
+        });
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        CsvToBean<MockBean> csv = new CsvToBean<MockBean>();
+        csv.setConverterRegistry(registry);
+
+        List<MockBean> list = csv.parse(strat, new StringReader("name,num\nkyle, ff \n"));
+
+        assertEquals(255, list.get(0).getNum());
+    }
+
+    @Test
+    public void csvToBeanStillCallsOverriddenConvertValue() {
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        CsvToBean<MockBean> csv = new CsvToBean<MockBean>() {
+            @Override
+            protected Object convertValue(String value, PropertyDescriptor prop) {
+                return "num".equals(prop.getName()) ? Integer.valueOf(-1) : value;
+            }
+        };
+
+        List<MockBean> list = csv.parse(strat, new StringReader("name,num\nkyle,5\n"));
+
+        assertEquals("kyle", list.get(0).getName());
+        assertEquals(-1, list.get(0).getNum());
+    }
+
+    private ConversionStatus tryConvert(Class<?> type, String text, ConversionResult result) {
+        return ((StatusConverter<?>) registry.find(type)).tryConvert(text, result);
+    }
+
+    @Test
+    public void reportsBadValuesWithStatusCodes() {
+        ConversionResult result = new ConversionResult();
+        assertEquals(ConversionStatus.MALFORMED, tryConvert(int.class, "12a", result));
+        assertEquals(ConversionStatus.OUT_OF_RANGE, tryConvert(byte.class, "200", result));
+        assertEquals(ConversionStatus.EMPTY, tryConvert(long.class, "", result));
+        assertEquals(ConversionStatus.MALFORMED, tryConvert(double.class, "abc", result));
+        assertEquals(ConversionStatus.MALFORMED, tryConvert(double.class, "1.2.3", result));
+        assertEquals(ConversionStatus.MALFORMED, tryConvert(double.class, "bad", result));
+        assertEquals(ConversionStatus.MALFORMED, tryConvert(Float.class, "n/f", result));
+        assertEquals(ConversionStatus.MALFORMED, tryConvert(double.class, "1.2.3d", result));
+        assertEquals(ConversionStatus.MALFORMED, tryConvert(BigDecimal.class, "1e", result));
+        assertEquals(ConversionStatus.MALFORMED, tryConvert(BigInteger.class, "1.5", result));
+        assertEquals(ConversionStatus.MALFORMED, tryConvert(boolean.class, "yes", result));
+        assertEquals(ConversionStatus.MALFORMED, tryConvert(UUID.class, "not-a-uuid", result));
+        assertEquals(ConversionStatus.MALFORMED, tryConvert(Colour.class, "BLUE", result));
+        assertEquals(ConversionStatus.EMPTY, tryConvert(char.class, "", result));
+    }
+
+    @Test
+    public void setsTheValueWhenTheStatusIsOk() {
+        ConversionResult result = new ConversionResult();
+        assertEquals(ConversionStatus.OK, tryConvert(int.class, "-17", result));
+        assertEquals(Integer.valueOf(-17), result.getValue());
+        assertEquals(ConversionStatus.OK, tryConvert(double.class, "-1.5e3", result));
+        assertEquals(Double.valueOf(-1500), result.getValue());
+        assertEquals(ConversionStatus.OK, tryConvert(double.class, "NaN", result));
+        assertEquals(ConversionStatus.OK, tryConvert(float.class, "2.5f", result));
+        assertEquals(Float.valueOf(2.5f), result.getValue());
+        assertEquals(ConversionStatus.OK, tryConvert(BigDecimal.class, ".5", result));
+        assertEquals(new BigDecimal("0.5"), result.getValue());
+        assertEquals(ConversionStatus.OK, tryConvert(Colour.class, "GREEN", result));
+        assertSame(Colour.GREEN, result.getValue());
+        assertEquals(ConversionStatus.OK, tryConvert(Integer.class, "", result));
+        assertNull(result.getValue());
+    }
+}
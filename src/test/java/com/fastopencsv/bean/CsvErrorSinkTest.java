@@ -0,0 +1,158 @@
+package com.fastopencsv.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.PropertyDescriptor;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fastopencsv.CsvStreamReader;
+
+public class CsvErrorSinkTest {
+
+    private static HeaderColumnNameMappingStrategy<MockBean> createStrategy() {
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        return strat;
+    }
+
+    @Test
+    public void skipsBadRowsAndRecordsTheirFields() {
+        CsvErrorSink errors = new CsvErrorSink();
+        CsvToBean<MockBean> csv = new CsvToBean<MockBean>();
+        csv.setErrorSink(errors);
+
+        List<MockBean> list = csv.parse(createStrategy(),
+                new StringReader("name,num\nkyle,1\njimmy,abc\ntom, 99999999999\nsue,\nann,4\n"));
+
+        assertEquals(2, list.size());
+        assertEquals("kyle", list.get(0).getName());
+        assertEquals("ann", list.get(1).getName());
+        assertEquals(3, errors.getErrorCount());
+        assertEquals(3, errors.getFailedRows());
+        assertFalse(errors.isTruncated());
+
+        CsvError first = errors.getErrors().get(0);
+        assertEquals(2, first.getRow());
+        assertEquals(1, first.getColumn());
+        assertEquals("num", first.getProperty());
+        assertEquals("abc", first.getValue());
+        assertEquals(ConversionStatus.MALFORMED, first.getStatus());
+
+        CsvError second = errors.getErrors().get(1);
+        assertEquals(" 99999999999", second.getValue());
+        assertEquals(ConversionStatus.OUT_OF_RANGE, second.getStatus());
+        assertEquals(ConversionStatus.EMPTY, errors.getErrors().get(2).getStatus());
+    }
+
+    @Test
+    public void keepsOnlyTheFirstErrors() {
+        CsvErrorSink errors = new CsvErrorSink(2);
+        CsvToBean<MockBean> csv = new CsvToBean<MockBean>();
+        csv.setErrorSink(errors);
+
+        List<MockBean> list = csv.parse(createStrategy(), new StringReader("num\nx\ny\nz\n5\n"));
+
+        assertEquals(1, list.size());
+        assertEquals(2, errors.getErrors().size());
+        assertEquals(3, errors.getErrorCount());
+        assertTrue(errors.isTruncated());
+        assertEquals(2, errors.getErrors().get(1).getRow());
+
+        errors.clear();
+        assertEquals(0, errors.getErrorCount());
+        assertTrue(errors.getErrors().isEmpty());
+    }
+
+    @Test
+    public void recordsTheMessageOfConvertersThatThrow() {
+        ConverterRegistry registry = new ConverterRegistry();
+        registry.register(int.class, new Converter<Integer>() {
+            public Integer convert(String text) {
+                throw new IllegalArgumentException("no ints today");
+            }
+        });
+        CsvErrorSink errors = new CsvErrorSink();
+        CsvToBean<MockBean> csv = new CsvToBean<MockBean>();
+        csv.setConverterRegistry(registry);
+        csv.setErrorSink(errors);
+
+        assertTrue(csv.parse(createStrategy(), new StringReader("num\n1\n")).isEmpty());
+        assertTrue(errors.getErrors().get(0).getReason().contains("no ints today"));
+    }
+
+    @Test
+    public void catchesSubclassesThatConvertTheOldWay() {
+        CsvErrorSink errors = new CsvErrorSink();
+        CsvToBean<MockBean> csv = new CsvToBean<MockBean>() {
+            @Override
+            protected Object convertValue(String value, PropertyDescriptor prop) {
+                if (value.startsWith("-")) {
+                    throw new IllegalArgumentException("negative");
+                }
+                return "num".equals(prop.getName()) ? Integer.valueOf(value) : value;
+            }
+        };
+        csv.setErrorSink(errors);
+
+        List<MockBean> list = csv.parse(createStrategy(), new StringReader("num\n-1\n2\n"));
+
+        assertEquals(1, list.size());
+        assertEquals(2, list.get(0).getNum());
+        assertEquals(1, errors.getErrorCount());
+    }
+
+    @Test
+    public void iteratorSkipsBadRows() {
+        CsvErrorSink errors = new CsvErrorSink();
+        CsvToBean<MockBean> csv = new CsvToBean<MockBean>();
+        csv.setErrorSink(errors);
+
+        BeanIterator<MockBean> beans = csv.iterate(createStrategy(),
+                new CsvStreamReader(new StringReader("name,num\na,x\nb,2\nc,y\n")), true);
+
+        assertTrue(beans.hasNext());
+        assertEquals("b", beans.next().getName());
+        assertFalse(beans.hasNext());
+        assertEquals(1, beans.getRowsRead());
+        assertEquals(3, errors.getErrors().get(1).getRow());
+    }
+
+    @Test
+    public void skipsBadRowsForConstructors() {
+        CsvErrorSink errors = new CsvErrorSink();
+        CsvToBean<ConstructorMappingStrategyTest.Order> csv = new CsvToBean<ConstructorMappingStrategyTest.Order>();
+        csv.setErrorSink(errors);
+
+        List<ConstructorMappingStrategyTest.Order> list = csv.parse(
+                new ConstructorMappingStrategy<ConstructorMappingStrategyTest.Order>(
+                        ConstructorMappingStrategyTest.Order.class),
+                new StringReader("name,num,price\na,1,2.5\nb,2,cheap\n"));
+
+        assertEquals(1, list.size());
+        CsvError error = errors.getErrors().get(0);
+        assertEquals(2, error.getRow());
+        assertEquals("price", error.getProperty());
+        assertEquals(ConversionStatus.MALFORMED, error.getStatus());
+    }
+
+    @Test
+    public void throwsWithoutASink() {
+        try {
+            new CsvToBean<MockBean>().parse(createStrategy(), new StringReader("num\nx\n"));
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof NumberFormatException);
+            return;
+        }
+        throw new AssertionError("expected the parse to fail");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeLimit() {
+        new CsvErrorSink(-1);
+    }
+}
@@ -0,0 +1,84 @@
+package com.fastopencsv.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CsvToBeanPipelineTest {
+
+    private static String createTestData(int rows) {
+        StringBuilder sb = new StringBuilder("name,orderNumber,num\n");
+        for (int i = 0; i < rows; i++) {
+            sb.append("name").append(i).append(",order").append(i).append(',').append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void mapsBeansInFileOrder() {
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        CsvToBeanPipeline<MockBean> pipeline = new CsvToBeanPipeline<MockBean>();
+        pipeline.setBlockSize(17);
+        pipeline.setParserThreads(2);
+        pipeline.setMapperThreads(4);
+
+        List<MockBean> list = pipeline.parse(strat, new StringReader(createTestData(3000)));
+
+        assertEquals(3000, list.size());
+        for (int i = 0; i < list.size(); i++) {
+            MockBean bean = list.get(i);
+            assertEquals("name" + i, bean.getName());
+            assertEquals("order" + i, bean.getOrderNumber());
+            assertEquals(i, bean.getNum());
+        }
+    }
+
+    @Test
+    public void mapsByColumnPosition() {
+        ColumnPositionMappingStrategy<MockBean> strat = new ColumnPositionMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        strat.setColumnMapping(new String[]{"name", "orderNumber", "num"});
+        CsvToBeanPipeline<MockBean> pipeline = new CsvToBeanPipeline<MockBean>();
+        pipeline.setMapperThreads(2);
+
+        List<MockBean> list = pipeline.parse(strat, new StringReader("kyle,abc123456,123\njimmy,def098765,456\n"));
+
+        assertEquals(2, list.size());
+        assertEquals("jimmy", list.get(1).getName());
+        assertEquals(456, list.get(1).getNum());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void throwRuntimeExceptionWhenMappingFails() {
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        CsvToBeanPipeline<MockBean> pipeline = new CsvToBeanPipeline<MockBean>();
+        pipeline.setMapperThreads(2);
+        pipeline.parse(strat, new StringReader("name,num\nkyle,notanumber\n"));
+    }
+
+    @Test
+    public void mapsEveryBeanWhenUnordered() {
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        CsvToBeanPipeline<MockBean> pipeline = new CsvToBeanPipeline<MockBean>();
+        pipeline.setBlockSize(13);
+        pipeline.setMapperThreads(4);
+        pipeline.setOrdered(false);
+
+        List<MockBean> list = pipeline.parse(strat, new StringReader(createTestData(3000)));
+
+        assertEquals(3000, list.size());
+        boolean[] seen = new boolean[3000];
+        for (MockBean bean : list) {
+            assertEquals("name" + bean.getNum(), bean.getName());
+            assertFalse(seen[bean.getNum()]);
+            seen[bean.getNum()] = true;
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.fastopencsv.bean;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
 import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.List;
 
 import org.junit.Test;
 
@@ -43,4 +47,46 @@ public class CsvToBeanTest {
         CsvToBean bean = new CsvToBean();
         bean.parse(createErrorMappingStrategy(), createReader());
     }
+
+    @Test
+    public void mapsColumnsThatOnlyLaterRowsReach() {
+        ColumnPositionMappingStrategy<MockBean> strat = new ColumnPositionMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        strat.setColumnMapping(new String[]{"name", "orderNumber", "num"});
+        CsvToBean<MockBean> csv = new CsvToBean<MockBean>();
+
+        List<MockBean> list = csv.parse(strat, new StringReader("kyle\njimmy,def098765, 456 \n"));
+
+        assertEquals(2, list.size());
+        assertNull(list.get(0).getOrderNumber());
+        assertEquals("def098765", list.get(1).getOrderNumber());
+        assertEquals(456, list.get(1).getNum());
+    }
+
+    @Test
+    public void remapsColumnsWhenTheHeaderChanges() {
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        CsvToBean<MockBean> csv = new CsvToBean<MockBean>();
+
+        csv.parse(strat, new StringReader("name,num\nkyle,1\n"));
+        List<MockBean> list = csv.parse(strat, new StringReader("num,name\n2,jimmy\n"));
+
+        assertEquals("jimmy", list.get(0).getName());
+        assertEquals(2, list.get(0).getNum());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void throwRuntimeExceptionWhenSetterFails() {
+        HeaderColumnNameMappingStrategy<FailingBean> strat = new HeaderColumnNameMappingStrategy<FailingBean>();
+        strat.setType(FailingBean.class);
+        CsvToBean<FailingBean> csv = new CsvToBean<FailingBean>();
+        csv.parse(strat, new StringReader("name\nkyle\n"));
+    }
+
+    public static class FailingBean {
+        public void setName(String name) {
+            throw new IllegalStateException("This is the test exception");
+        }
+    }
 }
@@ -19,18 +19,26 @@ package com.fastopencsv.bean;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
 import java.io.StringReader;
 import java.util.List;
 
 import org.junit.Test;
 
+import com.fastopencsv.CsvStreamReader;
+
 public class HeaderColumnNameMappingStrategyTest {
     private static final String TEST_STRING = "name,orderNumber,num\n" +
             "kyle,abc123456,123\n" +
             "jimmy,def098765,456";
 
+    private final int[] lookups = new int[1];
+
 
     private List<MockBean> createTestParseResult() {
         HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
@@ -78,4 +86,63 @@ public class HeaderColumnNameMappingStrategyTest {
 //        assertTrue(strat.matches("name", strat.findDescriptor("name")));
 //    }
 
+    @Test
+    public void resolvesAllColumnsOnce() throws Exception {
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>() {
+            @Override
+            protected String getColumnName(int col) {
+                lookups[0]++;
+                return super.getColumnName(col);
+            }
+        };
+        strat.setType(MockBean.class);
+        strat.captureHeader(new CsvStreamReader(new StringReader("num,unknown, name \n")));
+
+        PropertyDescriptor[] columns = strat.resolveColumns();
+
+        assertEquals(3, columns.length);
+        assertEquals("num", columns[0].getName());
+        assertNull(columns[1]);
+        assertEquals("name", columns[2].getName());
+        assertEquals(3, lookups[0]);
+        assertSame(columns[2], strat.findDescriptor(2));
+        assertNull(strat.findDescriptor(5));
+        strat.resolveColumns();
+        assertEquals(3, lookups[0]);
+    }
+
+    @Test
+    public void resolvesAgainWhenTheHeaderChanges() throws Exception {
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        strat.setHeader(new String[]{"name"});
+        assertEquals("name", strat.resolveColumns()[0].getName());
+
+        strat.captureHeader(new CsvStreamReader(new StringReader("orderNumber,num\n")));
+
+        assertEquals("orderNumber", strat.findDescriptor(0).getName());
+        assertEquals(2, strat.resolveColumns().length);
+    }
+
+    @Test
+    public void subclassesCanAddAliasesToTheirOwnMap() throws Exception {
+        HeaderColumnNameMappingStrategy<MockBean> aliased = new HeaderColumnNameMappingStrategy<MockBean>() {
+            @Override
+            protected PropertyDescriptor findDescriptor(String name) throws IntrospectionException {
+                if (descriptorMap == null) {
+                    descriptorMap = loadDescriptorMap(getType());
+                    descriptorMap.put("CUSTOMER", descriptorMap.get("NAME"));
+                }
+                return super.findDescriptor(name);
+            }
+        };
+        aliased.setType(MockBean.class);
+        aliased.setHeader(new String[]{"customer"});
+        assertEquals("name", aliased.findDescriptor(0).getName());
+
+        HeaderColumnNameMappingStrategy<MockBean> plain = new HeaderColumnNameMappingStrategy<MockBean>();
+        plain.setType(MockBean.class);
+        plain.setHeader(new String[]{"customer"});
+        assertNull(plain.findDescriptor(0));
+    }
 }
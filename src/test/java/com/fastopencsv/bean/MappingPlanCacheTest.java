@@ -0,0 +1,176 @@
+package com.fastopencsv.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.PropertyDescriptor;
+import java.beans.PropertyEditorSupport;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class MappingPlanCacheTest {
+
+    public static class UpperCaseEditor extends PropertyEditorSupport {
+        @Override
+        public void setAsText(String text) {
+            setValue(text.toUpperCase());
+        }
+    }
+
+    private static List<MockBean> parse(MappingPlanCache cache, ConverterRegistry registry, String csv) {
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+        CsvToBean<MockBean> converter = new CsvToBean<MockBean>();
+        converter.setMappingPlanCache(cache);
+        if (registry != null) {
+            converter.setConverterRegistry(registry);
+        }
+        return converter.parse(strat, new StringReader(csv));
+    }
+
+    @Test
+    public void sharesPlanBetweenParsesOfTheSameLayout() {
+        MappingPlanCache cache = new MappingPlanCache(10);
+        ConverterRegistry registry = new ConverterRegistry();
+
+        parse(cache, registry, "name,num\nkyle,1\n");
+        List<MockBean> list = parse(cache, registry, "NAME, num \njimmy,2\n");
+
+        assertEquals(1, cache.size());
+        assertEquals("jimmy", list.get(0).getName());
+        assertEquals(2, list.get(0).getNum());
+
+        parse(cache, registry, "num,name\n3,kyle\n");
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void sharesPlanBetweenDefaultCsvToBeans() {
+        MappingPlanCache.getShared().clear();
+        HeaderColumnNameMappingStrategy<MockBean> strat = new HeaderColumnNameMappingStrategy<MockBean>();
+        strat.setType(MockBean.class);
+
+        new CsvToBean<MockBean>().parse(strat, new StringReader("name,num\nkyle,1\n"));
+        List<MockBean> list = new CsvToBean<MockBean>().parse(strat, new StringReader("name,num\njimmy,2\n"));
+
+        assertEquals(1, MappingPlanCache.getShared().size());
+        assertEquals(2, list.get(0).getNum());
+    }
+
+    @Test
+    public void sharesPlanBetweenRegistriesWithTheSameConverters() {
+        MappingPlanCache cache = new MappingPlanCache(10);
+        Converter<Integer> hex = new Converter<Integer>() {
+            public Integer convert(String text) {
+                return Integer.valueOf(text, 16);
+            }
+        };
+        ConverterRegistry first = new ConverterRegistry();
+        first.register(int.class, hex);
+        ConverterRegistry second = new ConverterRegistry();
+        second.register(int.class, hex);
+
+        parse(cache, first, "name,num\nkyle,1\n");
+        List<MockBean> list = parse(cache, second, "name,num\nkyle,ff\n");
+
+        assertEquals(1, cache.size());
+        assertEquals(255, list.get(0).getNum());
+    }
+
+    @Test
+    public void compilesAgainAfterAConverterIsRegistered() {
+        MappingPlanCache cache = new MappingPlanCache(10);
+        ConverterRegistry registry = new ConverterRegistry();
+        parse(cache, registry, "name,num\nkyle,1\n");
+
+        registry.register(int.class, new Converter<Integer>() {
+            public Integer convert(String text) {
+                return Integer.valueOf(text, 16);
+            }
+        });
+        List<MockBean> list = parse(cache, registry, "name,num\nkyle,10\n");
+
+        assertEquals(16, list.get(0).getNum());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void emptiesWhenFull() {
+        MappingPlanCache cache = new MappingPlanCache(2);
+        ConverterRegistry registry = new ConverterRegistry();
+        parse(cache, registry, "name\nkyle\n");
+        parse(cache, registry, "num\n1\n");
+        parse(cache, registry, "id\nx\n");
+
+        assertEquals(1, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void worksWithoutACache() {
+        List<MockBean> list = parse(null, null, "name,num\nkyle,1\n");
+
+        assertEquals("kyle", list.get(0).getName());
+    }
+
+    @Test
+    public void threadsMapWithOnePlan() throws Exception {
+        final MappingPlanCache cache = new MappingPlanCache(10);
+        final ConverterRegistry registry = new ConverterRegistry();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<MockBean>>> results = new ArrayList<Future<List<MockBean>>>();
+            for (int i = 0; i < 40; i++) {
+                final int n = i;
+                results.add(pool.submit(new Callable<List<MockBean>>() {
+                    public List<MockBean> call() {
+                        return parse(cache, registry, "name,num\nname" + n + "," + n + "\n");
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                MockBean bean = results.get(i).get().get(0);
+                assertEquals("name" + i, bean.getName());
+                assertEquals(i, bean.getNum());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void sharedCacheIsUsedByDefault() {
+        assertTrue(new CsvToBean<MockBean>().getMappingPlanCache() == MappingPlanCache.getShared());
+    }
+
+    @Test
+    public void doesNotSharePropertyEditors() throws Exception {
+        MappingPlanCache cache = new MappingPlanCache(10);
+        ConverterRegistry registry = new ConverterRegistry();
+        PropertyDescriptor name = new PropertyDescriptor("name", MockBean.class);
+        name.setPropertyEditorClass(UpperCaseEditor.class);
+        PropertyDescriptor[] columns = {name};
+
+        BeanSetter[] first = cache.setters(columns, registry);
+        BeanSetter[] second = cache.setters(columns, registry);
+
+        assertEquals(0, cache.size());
+        assertNotSame(first[0].converter, second[0].converter);
+        assertEquals("KYLE", first[0].converter.convert("kyle"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyLimit() {
+        new MappingPlanCache(0);
+    }
+}
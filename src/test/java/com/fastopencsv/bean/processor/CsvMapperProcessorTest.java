@@ -0,0 +1,241 @@
+package com.fastopencsv.bean.processor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fastopencsv.bean.CsvRecord;
+
+public class CsvMapperProcessorTest {
+
+    private static final String ORDER = "package orders;\n" +
+            "import com.fastopencsv.bean.*;\n" +
+            "@CsvRecord\n" +
+            "public class Order {\n" +
+            "    public enum Status { OPEN, SHIPPED }\n" +
+            "    @CsvColumn(name = \"order id\", position = 0) private long id;\n" +
+            "    @CsvColumn private String name;\n" +
+            "    @CsvColumn private Integer quantity;\n" +
+            "    @CsvColumn private boolean paid;\n" +
+            "    @CsvColumn private java.math.BigDecimal price;\n" +
+            "    @CsvColumn private Status status;\n" +
+            "    private String notMapped;\n" +
+            "    public long getId() { return id; }\n" +
+            "    public void setId(long id) { this.id = id; }\n" +
+            "    public String getName() { return name; }\n" +
+            "    public void setName(String name) { this.name = name; }\n" +
+            "    public Integer getQuantity() { return quantity; }\n" +
+            "    public void setQuantity(Integer quantity) { this.quantity = quantity; }\n" +
+            "    public boolean isPaid() { return paid; }\n" +
+            "    public void setPaid(boolean paid) { this.paid = paid; }\n" +
+            "    public java.math.BigDecimal getPrice() { return price; }\n" +
+            "    public void setPrice(java.math.BigDecimal price) { this.price = price; }\n" +
+            "    public Status getStatus() { return status; }\n" +
+            "    public void setStatus(Status status) { this.status = status; }\n" +
+            "}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static class Source extends SimpleJavaFileObject {
+        private final String code;
+
+        Source(String className, String code) {
+            super(new File(className.replace('.', '/') + ".java").toURI(), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+
+    private boolean compile(File out, StringWriter messages, String className, String code) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeNotNull(compiler);
+        String classes = new File(CsvRecord.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .getPath();
+        JavaCompiler.CompilationTask task = compiler.getTask(messages, null, null,
+                Arrays.asList("-classpath", classes, "-d", out.getPath(), "-s", out.getPath()),
+                null, Collections.<JavaFileObject>singletonList(new Source(className, code)));
+        task.setProcessors(Collections.singletonList(new CsvMapperProcessor()));
+        return task.call();
+    }
+
+    private ClassLoader loader(File out) throws IOException {
+        return new URLClassLoader(new URL[]{out.toURI().toURL()}, getClass().getClassLoader());
+    }
+
+    @Test
+    public void generatesMapperThatReadsAndWrites() throws Exception {
+        File out = folder.newFolder("out");
+        StringWriter messages = new StringWriter();
+        assertTrue(messages.toString(), compile(out, messages, "orders.Order", ORDER));
+        assertTrue(new File(out, "orders/OrderCsvMapper.java").exists());
+
+        ClassLoader loader = loader(out);
+        Class<?> mapper = loader.loadClass("orders.OrderCsvMapper");
+        Class<?> order = loader.loadClass("orders.Order");
+        assertArrayEquals(new String[]{"order id", "name", "quantity", "paid", "price", "status"},
+                (String[]) mapper.getField("HEADER").get(null));
+
+        Method read = mapper.getMethod("read", String[].class);
+        Object bean = read.invoke(null, (Object) new String[]{" 42 ", " kyle ", "", "true", "9.99", "SHIPPED"});
+        assertEquals(42L, order.getMethod("getId").invoke(bean));
+        assertEquals(" kyle ", order.getMethod("getName").invoke(bean));
+        assertNull(order.getMethod("getQuantity").invoke(bean));
+
+        Method write = mapper.getMethod("write", order);
+        assertArrayEquals(new String[]{"42", " kyle ", null, "true", "9.99", "SHIPPED"},
+                (String[]) write.invoke(null, bean));
+    }
+
+    @Test
+    public void readsShortRows() throws Exception {
+        File out = folder.newFolder("out");
+        assertTrue(compile(out, new StringWriter(), "orders.Order", ORDER));
+        Class<?> mapper = loader(out).loadClass("orders.OrderCsvMapper");
+
+        Object bean = mapper.getMethod("read", String[].class).invoke(null, (Object) new String[]{"7"});
+
+        assertEquals(7L, bean.getClass().getMethod("getId").invoke(bean));
+        assertNull(bean.getClass().getMethod("getName").invoke(bean));
+    }
+
+    @Test
+    public void reportsUnsupportedColumnTypes() throws Exception {
+        String code = "package orders;\n" +
+                "import com.fastopencsv.bean.*;\n" +
+                "@CsvRecord\n" +
+                "public class Bad {\n" +
+                "    @CsvColumn private java.util.List<String> items;\n" +
+                "    public java.util.List<String> getItems() { return items; }\n" +
+                "    public void setItems(java.util.List<String> items) { this.items = items; }\n" +
+                "}\n";
+        StringWriter messages = new StringWriter();
+
+        assertFalse(compile(folder.newFolder("out"), messages, "orders.Bad", code));
+        assertTrue(messages.toString(), messages.toString().contains("not supported"));
+    }
+
+    @Test
+    public void reportsMissingSetter() throws Exception {
+        String code = "package orders;\n" +
+                "import com.fastopencsv.bean.*;\n" +
+                "@CsvRecord\n" +
+                "public class Bad {\n" +
+                "    @CsvColumn private String name;\n" +
+                "    public String getName() { return name; }\n" +
+                "}\n";
+        StringWriter messages = new StringWriter();
+
+        assertFalse(compile(folder.newFolder("out"), messages, "orders.Bad", code));
+        assertTrue(messages.toString(), messages.toString().contains("getter and setter"));
+    }
+
+    @Test
+    public void handlesControlCharactersAndCharColumns() throws Exception {
+        String code = "package orders;\n" +
+                "import com.fastopencsv.bean.*;\n" +
+                "@CsvRecord\n" +
+                "public class Grade {\n" +
+                "    @CsvColumn(name = \"two\\nlines\\tand\\u0001\") private char letter;\n" +
+                "    @CsvColumn private Character plus;\n" +
+                "    public char getLetter() { return letter; }\n" +
+                "    public void setLetter(char letter) { this.letter = letter; }\n" +
+                "    public Character getPlus() { return plus; }\n" +
+                "    public void setPlus(Character plus) { this.plus = plus; }\n" +
+                "}\n";
+        File out = folder.newFolder("out");
+        StringWriter messages = new StringWriter();
+        assertTrue(messages.toString(), compile(out, messages, "orders.Grade", code));
+
+        Class<?> mapper = loader(out).loadClass("orders.GradeCsvMapper");
+        assertArrayEquals(new String[]{"two\nlines\tand\u0001", "plus"},
+                (String[]) mapper.getField("HEADER").get(null));
+
+        Method read = mapper.getMethod("read", String[].class);
+        Object bean = read.invoke(null, (Object) new String[]{" A ", ""});
+        assertEquals('A', bean.getClass().getMethod("getLetter").invoke(bean));
+        assertNull(bean.getClass().getMethod("getPlus").invoke(bean));
+        try {
+            read.invoke(null, (Object) new String[]{"", "+"});
+            fail("an empty char should have been rejected");
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void rejectsBooleansTheConvertersReject() throws Exception {
+        String code = "package orders;\n" +
+                "import com.fastopencsv.bean.*;\n" +
+                "@CsvRecord\n" +
+                "public class Flags {\n" +
+                "    @CsvColumn private boolean paid;\n" +
+                "    @CsvColumn private Boolean shipped;\n" +
+                "    public boolean isPaid() { return paid; }\n" +
+                "    public void setPaid(boolean paid) { this.paid = paid; }\n" +
+                "    public Boolean getShipped() { return shipped; }\n" +
+                "    public void setShipped(Boolean shipped) { this.shipped = shipped; }\n" +
+                "}\n";
+        File out = folder.newFolder("out");
+        StringWriter messages = new StringWriter();
+        assertTrue(messages.toString(), compile(out, messages, "orders.Flags", code));
+
+        Method read = loader(out).loadClass("orders.FlagsCsvMapper").getMethod("read", String[].class);
+        Object bean = read.invoke(null, (Object) new String[]{" TRUE ", ""});
+        assertEquals(true, bean.getClass().getMethod("isPaid").invoke(bean));
+        assertNull(bean.getClass().getMethod("getShipped").invoke(bean));
+        for (String[] row : new String[][]{{"yes", ""}, {"false", "1"}}) {
+            try {
+                read.invoke(null, (Object) row);
+                fail(Arrays.toString(row) + " should have been rejected");
+            } catch (InvocationTargetException e) {
+                assertTrue(e.getCause() instanceof IllegalArgumentException);
+            }
+        }
+    }
+
+    @Test
+    public void reportsNestedClassesTheMapperCannotCreate() throws Exception {
+        String code = "package orders;\n" +
+                "import com.fastopencsv.bean.*;\n" +
+                "public class Outer {\n" +
+                "    @CsvRecord public class Inner { }\n" +
+                "    @CsvRecord private static class Hidden { }\n" +
+                "    @CsvRecord static class Visible { public Visible() { } }\n" +
+                "}\n";
+        File out = folder.newFolder("out");
+        StringWriter messages = new StringWriter();
+
+        assertFalse(compile(out, messages, "orders.Outer", code));
+        assertTrue(messages.toString(), messages.toString().contains("orders.Outer.Inner must be static"));
+        assertTrue(messages.toString(), messages.toString().contains("orders.Outer.Hidden must not be private"));
+        assertFalse(messages.toString(), messages.toString().contains("Visible"));
+    }
+}